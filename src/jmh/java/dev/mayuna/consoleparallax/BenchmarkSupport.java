@@ -0,0 +1,91 @@
+package dev.mayuna.consoleparallax;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared no-op implementations for benchmarks
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Creates a {@link ConsoleParallax} builder with no-op input and output handlers, executing commands on the
+     * calling thread
+     *
+     * @return Builder instance
+     */
+    public static ConsoleParallax.Builder createBenchmarkBuilder() {
+        return ConsoleParallax.builder()
+                              .setInputHandler(() -> null)
+                              .setOutputHandler(new NoOpOutputHandler())
+                              .setCommandExecutor(Runnable::run);
+    }
+
+    /**
+     * Returns a name of the n-th generated command
+     *
+     * @param index Index of the command
+     *
+     * @return Command name
+     */
+    public static String commandName(int index) {
+        return "command-" + index;
+    }
+
+    /**
+     * Command which does nothing
+     */
+    public static final class NoOpCommand implements BaseCommand {
+
+        private final String name;
+        private final List<String> aliases;
+
+        public NoOpCommand(String name, String... aliases) {
+            this.name = name;
+            this.aliases = Arrays.asList(aliases);
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public @NotNull Collection<String> getAliases() {
+            return aliases;
+        }
+
+        @Override
+        public @NotNull String getUsage() {
+            return "Does nothing, used in benchmarks";
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+        }
+    }
+
+    /**
+     * Output handler which discards all messages
+     */
+    public static final class NoOpOutputHandler implements OutputHandler {
+
+        public long messages;
+
+        @Override
+        public void info(@NotNull String message) {
+            messages++;
+        }
+
+        @Override
+        public void error(@NotNull String message) {
+            messages++;
+        }
+    }
+}
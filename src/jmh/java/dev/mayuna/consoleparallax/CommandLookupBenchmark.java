@@ -0,0 +1,60 @@
+package dev.mayuna.consoleparallax;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConsoleParallax#getCommand(String)} with different registry sizes, each command having an alias
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLookupBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int commandCount;
+
+    private ConsoleParallax consoleParallax;
+    private String lastCommandName;
+    private String upperCaseCommandName;
+    private String lastCommandAlias;
+
+    @Setup
+    public void setup() {
+        consoleParallax = BenchmarkSupport.createBenchmarkBuilder().build();
+
+        for (int i = 0; i < commandCount; i++) {
+            String name = BenchmarkSupport.commandName(i);
+            consoleParallax.registerCommand(new BenchmarkSupport.NoOpCommand(name, name + "-alias"));
+        }
+
+        lastCommandName = BenchmarkSupport.commandName(commandCount - 1);
+        upperCaseCommandName = lastCommandName.toUpperCase();
+        lastCommandAlias = lastCommandName + "-alias";
+    }
+
+    @Benchmark
+    public Optional<BaseCommand> lookupHit() {
+        return consoleParallax.getCommand(lastCommandName);
+    }
+
+    @Benchmark
+    public Optional<BaseCommand> lookupHitUpperCase() {
+        return consoleParallax.getCommand(upperCaseCommandName);
+    }
+
+    @Benchmark
+    public Optional<BaseCommand> lookupAlias() {
+        return consoleParallax.getCommand(lastCommandAlias);
+    }
+
+    @Benchmark
+    public Optional<BaseCommand> lookupMiss() {
+        return consoleParallax.getCommand("unknown-command");
+    }
+}
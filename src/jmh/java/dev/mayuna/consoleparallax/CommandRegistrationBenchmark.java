@@ -0,0 +1,51 @@
+package dev.mayuna.consoleparallax;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registering a set of commands (e.g. of plugins at startup) one by one and as a single batch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandRegistrationBenchmark {
+
+    @Param({"100", "500", "2000"})
+    public int commandCount;
+
+    private List<BaseCommand> commands;
+
+    @Setup
+    public void setup() {
+        commands = new ArrayList<>(commandCount);
+
+        for (int i = 0; i < commandCount; i++) {
+            commands.add(new BenchmarkSupport.NoOpCommand(BenchmarkSupport.commandName(i)));
+        }
+    }
+
+    @Benchmark
+    public CommandRegistry registerOneByOne() {
+        CommandRegistry registry = new CommandRegistry();
+
+        for (BaseCommand command : commands) {
+            registry.register(command);
+        }
+
+        return registry;
+    }
+
+    @Benchmark
+    public CommandRegistry registerAll() {
+        CommandRegistry registry = new CommandRegistry();
+        registry.registerAll(commands);
+        return registry;
+    }
+}
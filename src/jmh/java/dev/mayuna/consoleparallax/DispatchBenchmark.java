@@ -0,0 +1,59 @@
+package dev.mayuna.consoleparallax;
+
+import dev.mayuna.consoleparallax.impl.HistogramCommandMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole parse, lookup and dispatch path of {@link ConsoleParallax#processCommand(String)} and
+ * {@link ConsoleParallax#dispatch(String)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"SYNCHRONIZED", "CONCURRENT"})
+    public CommandExecutionMode executionMode;
+
+    @Param({"noop", "histogram"})
+    public String metrics;
+
+    private ConsoleParallax consoleParallax;
+
+    @Setup
+    public void setup() {
+        consoleParallax = BenchmarkSupport.createBenchmarkBuilder()
+                                          .setExecutionMode(executionMode)
+                                          .setCommandMetrics(metrics.equals("noop") ? CommandMetrics.NOOP : new HistogramCommandMetrics())
+                                          .build();
+
+        for (int i = 0; i < 100; i++) {
+            consoleParallax.registerCommand(new BenchmarkSupport.NoOpCommand(BenchmarkSupport.commandName(i)));
+        }
+    }
+
+    @Benchmark
+    public void dispatchWithoutArguments() {
+        consoleParallax.processCommand("command-50");
+    }
+
+    @Benchmark
+    public void dispatchWithArguments() {
+        consoleParallax.processCommand("command-50 first second third");
+    }
+
+    @Benchmark
+    public void dispatchUnknownCommand() {
+        consoleParallax.processCommand("unknown-command argument");
+    }
+
+    @Benchmark
+    public CommandResult dispatchForResult() {
+        return consoleParallax.dispatch("command-50 first second third").join();
+    }
+}
@@ -0,0 +1,89 @@
+package dev.mayuna.consoleparallax;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to execute 10 000 concurrent blocking commands on virtual threads and on a pool of platform
+ * threads<br>
+ * Virtual threads require Java 21, run with {@code ./gradlew jmh -PjmhIncludes=VirtualThreadsBenchmark -PjmhJvm=<path to java 21>}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+    private static final int COMMAND_COUNT = 10_000;
+    private static final long BLOCKING_MILLIS = 50;
+
+    @Param({"virtual", "platform"})
+    public String threads;
+
+    private ConsoleParallax consoleParallax;
+    private BlockingCommand command;
+
+    @Setup
+    public void setup() {
+        ConsoleParallax.Builder builder = BenchmarkSupport.createBenchmarkBuilder();
+
+        if (threads.equals("virtual")) {
+            builder.useVirtualThreads();
+        } else {
+            builder.setCommandExecutor(Executors.newFixedThreadPool(200))
+                   .setExecutionMode(CommandExecutionMode.CONCURRENT);
+        }
+
+        consoleParallax = builder.build();
+        command = new BlockingCommand();
+        consoleParallax.registerCommand(command);
+    }
+
+    @TearDown
+    public void tearDown() {
+        consoleParallax.close();
+        ((ExecutorService) consoleParallax.getCommandExecutor()).shutdownNow(); // The platform thread pool is not owned
+    }
+
+    @Benchmark
+    public void blockingCommands() throws InterruptedException {
+        command.latch = new CountDownLatch(COMMAND_COUNT);
+
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            consoleParallax.submitCommandTask(() -> consoleParallax.processCommand("block"));
+        }
+
+        command.latch.await();
+    }
+
+    /**
+     * Command which blocks, simulating a call to a database or an HTTP service
+     */
+    private static final class BlockingCommand implements BaseCommand {
+
+        private volatile CountDownLatch latch;
+
+        @Override
+        public @NotNull String getName() {
+            return "block";
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            try {
+                Thread.sleep(BLOCKING_MILLIS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                latch.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package dev.mayuna.consoleparallax.commands;
+
+import dev.mayuna.consoleparallax.BenchmarkSupport;
+import dev.mayuna.consoleparallax.CommandInvocationContext;
+import dev.mayuna.consoleparallax.ConsoleParallax;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HelpCommand} rendering with different registry sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpCommandBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int commandCount;
+
+    private final HelpCommand helpCommand = new HelpCommand();
+    private CommandInvocationContext allCommandsContext;
+    private CommandInvocationContext commandDescriptionContext;
+
+    @Setup
+    public void setup() {
+        ConsoleParallax consoleParallax = BenchmarkSupport.createBenchmarkBuilder().build();
+        consoleParallax.registerDefaultHelpCommand();
+
+        for (int i = 0; i < commandCount; i++) {
+            consoleParallax.registerCommand(new BenchmarkSupport.NoOpCommand(BenchmarkSupport.commandName(i)));
+        }
+
+        allCommandsContext = new CommandInvocationContext(consoleParallax, consoleParallax.getCommandParser().parseCommand("help"));
+        commandDescriptionContext = new CommandInvocationContext(consoleParallax, consoleParallax.getCommandParser().parseCommand("help help"));
+    }
+
+    @Benchmark
+    public void showAllCommands() {
+        helpCommand.execute(allCommandsContext);
+    }
+
+    @Benchmark
+    public void showCommandDescription() {
+        helpCommand.execute(commandDescriptionContext);
+    }
+}
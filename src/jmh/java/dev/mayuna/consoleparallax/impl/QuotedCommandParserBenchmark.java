@@ -0,0 +1,68 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.CommandParseResult;
+import dev.mayuna.consoleparallax.CommandParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link QuotedCommandParser} with {@link SimpleCommandParser}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuotedCommandParserBenchmark {
+
+    @Param({"short", "long", "quoted"})
+    public String input;
+
+    private final CommandParser simpleCommandParser = new SimpleCommandParser();
+    private final CommandParser quotedCommandParser = new QuotedCommandParser();
+    private String command;
+    private CharBuffer commandBuffer;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "short":
+                command = "help";
+                break;
+            case "long":
+                command = "cache evict user-session-0001 user-session-0002 user-session-0003 --force --ttl=120s";
+                break;
+            case "quoted":
+                command = "say \"hello, world\" 'single quoted' escaped\\ space --name=\"John Doe\"";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown input: " + input);
+        }
+
+        commandBuffer = CharBuffer.wrap(command);
+    }
+
+    @Benchmark
+    public CommandParseResult simpleCommandParser() {
+        return simpleCommandParser.parseCommand(command);
+    }
+
+    @Benchmark
+    public CommandParseResult quotedCommandParser() {
+        return quotedCommandParser.parseCommand(command);
+    }
+
+    @Benchmark
+    public CommandParseResult quotedCommandParserCharBuffer() {
+        return quotedCommandParser.parseCommand(commandBuffer);
+    }
+
+    @Benchmark
+    public Map<String, String> quotedCommandParserWithFlags() {
+        return quotedCommandParser.parseCommand(command).getFlags();
+    }
+}
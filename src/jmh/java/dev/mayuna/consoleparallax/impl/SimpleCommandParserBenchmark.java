@@ -0,0 +1,74 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.CommandParseResult;
+import dev.mayuna.consoleparallax.CommandParser;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SimpleCommandParser} with the previous regex-based implementation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleCommandParserBenchmark {
+
+    @Param({"short", "long", "padded"})
+    public String input;
+
+    private final CommandParser simpleCommandParser = new SimpleCommandParser();
+    private final CommandParser regexCommandParser = new RegexCommandParser();
+    private String command;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "short":
+                command = "help";
+                break;
+            case "long":
+                command = "cache evict user-session-0001 user-session-0002 user-session-0003 --force --verbose 120s";
+                break;
+            case "padded":
+                command = "      cache        evict          user-session-0001          --force               ";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown input: " + input);
+        }
+    }
+
+    @Benchmark
+    public CommandParseResult simpleCommandParser() {
+        return simpleCommandParser.parseCommand(command);
+    }
+
+    @Benchmark
+    public CommandParseResult regexCommandParser() {
+        return regexCommandParser.parseCommand(command);
+    }
+
+    /**
+     * Previous implementation of {@link SimpleCommandParser}, kept as a baseline
+     */
+    private static final class RegexCommandParser implements CommandParser {
+
+        @Override
+        public @NotNull CommandParseResult parseCommand(@NotNull String command) {
+            command = command.trim().replaceAll(" +", " ");
+            String[] splits = command.split(" ");
+            String commandName = splits[0];
+            String[] arguments = new String[splits.length - 1];
+
+            if (arguments.length > 0) {
+                System.arraycopy(splits, 1, arguments, 0, arguments.length);
+            }
+
+            return new CommandParseResult(commandName, arguments);
+        }
+    }
+}
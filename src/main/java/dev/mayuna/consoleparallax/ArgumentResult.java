@@ -0,0 +1,222 @@
+package dev.mayuna.consoleparallax;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+
+/**
+ * Result of parsing a command argument, returned by the typed accessors of {@link CommandInvocationContext}<br>
+ * Invalid or missing arguments are reported by the result's {@link Status} and error message, not by exceptions.
+ * Numeric results hold a primitive value, which is boxed only when {@link #get()} is called.
+ *
+ * @param <T> Type of the value
+ */
+public final class ArgumentResult<T> {
+
+    private static final int KIND_OBJECT = 0;
+    private static final int KIND_INT = 1;
+    private static final int KIND_LONG = 2;
+
+    private final Status status;
+    private final Object value;
+    private final long number;
+    private final int kind;
+    private final String error;
+
+    private ArgumentResult(Status status, Object value, long number, int kind, String error) {
+        this.status = status;
+        this.value = value;
+        this.number = number;
+        this.kind = kind;
+        this.error = error;
+    }
+
+    /**
+     * Creates a valid result
+     *
+     * @param value Non-null value
+     * @param <T>   Type of the value
+     *
+     * @return Non-null result
+     */
+    public static <T> @NotNull ArgumentResult<T> valid(@NotNull @NonNull T value) {
+        return new ArgumentResult<>(Status.VALID, value, 0, KIND_OBJECT, null);
+    }
+
+    /**
+     * Creates a valid result holding a primitive int
+     *
+     * @param value Value
+     *
+     * @return Non-null result
+     */
+    public static @NotNull ArgumentResult<Integer> validInt(int value) {
+        return new ArgumentResult<>(Status.VALID, null, value, KIND_INT, null);
+    }
+
+    /**
+     * Creates a valid result holding a primitive long
+     *
+     * @param value Value
+     *
+     * @return Non-null result
+     */
+    public static @NotNull ArgumentResult<Long> validLong(long value) {
+        return new ArgumentResult<>(Status.VALID, null, value, KIND_LONG, null);
+    }
+
+    /**
+     * Creates a result of an argument which was not specified
+     *
+     * @param error Non-null error message
+     * @param <T>   Type of the value
+     *
+     * @return Non-null result
+     */
+    public static <T> @NotNull ArgumentResult<T> missing(@NotNull @NonNull String error) {
+        return new ArgumentResult<>(Status.MISSING, null, 0, KIND_OBJECT, error);
+    }
+
+    /**
+     * Creates a result of an argument which could not be parsed
+     *
+     * @param error Non-null error message
+     * @param <T>   Type of the value
+     *
+     * @return Non-null result
+     */
+    public static <T> @NotNull ArgumentResult<T> invalid(@NotNull @NonNull String error) {
+        return new ArgumentResult<>(Status.INVALID, null, 0, KIND_OBJECT, error);
+    }
+
+    /**
+     * Returns the status of the result
+     *
+     * @return Non-null status
+     */
+    public @NotNull Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Determines if the argument was parsed successfully
+     *
+     * @return {@code true} if the status is {@link Status#VALID}
+     */
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    /**
+     * Returns the error message
+     *
+     * @return Error message, null if the result is valid
+     */
+    public @Nullable String getError() {
+        return error;
+    }
+
+    /**
+     * Returns the value
+     *
+     * @return Non-null value
+     *
+     * @throws IllegalStateException If the result is not valid
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull T get() {
+        ensureValid();
+
+        switch (kind) {
+            case KIND_INT:
+                return (T) Integer.valueOf((int) number);
+            case KIND_LONG:
+                return (T) Long.valueOf(number);
+            default:
+                return (T) value;
+        }
+    }
+
+    /**
+     * Returns the value as a primitive int, without boxing
+     *
+     * @return Value
+     *
+     * @throws IllegalStateException If the result is not valid or does not hold a number
+     * @throws ArithmeticException   If the value does not fit in an int (e.g. a long result)
+     */
+    public int getAsInt() {
+        return Math.toIntExact(getAsLong());
+    }
+
+    /**
+     * Returns the value as a primitive long, without boxing
+     *
+     * @return Value
+     *
+     * @throws IllegalStateException If the result is not valid or does not hold a number
+     */
+    public long getAsLong() {
+        ensureValid();
+
+        if (kind == KIND_OBJECT) {
+            throw new IllegalStateException("Argument result does not hold a number");
+        }
+
+        return number;
+    }
+
+    /**
+     * Returns the value or the specified default value if the result is not valid
+     *
+     * @param defaultValue Default value
+     *
+     * @return Value or the default value
+     */
+    public T orElse(T defaultValue) {
+        return isValid() ? get() : defaultValue;
+    }
+
+    /**
+     * Returns the value as an {@link Optional}
+     *
+     * @return Optional with the value if the result is valid, {@link Optional#empty()} otherwise
+     */
+    public @NotNull Optional<T> toOptional() {
+        return isValid() ? Optional.of(get()) : Optional.empty();
+    }
+
+    private void ensureValid() {
+        if (status != Status.VALID) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ArgumentResult{" + get() + "}" : "ArgumentResult{" + status + ": " + error + "}";
+    }
+
+    /**
+     * Status of {@link ArgumentResult}
+     */
+    public enum Status {
+
+        /**
+         * The argument was parsed successfully
+         */
+        VALID,
+
+        /**
+         * The argument was not specified
+         */
+        MISSING,
+
+        /**
+         * The argument could not be parsed
+         */
+        INVALID
+    }
+}
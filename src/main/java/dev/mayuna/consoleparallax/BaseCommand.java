@@ -1,6 +1,11 @@
 package dev.mayuna.consoleparallax;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Represents a command
@@ -15,6 +20,18 @@ public interface BaseCommand {
     @NotNull
     String getName();
 
+    /**
+     * Gets the aliases of the command, by which it can be invoked as well<br>
+     * Aliases are indexed together with the name, so they are resolved by the same lookup. They must not collide with
+     * names or aliases of other registered commands.
+     *
+     * @return Non-null collection of aliases, empty by default
+     */
+    @NotNull
+    default Collection<String> getAliases() {
+        return Collections.emptyList();
+    }
+
     /**
      * Gets the usage of the command
      *
@@ -45,6 +62,31 @@ public interface BaseCommand {
         return "No description provided";
     }
 
+    /**
+     * Gets the serialization key of the command<br>
+     * When running in {@link CommandExecutionMode#CONCURRENT}, commands with the same serialization key are never
+     * executed in parallel
+     *
+     * @return Nullable serialization key, {@code null} if the command may run in parallel with any other command
+     */
+    @Nullable
+    default String getSerializationKey() {
+        return null;
+    }
+
+    /**
+     * Gets the timeout of the command<br>
+     * When the command runs longer, its thread is interrupted and {@link CommandInvocationContext#isCancelled()}
+     * returns {@code true}. Cancellation is cooperative, the command should stop as soon as it notices it.
+     *
+     * @return Nullable timeout, {@code null} to use the default timeout (see
+     * {@link ConsoleParallax.Builder#setDefaultCommandTimeout(Duration)}), zero or negative for no timeout
+     */
+    @Nullable
+    default Duration getTimeout() {
+        return null;
+    }
+
     /**
      * Executes the command
      *
@@ -0,0 +1,260 @@
+package dev.mayuna.consoleparallax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BK-tree of words, used for fast bounded edit-distance (Levenshtein) lookups<br>
+ * Modifications must be externally synchronized, lookups may run concurrently with modifications. Removed words are
+ * only marked as removed, the tree is rebuilt once removed words outnumber the live ones.
+ */
+final class BkTree {
+
+    private volatile Node root;
+    private int liveCount;
+    private int removedCount;
+
+    /**
+     * Adds a word
+     *
+     * @param word Non-null word
+     */
+    void add(String word) {
+        Node current = root;
+
+        if (current == null) {
+            root = new Node(word);
+            liveCount++;
+            return;
+        }
+
+        while (true) {
+            int distance = distance(word, current.word, Integer.MAX_VALUE); // Exact, the distance labels the new edge
+
+            if (distance == 0) {
+                if (current.removed) {
+                    current.removed = false;
+                    removedCount--;
+                    liveCount++;
+                }
+                return;
+            }
+
+            Node child = current.child(distance);
+
+            if (child == null) {
+                current.addChild(distance, new Node(word));
+                liveCount++;
+                return;
+            }
+
+            current = child;
+        }
+    }
+
+    /**
+     * Removes a word
+     *
+     * @param word Non-null word
+     */
+    void remove(String word) {
+        Node current = root;
+
+        while (current != null) {
+            // A distance over the longest edge cannot lead to the word, so the computation may stop there
+            int distance = distance(word, current.word, current.maxChildDistance());
+
+            if (distance == 0) {
+                if (!current.removed) {
+                    current.removed = true;
+                    removedCount++;
+                    liveCount--;
+                }
+                break;
+            }
+
+            current = current.child(distance);
+        }
+
+        if (removedCount > liveCount) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Finds words within the specified edit distance
+     *
+     * @param word        Non-null word
+     * @param maxDistance Maximum edit distance
+     *
+     * @return Non-null list of matches, sorted by distance and then by word
+     */
+    List<Match> search(String word, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        Node current = root;
+
+        if (current != null) {
+            search(current, word, maxDistance, matches);
+        }
+
+        matches.sort((first, second) -> first.distance != second.distance ? Integer.compare(first.distance, second.distance) : first.word.compareTo(second.word));
+        return matches;
+    }
+
+    private static void search(Node node, String word, int maxDistance, List<Match> matches) {
+        int[] distances = node.childDistances;
+        Node[] children = node.children;
+
+        // Beyond maxDistance plus the longest edge, neither the node nor any of its children can match
+        int distance = distance(word, node.word, maxDistance + node.maxChildDistance());
+
+        if (distance <= maxDistance && !node.removed) {
+            matches.add(new Match(node.word, distance));
+        }
+
+        for (int i = 0; i < distances.length; i++) {
+            if (Math.abs(distances[i] - distance) <= maxDistance) {
+                search(children[i], word, maxDistance, matches);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the tree without removed words
+     */
+    private void rebuild() {
+        List<String> words = new ArrayList<>(liveCount);
+        collectLiveWords(root, words);
+
+        BkTree rebuilt = new BkTree();
+        words.forEach(rebuilt::add);
+
+        liveCount = rebuilt.liveCount;
+        removedCount = 0;
+        root = rebuilt.root;
+    }
+
+    private static void collectLiveWords(Node node, List<String> words) {
+        if (node == null) {
+            return;
+        }
+
+        if (!node.removed) {
+            words.add(node.word);
+        }
+
+        for (Node child : node.children) {
+            collectLiveWords(child, words);
+        }
+    }
+
+    /**
+     * Computes the Levenshtein distance of two words, giving up once the distance exceeds the specified maximum
+     *
+     * @param first       First word
+     * @param second      Second word
+     * @param maxDistance Maximum distance of interest
+     *
+     * @return Edit distance, or {@code maxDistance + 1} if it exceeds the maximum
+     */
+    static int distance(String first, String second, int maxDistance) {
+        int firstLength = first.length();
+        int secondLength = second.length();
+        int cap = maxDistance == Integer.MAX_VALUE ? Integer.MAX_VALUE : maxDistance + 1;
+
+        if (Math.abs(firstLength - secondLength) > maxDistance) {
+            return cap;
+        }
+
+        int[] previous = new int[secondLength + 1];
+        int[] current = new int[secondLength + 1];
+
+        for (int j = 0; j <= secondLength; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= firstLength; i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char character = first.charAt(i - 1);
+
+            for (int j = 1; j <= secondLength; j++) {
+                int substitution = previous[j - 1] + (character == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+
+            if (rowMinimum > maxDistance) {
+                return cap;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Math.min(previous[secondLength], cap);
+    }
+
+    /**
+     * Word found by {@link #search(String, int)}
+     */
+    static final class Match {
+
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Node of the tree. Children arrays are replaced (never modified), so lookups see a consistent state.
+     */
+    private static final class Node {
+
+        private final String word;
+        private volatile boolean removed;
+        private volatile int[] childDistances = new int[0];
+        private volatile Node[] children = new Node[0];
+
+        private Node(String word) {
+            this.word = word;
+        }
+
+        private int maxChildDistance() {
+            int maxDistance = 0;
+
+            for (int distance : childDistances) {
+                maxDistance = Math.max(maxDistance, distance);
+            }
+
+            return maxDistance;
+        }
+
+        private Node child(int distance) {
+            int[] distances = childDistances;
+
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        private void addChild(int distance, Node child) {
+            Node[] newChildren = Arrays.copyOf(children, children.length + 1);
+            newChildren[newChildren.length - 1] = child;
+            int[] newDistances = Arrays.copyOf(childDistances, childDistances.length + 1);
+            newDistances[newDistances.length - 1] = distance;
+
+            children = newChildren; // Children first, so readers never see a distance without its child
+            childDistances = newDistances;
+        }
+    }
+}
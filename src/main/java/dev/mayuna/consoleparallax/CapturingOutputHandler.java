@@ -0,0 +1,33 @@
+package dev.mayuna.consoleparallax;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link OutputHandler} which captures the messages of a dispatched command for its {@link CommandResult}
+ */
+final class CapturingOutputHandler implements OutputHandler {
+
+    private final List<CommandResult.Message> messages = new ArrayList<>(2);
+
+    @Override
+    public synchronized void info(@NotNull String message) {
+        messages.add(new CommandResult.Message(false, message));
+    }
+
+    @Override
+    public synchronized void error(@NotNull String message) {
+        messages.add(new CommandResult.Message(true, message));
+    }
+
+    /**
+     * Returns a copy of the captured messages
+     *
+     * @return Captured messages
+     */
+    synchronized List<CommandResult.Message> getMessages() {
+        return new ArrayList<>(messages);
+    }
+}
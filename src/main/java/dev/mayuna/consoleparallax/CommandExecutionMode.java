@@ -0,0 +1,19 @@
+package dev.mayuna.consoleparallax;
+
+/**
+ * Specifies how {@link ConsoleParallax} executes commands
+ */
+public enum CommandExecutionMode {
+
+    /**
+     * Commands are executed one at a time while holding {@link ConsoleParallax}'s execution lock<br>
+     * This is the default mode
+     */
+    SYNCHRONIZED,
+
+    /**
+     * The registry is locked only for the command lookup, commands are executed in parallel on the command executor<br>
+     * Commands with the same {@link BaseCommand#getSerializationKey()} are still executed one at a time
+     */
+    CONCURRENT
+}
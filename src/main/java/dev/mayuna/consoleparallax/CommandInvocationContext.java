@@ -1,27 +1,142 @@
 package dev.mayuna.consoleparallax;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
 
 /**
- * Holds information about the command invocation
+ * Holds information about the command invocation<br>
+ * Commands should write their output through {@link #getOutputHandler()}, which may be specific to the invocation
+ * (e.g. a remote session or a buffer), instead of the {@link ConsoleParallax}'s output handler.<br>
+ * Typed argument accessors (e.g. {@link #getInt(int)}) parse the argument on the first call for each type and cache
+ * the result for the lifetime of the context.<br>
+ * Commands executed as a stage of a pipeline (e.g. {@code list-sessions | filter idle}) may read the output of the
+ * previous stage from {@link #getPipeInput()}; their own output is passed to the next stage through the output handler.
  */
 @Getter
 public final class CommandInvocationContext {
 
     private final ConsoleParallax consoleParallax;
     private final CommandParseResult commandParseResult;
+    private final OutputHandler outputHandler;
+
+    @Getter(AccessLevel.NONE)
+    private final CommandInvocationContext parent;
+    @Getter(AccessLevel.NONE)
+    private final PipeChannel pipeInput;
+    @Getter(AccessLevel.NONE)
+    private volatile boolean cancelled;
+    @Getter(AccessLevel.NONE)
+    private volatile boolean timedOut;
+    @Getter(AccessLevel.NONE)
+    private CachedArgument[] argumentCache;
 
     /**
-     * Creates a new CommandInvocationContext
+     * Creates a new CommandInvocationContext which writes to the {@link ConsoleParallax}'s output handler
      *
      * @param consoleParallax    ConsoleParallax instance
      * @param commandParseResult Command parse result
      */
     public CommandInvocationContext(@NotNull @NonNull ConsoleParallax consoleParallax, @NotNull @NonNull CommandParseResult commandParseResult) {
+        this(consoleParallax, commandParseResult, consoleParallax.getOutputHandler());
+    }
+
+    /**
+     * Creates a new CommandInvocationContext
+     *
+     * @param consoleParallax    ConsoleParallax instance
+     * @param commandParseResult Command parse result
+     * @param outputHandler      Output handler of the invocation
+     */
+    public CommandInvocationContext(@NotNull @NonNull ConsoleParallax consoleParallax, @NotNull @NonNull CommandParseResult commandParseResult, @NotNull @NonNull OutputHandler outputHandler) {
+        this(consoleParallax, commandParseResult, outputHandler, null);
+    }
+
+    /**
+     * Creates a new CommandInvocationContext of a subcommand, which is cancelled together with the parent context
+     *
+     * @param consoleParallax    ConsoleParallax instance
+     * @param commandParseResult Command parse result
+     * @param outputHandler      Output handler of the invocation
+     * @param parent             Context of the parent command, null if there is none
+     */
+    CommandInvocationContext(ConsoleParallax consoleParallax, CommandParseResult commandParseResult, OutputHandler outputHandler, CommandInvocationContext parent) {
+        this(consoleParallax, commandParseResult, outputHandler, parent, null);
+    }
+
+    /**
+     * Creates a new CommandInvocationContext of a pipeline stage
+     *
+     * @param consoleParallax    ConsoleParallax instance
+     * @param commandParseResult Command parse result
+     * @param outputHandler      Output handler of the invocation
+     * @param parent             Context of the parent command, null if there is none
+     * @param pipeInput          Output of the previous pipeline stage, null if there is none
+     */
+    CommandInvocationContext(ConsoleParallax consoleParallax, CommandParseResult commandParseResult, OutputHandler outputHandler, CommandInvocationContext parent, PipeChannel pipeInput) {
         this.consoleParallax = consoleParallax;
         this.commandParseResult = commandParseResult;
+        this.outputHandler = outputHandler;
+        this.parent = parent;
+        this.pipeInput = pipeInput;
+    }
+
+    /**
+     * Returns the output of the previous pipeline stage, if the command is executed as a pipeline stage (e.g. as
+     * {@code filter} in {@code list-sessions | filter idle})<br>
+     * Subcommands read the pipe input of their parent command.
+     *
+     * @return Pipe input, null if the command is the first stage or not in a pipeline
+     */
+    public @Nullable PipeChannel getPipeInput() {
+        if (pipeInput != null || parent == null) {
+            return pipeInput;
+        }
+
+        return parent.getPipeInput();
+    }
+
+    /**
+     * Determines if the invocation was cancelled, e.g. because the command exceeded its timeout (see
+     * {@link BaseCommand#getTimeout()})<br>
+     * Long-running commands should check this periodically and stop when it returns {@code true}.
+     *
+     * @return {@code true} if the invocation was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * Marks the invocation as cancelled
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Determines if the command exceeded its timeout (see {@link BaseCommand#getTimeout()})<br>
+     * Set once the timed out command returns, while it is running only {@link #isCancelled()} returns {@code true}.
+     *
+     * @return {@code true} if the command timed out
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Marks the invocation as timed out
+     */
+    void markTimedOut() {
+        timedOut = true;
     }
 
     /**
@@ -41,4 +156,294 @@ public final class CommandInvocationContext {
     public String[] getArguments() {
         return commandParseResult.getArguments();
     }
+
+    /**
+     * Gets the flags of the command from {@link CommandParseResult}
+     *
+     * @return Command flags
+     */
+    public Map<String, String> getFlags() {
+        return commandParseResult.getFlags();
+    }
+
+    /**
+     * Returns the number of arguments
+     *
+     * @return Number of arguments
+     */
+    public int getArgumentCount() {
+        return commandParseResult.getArguments().length;
+    }
+
+    /**
+     * Returns the argument at the specified index
+     *
+     * @param index Argument index
+     *
+     * @return Argument if specified, {@link Optional#empty()} otherwise
+     */
+    public @NotNull Optional<String> getOptional(int index) {
+        String[] arguments = commandParseResult.getArguments();
+        return index >= 0 && index < arguments.length ? Optional.of(arguments[index]) : Optional.empty();
+    }
+
+    /**
+     * Parses the argument at the specified index as an int
+     *
+     * @param index Argument index
+     *
+     * @return Non-null result, holding a primitive int (see {@link ArgumentResult#getAsInt()})
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull ArgumentResult<Integer> getInt(int index) {
+        return (ArgumentResult<Integer>) getArgument(index, Integer.class);
+    }
+
+    /**
+     * Parses the argument at the specified index as a long
+     *
+     * @param index Argument index
+     *
+     * @return Non-null result, holding a primitive long (see {@link ArgumentResult#getAsLong()})
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull ArgumentResult<Long> getLong(int index) {
+        return (ArgumentResult<Long>) getArgument(index, Long.class);
+    }
+
+    /**
+     * Parses the argument at the specified index as a duration<br>
+     * Accepts a non-negative number with a unit ({@code ms}, {@code s}, {@code m}, {@code h} or {@code d}), e.g.
+     * {@code 500ms} or {@code 10s}, or an ISO-8601 duration, e.g. {@code PT1M30S}
+     *
+     * @param index Argument index
+     *
+     * @return Non-null result
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull ArgumentResult<Duration> getDuration(int index) {
+        return (ArgumentResult<Duration>) getArgument(index, Duration.class);
+    }
+
+    /**
+     * Parses the argument at the specified index as an enum constant (case-insensitive)
+     *
+     * @param index    Argument index
+     * @param enumType Non-null enum class
+     * @param <E>      Enum type
+     *
+     * @return Non-null result
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> @NotNull ArgumentResult<E> getEnum(int index, @NotNull @NonNull Class<E> enumType) {
+        return (ArgumentResult<E>) getArgument(index, enumType);
+    }
+
+    /**
+     * Returns the cached result of parsing the argument as the specified type or parses it
+     *
+     * @param index Argument index
+     * @param type  Type of the argument
+     *
+     * @return Non-null result
+     */
+    private ArgumentResult<?> getArgument(int index, Class<?> type) {
+        String[] arguments = commandParseResult.getArguments();
+
+        if (index < 0 || index >= arguments.length) {
+            return ArgumentResult.missing("Argument " + (index + 1) + " is missing");
+        }
+
+        CachedArgument[] cache = argumentCache;
+
+        if (cache == null) {
+            cache = new CachedArgument[arguments.length];
+            argumentCache = cache;
+        }
+
+        CachedArgument first = cache[index];
+
+        for (CachedArgument cached = first; cached != null; cached = cached.next) {
+            if (cached.type == type) {
+                return cached.result;
+            }
+        }
+
+        ArgumentResult<?> result = parseArgument(arguments[index], index, type);
+        cache[index] = new CachedArgument(type, result, first);
+        return result;
+    }
+
+    /**
+     * Parses the argument as the specified type
+     *
+     * @param argument Argument
+     * @param index    Argument index
+     * @param type     Type of the argument
+     *
+     * @return Non-null result
+     */
+    private static ArgumentResult<?> parseArgument(String argument, int index, Class<?> type) {
+        if (type == Integer.class) {
+            return parseInteger(argument, 0, argument.length(), Integer.MIN_VALUE, Integer.MAX_VALUE, true, index, "an integer");
+        }
+
+        if (type == Long.class) {
+            return parseInteger(argument, 0, argument.length(), Long.MIN_VALUE, Long.MAX_VALUE, false, index, "a long");
+        }
+
+        if (type == Duration.class) {
+            return parseDuration(argument, index);
+        }
+
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equalsIgnoreCase(argument)) {
+                return ArgumentResult.valid(constant);
+            }
+        }
+
+        return ArgumentResult.invalid("Argument " + (index + 1) + " is not a valid " + type.getSimpleName() + ": " + argument);
+    }
+
+    /**
+     * Parses a decimal integer directly from the characters, without intermediate strings or boxing
+     *
+     * @param chars       Characters
+     * @param start       Start index (inclusive)
+     * @param end         End index (exclusive)
+     * @param min         Minimum value
+     * @param max         Maximum value
+     * @param asInt       Whether the result should hold an int
+     * @param index       Argument index
+     * @param description Description of the expected value, used in the error message
+     *
+     * @return Non-null result
+     */
+    private static ArgumentResult<?> parseInteger(CharSequence chars, int start, int end, long min, long max, boolean asInt, int index, String description) {
+        int position = start;
+        boolean negative = false;
+
+        if (position < end && (chars.charAt(position) == '-' || chars.charAt(position) == '+')) {
+            negative = chars.charAt(position) == '-';
+            position++;
+        }
+
+        if (position == end) {
+            return invalidNumber(chars, index, description);
+        }
+
+        // Accumulates negatively, so the minimum value does not overflow (same as Long#parseLong)
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+
+        for (; position < end; position++) {
+            int digit = chars.charAt(position) - '0';
+
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                return invalidNumber(chars, index, description);
+            }
+
+            result *= 10;
+
+            if (result < limit + digit) {
+                return invalidNumber(chars, index, description);
+            }
+
+            result -= digit;
+        }
+
+        long value = negative ? result : -result;
+        return asInt ? ArgumentResult.validInt((int) value) : ArgumentResult.validLong(value);
+    }
+
+    private static ArgumentResult<?> invalidNumber(CharSequence chars, int index, String description) {
+        return ArgumentResult.invalid("Argument " + (index + 1) + " is not " + description + ": " + chars);
+    }
+
+    /**
+     * Parses a duration
+     *
+     * @param argument Argument
+     * @param index    Argument index
+     *
+     * @return Non-null result
+     */
+    private static ArgumentResult<?> parseDuration(String argument, int index) {
+        String error = "Argument " + (index + 1) + " is not a duration (e.g. 500ms, 10s, 5m, 2h, 1d): " + argument;
+
+        if (!argument.isEmpty() && (argument.charAt(0) == 'P' || argument.charAt(0) == 'p')) {
+            try {
+                return ArgumentResult.valid(Duration.parse(argument));
+            } catch (DateTimeParseException exception) {
+                return ArgumentResult.invalid(error);
+            }
+        }
+
+        int unitStart = 0;
+
+        while (unitStart < argument.length() && Character.isDigit(argument.charAt(unitStart))) {
+            unitStart++;
+        }
+
+        ChronoUnit unit = parseDurationUnit(argument, unitStart);
+        ArgumentResult<?> amount = parseInteger(argument, 0, unitStart, 0, Long.MAX_VALUE, false, index, "a duration");
+
+        if (unit == null || !amount.isValid()) {
+            return ArgumentResult.invalid(error);
+        }
+
+        try {
+            return ArgumentResult.valid(Duration.of(amount.getAsLong(), unit));
+        } catch (ArithmeticException exception) {
+            return ArgumentResult.invalid(error);
+        }
+    }
+
+    /**
+     * Parses the unit of a duration
+     *
+     * @param argument  Argument
+     * @param unitStart Start index of the unit
+     *
+     * @return Unit or null if the unit is unknown
+     */
+    private static ChronoUnit parseDurationUnit(String argument, int unitStart) {
+        switch (argument.length() - unitStart) {
+            case 1:
+                switch (Character.toLowerCase(argument.charAt(unitStart))) {
+                    case 's':
+                        return ChronoUnit.SECONDS;
+                    case 'm':
+                        return ChronoUnit.MINUTES;
+                    case 'h':
+                        return ChronoUnit.HOURS;
+                    case 'd':
+                        return ChronoUnit.DAYS;
+                    default:
+                        return null;
+                }
+            case 2:
+                return argument.regionMatches(true, unitStart, "ms", 0, 2) ? ChronoUnit.MILLIS : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Cached result of parsing an argument as a specific type, linked to the results of the same argument parsed as other
+     * types
+     */
+    private static final class CachedArgument {
+
+        private final Class<?> type;
+        private final ArgumentResult<?> result;
+        private final CachedArgument next; // Null if there is no other type
+
+        private CachedArgument(Class<?> type, ArgumentResult<?> result, CachedArgument next) {
+            this.type = type;
+            this.result = result;
+            this.next = next;
+        }
+    }
 }
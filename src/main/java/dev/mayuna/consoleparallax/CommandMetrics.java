@@ -0,0 +1,59 @@
+package dev.mayuna.consoleparallax;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hook for recording command dispatch metrics<br>
+ * Methods are called on the command executing threads (timeouts as well, once the cancelled command returns), so
+ * implementations should be thread-safe and cheap.
+ */
+public interface CommandMetrics {
+
+    /**
+     * Metrics which record nothing. {@link ConsoleParallax} skips timing entirely when this instance is used.
+     */
+    CommandMetrics NOOP = new CommandMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * Determines if the metrics should be recorded at all
+     *
+     * @return {@code true} if the metrics are enabled
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Records an executed command
+     *
+     * @param command       Non-null executed command
+     * @param durationNanos Duration of {@link BaseCommand#execute(CommandInvocationContext)} in nanoseconds
+     * @param failure       Nullable exception thrown by the command, {@code null} if the command succeeded
+     */
+    default void recordCommandExecuted(@NotNull BaseCommand command, long durationNanos, @Nullable Throwable failure) {
+    }
+
+    /**
+     * Records an input which did not match any registered command
+     *
+     * @param commandName Non-null command name from the input
+     */
+    default void recordCommandNotFound(@NotNull String commandName) {
+    }
+
+    /**
+     * Records a command which exceeded its timeout and was cancelled<br>
+     * Called on the thread which executed the command, after the command returned
+     *
+     * @param command      Non-null timed out command
+     * @param timeoutNanos Timeout of the command in nanoseconds
+     */
+    default void recordCommandTimedOut(@NotNull BaseCommand command, long timeoutNanos) {
+    }
+}
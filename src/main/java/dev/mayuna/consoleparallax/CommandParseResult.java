@@ -2,10 +2,19 @@ package dev.mayuna.consoleparallax;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
- * Holds information about parsed command input
+ * Holds information about parsed command input<br>
+ * Parsers which support flags (options) may extend this class and override {@link #getFlags()}
  */
-public final class CommandParseResult {
+public class CommandParseResult {
+
+    /**
+     * Shared empty arguments array
+     */
+    public static final String[] EMPTY_ARGUMENTS = new String[0];
 
     private final String commandName;
     private final String[] arguments;
@@ -38,4 +47,13 @@ public final class CommandParseResult {
     public @NotNull String[] getArguments() {
         return arguments;
     }
+
+    /**
+     * Returns parsed command flags (e.g. {@code --key=value}), mapped from the flag name to its value
+     *
+     * @return Non-null immutable map of flags, empty by default
+     */
+    public @NotNull Map<String, String> getFlags() {
+        return Collections.emptyMap();
+    }
 }
@@ -2,6 +2,9 @@ package dev.mayuna.consoleparallax;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Interface for parsing commands
  */
@@ -17,4 +20,32 @@ public interface CommandParser {
     @NotNull
     CommandParseResult parseCommand(@NotNull String command);
 
+    /**
+     * Parses a command from a character sequence (e.g. {@link java.nio.CharBuffer})<br>
+     * The default implementation materializes the sequence into a {@link String}
+     *
+     * @param command Non-null command to parse
+     *
+     * @return Non-null parsed command
+     */
+    default @NotNull CommandParseResult parseCommand(@NotNull CharSequence command) {
+        return parseCommand(command.toString());
+    }
+
+    /**
+     * Parses a pipeline of commands separated by {@code |}, e.g. {@code list-sessions | filter idle | count} (see
+     * {@link PipeChannel})<br>
+     * The default implementation does not support pipelines and parses the input as a single command, so {@code |} is
+     * a regular character. Pipelines are supported by {@link dev.mayuna.consoleparallax.impl.QuotedCommandParser}.
+     *
+     * @param input Non-null input to parse
+     *
+     * @return Non-null list of parsed commands, one per pipeline stage
+     *
+     * @throws IllegalArgumentException If the input is not a valid pipeline (e.g. a stage has no command)
+     */
+    default @NotNull List<CommandParseResult> parsePipeline(@NotNull String input) {
+        return Collections.singletonList(parseCommand(input));
+    }
+
 }
@@ -0,0 +1,187 @@
+package dev.mayuna.consoleparallax;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded admission stage between the command submitters and the command executor<br>
+ * The capacity is counted in commands, a task may hold more commands (e.g. a batch of inputs). A task is always
+ * admitted into an empty queue, even if it holds more commands than the capacity.
+ */
+final class CommandQueue {
+
+    private final int capacity;
+    private final OverloadPolicy overloadPolicy;
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicLong rejectedCommands = new AtomicLong();
+    private int queuedCommands;
+
+    /**
+     * Creates a new CommandQueue
+     *
+     * @param capacity       Maximum number of queued commands
+     * @param overloadPolicy Policy applied when the queue is full
+     */
+    CommandQueue(int capacity, OverloadPolicy overloadPolicy) {
+        this.capacity = capacity;
+        this.overloadPolicy = overloadPolicy;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    /**
+     * Returns the number of commands rejected or shed since the queue was created
+     *
+     * @return Number of rejected commands
+     */
+    long getRejectedCommandCount() {
+        return rejectedCommands.get();
+    }
+
+    /**
+     * Adds the entry to the queue, applying the overload policy if the queue is full
+     *
+     * @param entry Entry
+     *
+     * @return Entries which were rejected (the entry itself with {@link OverloadPolicy#REJECT}, the oldest entries with
+     * {@link OverloadPolicy#SHED_OLDEST}), empty if the entry was added without dropping any other entry
+     *
+     * @throws RejectedExecutionException If the thread was interrupted while waiting for space in the queue
+     */
+    List<Entry> offer(Entry entry) {
+        List<Entry> rejected = Collections.emptyList();
+        lock.lock();
+
+        try {
+            while (!entries.isEmpty() && queuedCommands + entry.commandCount > capacity) {
+                switch (overloadPolicy) {
+                    case BLOCK:
+                        try {
+                            notFull.await();
+                        } catch (InterruptedException exception) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting for space in the command queue");
+                        }
+                        break;
+                    case REJECT:
+                        rejectedCommands.addAndGet(entry.commandCount);
+                        return Collections.singletonList(entry);
+                    case SHED_OLDEST:
+                        Entry oldest = entries.poll();
+                        queuedCommands -= oldest.commandCount;
+                        rejectedCommands.addAndGet(oldest.commandCount);
+
+                        if (rejected.isEmpty()) {
+                            rejected = new ArrayList<>(1);
+                        }
+
+                        rejected.add(oldest);
+                        break;
+                }
+            }
+
+            entries.add(entry);
+            queuedCommands += entry.commandCount;
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest entry from the queue
+     *
+     * @return Oldest entry or null if the queue is empty
+     */
+    Entry poll() {
+        lock.lock();
+
+        try {
+            Entry entry = entries.poll();
+
+            if (entry != null) {
+                queuedCommands -= entry.commandCount;
+                notFull.signalAll();
+            }
+
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry from the queue or, if it was already polled, the newest entry
+     *
+     * @param entry Entry to remove
+     *
+     * @return Removed entry or null if the queue is empty
+     */
+    Entry removeOrPollLast(Entry entry) {
+        lock.lock();
+
+        try {
+            Entry removed = entries.remove(entry) ? entry : entries.pollLast();
+
+            if (removed != null) {
+                queuedCommands -= removed.commandCount;
+                notFull.signalAll();
+            }
+
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queued task
+     */
+    static final class Entry {
+
+        private final Runnable task;
+        private final int commandCount;
+        private final Consumer<RejectedExecutionException> onRejected;
+
+        /**
+         * Creates a new Entry
+         *
+         * @param task         Task to run
+         * @param commandCount Number of commands the task holds
+         * @param onRejected   Called with the cause when the task is rejected or shed
+         */
+        Entry(Runnable task, int commandCount, Consumer<RejectedExecutionException> onRejected) {
+            this.task = task;
+            this.commandCount = commandCount;
+            this.onRejected = onRejected;
+        }
+
+        Runnable getTask() {
+            return task;
+        }
+
+        int getCommandCount() {
+            return commandCount;
+        }
+
+        void reject(RejectedExecutionException cause) {
+            onRejected.accept(cause);
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package dev.mayuna.consoleparallax;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of commands<br>
+ * Commands are indexed by their normalized (lower-cased) name and aliases, so an alias is resolved by the same single
+ * lookup as a name. Reads are lock-free and work on immutable snapshots, writes copy the current snapshot and swap it
+ * atomically.<br>
+ * Alongside the index, the registry keeps a sorted array of names and aliases for prefix completion and a BK-tree for
+ * "did you mean" suggestions, both updated incrementally.<br>
+ * Every change increments the registry's version (see {@link #getVersion()}), so derived data (e.g. the rendered help)
+ * may be cached until the registry changes. Batches of commands (see {@link #registerAll(Collection)}) are applied as
+ * a single change, with one snapshot swap.<br>
+ * {@link CommandRegistryListener}s are notified of every registered and unregistered command.
+ */
+public final class CommandRegistry {
+
+    private static final String[] NO_ALIASES = new String[0];
+
+    private final Object writeMutex = new Object();
+    private final BkTree suggestionTree = new BkTree();
+    private final List<CommandRegistryListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Creates a new empty CommandRegistry
+     */
+    public CommandRegistry() {
+    }
+
+    /**
+     * Normalizes the command name, so it can be used as a key in the registry's index
+     *
+     * @param commandName Non-null command name
+     *
+     * @return Non-null normalized command name
+     */
+    public static @NotNull String normalizeName(@NotNull @NonNull String commandName) {
+        return commandName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers a command, including its aliases (see {@link BaseCommand#getAliases()})<br>
+     * Replaces the command if another command with the same name is already registered
+     *
+     * @param command Non-null command to register
+     *
+     * @return Always {@code true}, a command which can't be registered is reported by an exception
+     *
+     * @throws IllegalArgumentException If the name or an alias collides with an alias of another command, or an alias
+     *                                  collides with a name of another command
+     */
+    public boolean register(@NotNull @NonNull BaseCommand command) {
+        String key = normalizeName(command.getName());
+
+        Change change;
+
+        synchronized (writeMutex) {
+            change = add(Collections.singletonMap(key, command));
+        }
+
+        notifyListeners(change);
+        return true;
+    }
+
+    /**
+     * Registers multiple commands as a single change<br>
+     * Replaces commands with the same names which are already registered. If multiple commands of the batch have the
+     * same name, the last one is registered.
+     *
+     * @param commands Non-null collection of non-null commands to register
+     *
+     * @throws IllegalArgumentException If a name or an alias collides with a name or an alias of another command, none
+     *                                  of the commands is registered then
+     */
+    public void registerAll(@NotNull @NonNull Collection<? extends BaseCommand> commands) {
+        Map<String, BaseCommand> batch = new LinkedHashMap<>();
+
+        for (BaseCommand command : commands) {
+            if (command == null) {
+                throw new NullPointerException("commands contains a null command");
+            }
+
+            String key = normalizeName(command.getName());
+            batch.remove(key); // Keeps the order of the batch, as if the commands were registered one by one
+            batch.put(key, command);
+        }
+
+        Change change;
+
+        synchronized (writeMutex) {
+            change = add(batch);
+        }
+
+        notifyListeners(change);
+    }
+
+    /**
+     * Unregisters a command
+     *
+     * @param command Non-null command to unregister
+     *
+     * @return {@code true} if the command was successfully unregistered, {@code false} otherwise
+     */
+    public boolean unregister(@NotNull @NonNull BaseCommand command) {
+        return unregisterAll(Collections.singletonList(command)) == 1;
+    }
+
+    /**
+     * Unregisters a command by name or alias
+     *
+     * @param commandName Non-null command name or alias
+     *
+     * @return {@code true} if the command was successfully unregistered, {@code false} otherwise
+     */
+    public boolean unregister(@NotNull @NonNull String commandName) {
+        String key = normalizeName(commandName);
+        Change change;
+
+        synchronized (writeMutex) {
+            Snapshot current = snapshot;
+            BaseCommand command = current.index.get(key);
+
+            if (command != null && !current.aliases.containsKey(key)) {
+                key = normalizeName(command.getName()); // Alias of the command
+            }
+
+            change = remove(Collections.singleton(key));
+        }
+
+        notifyListeners(change);
+        return change.unregistered.size() == 1;
+    }
+
+    /**
+     * Unregisters multiple commands as a single change<br>
+     * Commands which are not registered (or another command with the same name is registered instead) are skipped
+     *
+     * @param commands Non-null collection of non-null commands to unregister
+     *
+     * @return Number of unregistered commands
+     */
+    public int unregisterAll(@NotNull @NonNull Collection<? extends BaseCommand> commands) {
+        for (BaseCommand command : commands) {
+            if (command == null) {
+                throw new NullPointerException("commands contains a null command");
+            }
+        }
+
+        Change change;
+
+        synchronized (writeMutex) {
+            Map<String, BaseCommand> index = snapshot.index;
+            Set<String> keys = new LinkedHashSet<>();
+
+            for (BaseCommand command : commands) {
+                String key = normalizeName(command.getName());
+
+                if (command.equals(index.get(key))) {
+                    keys.add(key);
+                }
+            }
+
+            change = remove(keys);
+        }
+
+        notifyListeners(change);
+        return change.unregistered.size();
+    }
+
+    /**
+     * Adds a listener notified of registered and unregistered commands
+     *
+     * @param listener Non-null listener
+     */
+    public void addListener(@NotNull @NonNull CommandRegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener Non-null listener
+     *
+     * @return {@code true} if the listener was removed, {@code false} if it was not added
+     */
+    public boolean removeListener(@NotNull @NonNull CommandRegistryListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Returns a command by name
+     *
+     * @param commandName Non-null command name (case-insensitive)
+     *
+     * @return Command if found, {@link Optional#empty()} otherwise
+     */
+    public Optional<BaseCommand> get(@NotNull @NonNull String commandName) {
+        return Optional.ofNullable(snapshot.index.get(normalizeName(commandName)));
+    }
+
+    /**
+     * Returns names and aliases of registered commands starting with the specified prefix (case-insensitive)<br>
+     * Runs in O(log n + prefix length + number of results)
+     *
+     * @param prefix Non-null prefix
+     *
+     * @return Non-null list of normalized command names and aliases in alphabetical order
+     */
+    public @NotNull List<String> complete(@NotNull @NonNull String prefix) {
+        String normalizedPrefix = normalizeName(prefix);
+        String[] sortedNames = snapshot.sortedNames;
+        int start = Arrays.binarySearch(sortedNames, normalizedPrefix);
+
+        if (start < 0) {
+            start = -start - 1;
+        }
+
+        int end = start;
+
+        while (end < sortedNames.length && sortedNames[end].startsWith(normalizedPrefix)) {
+            end++;
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(sortedNames, start, end)));
+    }
+
+    /**
+     * Returns names and aliases of registered commands similar to the specified name (case-insensitive)
+     *
+     * @param commandName Non-null command name
+     * @param maxDistance Maximum edit (Levenshtein) distance
+     * @param limit       Maximum number of suggestions
+     *
+     * @return Non-null list of normalized command names, the most similar first
+     */
+    public @NotNull List<String> suggest(@NotNull @NonNull String commandName, int maxDistance, int limit) {
+        List<BkTree.Match> matches = suggestionTree.search(normalizeName(commandName), maxDistance);
+        List<String> suggestions = new ArrayList<>(Math.min(limit, matches.size()));
+
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            suggestions.add(matches.get(i).word);
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Returns a snapshot of registered commands in the registration order
+     *
+     * @return Non-null immutable list of registered commands
+     */
+    public @NotNull List<BaseCommand> getCommands() {
+        return snapshot.commands;
+    }
+
+    /**
+     * Returns the number of registered commands
+     *
+     * @return Number of registered commands
+     */
+    public int size() {
+        return snapshot.commands.size();
+    }
+
+    /**
+     * Returns the version of the registry, which is incremented whenever a command is registered or unregistered
+     *
+     * @return Version of the registry, zero if no command was ever registered
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * Adds commands by their normalized names. Must be called while holding {@link #writeMutex}
+     *
+     * @param batch Commands by their normalized names, in the registration order
+     *
+     * @return Non-null change to notify the listeners of
+     *
+     * @throws IllegalArgumentException If a name or an alias collides with a name or an alias of another command, the
+     *                                  registry is not changed then
+     */
+    private Change add(Map<String, BaseCommand> batch) {
+        if (batch.isEmpty()) {
+            return Change.NONE;
+        }
+
+        Snapshot current = snapshot;
+        Map<String, BaseCommand> index = new HashMap<>(current.index);
+        Map<String, String[]> aliases = new HashMap<>(current.aliases);
+        List<BaseCommand> replaced = new ArrayList<>();
+        Set<String> removedKeys = new HashSet<>();
+        Set<String> addedKeys = new HashSet<>();
+
+        for (String key : batch.keySet()) {
+            String[] replacedAliases = aliases.remove(key);
+
+            if (replacedAliases != null) {
+                replaced.add(index.remove(key));
+                removedKeys.add(key);
+
+                for (String alias : replacedAliases) {
+                    index.remove(alias);
+                    removedKeys.add(alias);
+                }
+            }
+        }
+
+        for (Map.Entry<String, BaseCommand> entry : batch.entrySet()) {
+            String key = entry.getKey();
+            BaseCommand command = entry.getValue();
+            String[] commandAliases = normalizeAliases(command, key);
+
+            checkNotIndexed(index, key, command);
+            index.put(key, command);
+            addedKeys.add(key);
+
+            for (String alias : commandAliases) {
+                checkNotIndexed(index, alias, command);
+                index.put(alias, command);
+                addedKeys.add(alias);
+            }
+
+            aliases.put(key, commandAliases);
+        }
+
+        List<String> addedNames = new ArrayList<>(addedKeys.size());
+
+        for (String key : addedKeys) {
+            if (!removedKeys.remove(key)) {
+                addedNames.add(key);
+                suggestionTree.add(key);
+            }
+        }
+
+        for (String key : removedKeys) {
+            suggestionTree.remove(key);
+        }
+
+        String[] sortedNames = removedKeys.isEmpty() ? current.sortedNames : retainIndexed(current.sortedNames, index, current.sortedNames.length - removedKeys.size());
+        List<BaseCommand> commands = withoutCommands(current.commands, replaced);
+        commands.addAll(batch.values());
+        snapshot = new Snapshot(index, aliases, commands, mergeSorted(sortedNames, addedNames), current.version + 1);
+        return new Change(replaced, new ArrayList<>(batch.values()));
+    }
+
+    /**
+     * Removes commands by their normalized names, including their aliases. Must be called while holding
+     * {@link #writeMutex}
+     *
+     * @param keys Normalized command names
+     *
+     * @return Non-null change to notify the listeners of, its unregistered commands are the removed commands
+     */
+    private Change remove(Collection<String> keys) {
+        Snapshot current = snapshot;
+        Map<String, BaseCommand> index = null;
+        Map<String, String[]> aliases = null;
+        List<BaseCommand> removed = new ArrayList<>();
+        int removedKeys = 0;
+
+        for (String key : keys) {
+            if (!current.aliases.containsKey(key) || (aliases != null && !aliases.containsKey(key))) {
+                continue; // Not a name of a registered command or already removed
+            }
+
+            if (index == null) {
+                index = new HashMap<>(current.index);
+                aliases = new HashMap<>(current.aliases);
+            }
+
+            removed.add(index.remove(key));
+            suggestionTree.remove(key);
+            removedKeys++;
+
+            for (String alias : aliases.remove(key)) {
+                index.remove(alias);
+                suggestionTree.remove(alias);
+                removedKeys++;
+            }
+        }
+
+        if (index == null) {
+            return Change.NONE;
+        }
+
+        String[] sortedNames = retainIndexed(current.sortedNames, index, current.sortedNames.length - removedKeys);
+        snapshot = new Snapshot(index, aliases, withoutCommands(current.commands, removed), sortedNames, current.version + 1);
+        return new Change(removed, Collections.emptyList());
+    }
+
+    /**
+     * Notifies the listeners of the change. Must be called without holding {@link #writeMutex}, so listeners can't
+     * block other changes of the registry<br>
+     * An exception thrown by a listener is reported to the uncaught exception handler of the current thread, the
+     * remaining listeners are still notified
+     *
+     * @param change Non-null change
+     */
+    private void notifyListeners(Change change) {
+        if (change.unregistered.isEmpty() && change.registered.isEmpty()) {
+            return;
+        }
+
+        for (CommandRegistryListener listener : listeners) {
+            try {
+                for (BaseCommand command : change.unregistered) {
+                    listener.onUnregistered(command);
+                }
+
+                for (BaseCommand command : change.registered) {
+                    listener.onRegistered(command);
+                }
+            } catch (RuntimeException exception) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+            }
+        }
+    }
+
+    /**
+     * Returns the normalized aliases of the command, without duplicates and its own name
+     *
+     * @param command Command
+     * @param key     Normalized name of the command
+     *
+     * @return Non-null array of normalized aliases
+     */
+    static String[] normalizeAliases(BaseCommand command, String key) {
+        Collection<String> commandAliases = command.getAliases();
+
+        if (commandAliases.isEmpty()) {
+            return NO_ALIASES;
+        }
+
+        Set<String> aliases = new LinkedHashSet<>();
+
+        for (String alias : commandAliases) {
+            if (alias == null) {
+                throw new NullPointerException("Aliases of command " + command.getName() + " contain a null alias");
+            }
+
+            String aliasKey = normalizeName(alias);
+
+            if (!aliasKey.isEmpty() && !aliasKey.equals(key)) {
+                aliases.add(aliasKey);
+            }
+        }
+
+        return aliases.toArray(NO_ALIASES);
+    }
+
+    /**
+     * Checks that the name or alias is not indexed yet
+     *
+     * @param index   Index
+     * @param key     Normalized name or alias
+     * @param command Command being registered
+     *
+     * @throws IllegalArgumentException If the name or alias is indexed
+     */
+    private static void checkNotIndexed(Map<String, BaseCommand> index, String key, BaseCommand command) {
+        BaseCommand existing = index.get(key);
+
+        if (existing != null) {
+            throw new IllegalArgumentException("Name or alias " + key + " of command " + command.getName() + " collides with command " + existing.getName());
+        }
+    }
+
+    /**
+     * Copies the sorted names which are still indexed
+     *
+     * @param sortedNames Sorted array of names
+     * @param index       Index
+     * @param length      Number of names which are still indexed
+     *
+     * @return New sorted array
+     */
+    private static String[] retainIndexed(String[] sortedNames, Map<String, BaseCommand> index, int length) {
+        String[] result = new String[length];
+        int position = 0;
+
+        for (String name : sortedNames) {
+            if (index.containsKey(name)) {
+                result[position++] = name;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Copies the commands without the specified command instances, in linear time
+     *
+     * @param commands Commands
+     * @param excluded Command instances to exclude
+     *
+     * @return New mutable list of commands
+     */
+    private static List<BaseCommand> withoutCommands(List<BaseCommand> commands, List<BaseCommand> excluded) {
+        List<BaseCommand> result = new ArrayList<>(commands.size());
+
+        if (excluded.isEmpty()) {
+            result.addAll(commands);
+            return result;
+        }
+
+        Set<BaseCommand> excludedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        excludedSet.addAll(excluded);
+
+        for (BaseCommand command : commands) {
+            if (!excludedSet.contains(command)) {
+                result.add(command);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Merges names into a sorted array
+     *
+     * @param sortedNames Sorted array of names
+     * @param names       Names which are not in the array
+     *
+     * @return New sorted array
+     */
+    private static String[] mergeSorted(String[] sortedNames, List<String> names) {
+        if (names.isEmpty()) {
+            return sortedNames;
+        }
+
+        String[] added = names.toArray(new String[0]);
+        Arrays.sort(added);
+
+        String[] result = new String[sortedNames.length + added.length];
+        int i = 0;
+        int j = 0;
+
+        for (int position = 0; position < result.length; position++) {
+            if (j == added.length || (i < sortedNames.length && sortedNames[i].compareTo(added[j]) < 0)) {
+                result[position] = sortedNames[i++];
+            } else {
+                result[position] = added[j++];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Commands unregistered and registered by a single change of the registry
+     */
+    private static final class Change {
+
+        private static final Change NONE = new Change(Collections.emptyList(), Collections.emptyList());
+
+        private final List<BaseCommand> unregistered; // Including the replaced commands
+        private final List<BaseCommand> registered;
+
+        private Change(List<BaseCommand> unregistered, List<BaseCommand> registered) {
+            this.unregistered = unregistered;
+            this.registered = registered;
+        }
+    }
+
+    /**
+     * Immutable state of the registry
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(), new String[0], 0);
+
+        private final Map<String, BaseCommand> index; // Names and aliases
+        private final Map<String, String[]> aliases; // Aliases by names
+        private final List<BaseCommand> commands;
+        private final String[] sortedNames; // Names and aliases
+        private final long version;
+
+        private Snapshot(Map<String, BaseCommand> index, Map<String, String[]> aliases, List<BaseCommand> commands, String[] sortedNames, long version) {
+            this.index = index;
+            this.aliases = aliases;
+            this.commands = Collections.unmodifiableList(commands);
+            this.sortedNames = sortedNames;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dev.mayuna.consoleparallax;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener of {@link CommandRegistry} changes, e.g. for caches and indexes which are updated incrementally<br>
+ * Listeners are called on the thread changing the registry, after the change is visible to readers and the registry's
+ * write lock is released. A replaced command is reported as unregistered before its replacement is reported as
+ * registered. Changes made concurrently by multiple threads may be reported in a different order than they were
+ * applied, listeners which need the exact state should read it from the registry.<br>
+ * An exception thrown by a listener does not fail the change, it is reported to the uncaught exception handler of the
+ * changing thread and the remaining listeners are still called.
+ */
+public interface CommandRegistryListener {
+
+    /**
+     * Called when a command is registered
+     *
+     * @param command Non-null registered command
+     */
+    default void onRegistered(@NotNull BaseCommand command) {
+    }
+
+    /**
+     * Called when a command is unregistered or replaced by another command with the same name
+     *
+     * @param command Non-null unregistered command
+     */
+    default void onUnregistered(@NotNull BaseCommand command) {
+    }
+}
@@ -0,0 +1,119 @@
+package dev.mayuna.consoleparallax;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a command dispatched by {@link ConsoleParallax#dispatch(String)}, holding the output captured during its
+ * execution
+ */
+@Getter
+public final class CommandResult {
+
+    private final Status status;
+    private final String commandName;
+    private final List<Message> messages;
+    private final Throwable failure;
+    private final long durationNanos;
+
+    CommandResult(Status status, String commandName, List<Message> messages, Throwable failure, long durationNanos) {
+        this.status = status;
+        this.commandName = commandName;
+        this.messages = Collections.unmodifiableList(messages);
+        this.failure = failure;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Determines if the command was executed without throwing an exception
+     *
+     * @return {@code true} if the status is {@link Status#SUCCESS}
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    /**
+     * Returns the exception thrown by the command
+     *
+     * @return Exception or null if the command did not fail
+     */
+    public @Nullable Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns the captured info and error messages, separated by the system line separator
+     *
+     * @return Non-null output, empty if the command did not write anything
+     */
+    public @NotNull String getOutput() {
+        StringBuilder builder = new StringBuilder();
+
+        for (Message message : messages) {
+            if (builder.length() > 0) {
+                builder.append(System.lineSeparator());
+            }
+
+            builder.append(message.getText());
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "CommandResult{status=" + status + ", commandName='" + commandName + "', messages=" + messages.size() + ", durationNanos=" + durationNanos + "}";
+    }
+
+    /**
+     * Outcome of a dispatched command
+     */
+    public enum Status {
+
+        /**
+         * The command was executed without throwing an exception
+         */
+        SUCCESS,
+
+        /**
+         * No command with the name is registered
+         */
+        NOT_FOUND,
+
+        /**
+         * The command threw an exception or the input could not be parsed, see {@link #getFailure()}
+         */
+        FAILED,
+
+        /**
+         * The command exceeded its timeout (see {@link BaseCommand#getTimeout()}), it may have thrown an exception as
+         * well
+         */
+        TIMED_OUT
+    }
+
+    /**
+     * Message written by the command to its output handler
+     */
+    @Getter
+    public static final class Message {
+
+        private final boolean error;
+        private final String text;
+
+        Message(boolean error, String text) {
+            this.error = error;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return error ? "error: " + text : text;
+        }
+    }
+}
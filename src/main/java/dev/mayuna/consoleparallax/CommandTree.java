@@ -0,0 +1,380 @@
+package dev.mayuna.consoleparallax;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Command with subcommands, e.g. {@code cache stats} and {@code cache evict <key>}<br>
+ * Subcommands may be any {@link BaseCommand}, including other command trees. Each tree compiles its subcommands into a
+ * hash index when built, so resolving {@code a b c} is a sequence of hash lookups. The resolved subcommand is executed
+ * with the remaining arguments and with the command name set to the whole path of names (e.g. {@code cache evict}).<br>
+ * Command trees are immutable. Only the serialization key of the root command is used.
+ */
+public final class CommandTree implements BaseCommand {
+
+    private final String name;
+    private final String usage;
+    private final String syntax;
+    private final String description;
+    private final String serializationKey;
+    private final Consumer<CommandInvocationContext> defaultAction;
+    private final List<BaseCommand> subcommands;
+    private final Map<String, BaseCommand> index;
+
+    private CommandTree(Builder builder) {
+        this.name = builder.name;
+        this.usage = builder.usage;
+        this.description = builder.description;
+        this.serializationKey = builder.serializationKey;
+        this.defaultAction = builder.defaultAction;
+        this.subcommands = Collections.unmodifiableList(new ArrayList<>(builder.subcommands.values()));
+        this.index = new HashMap<>(builder.index);
+        this.syntax = builder.syntax != null ? builder.syntax : name + " <" + String.join("|", getSubcommandNames()) + ">";
+    }
+
+    /**
+     * Creates a {@link CommandTree} Builder
+     *
+     * @param name Non-null name of the command
+     *
+     * @return Builder instance
+     */
+    public static Builder builder(@NotNull @NonNull String name) {
+        return new Builder(name);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return name;
+    }
+
+    @Override
+    public @NotNull String getUsage() {
+        return usage;
+    }
+
+    @Override
+    public @NotNull String getSyntax() {
+        return syntax;
+    }
+
+    @Override
+    public @NotNull String getDescription() {
+        return description;
+    }
+
+    @Override
+    public @Nullable String getSerializationKey() {
+        return serializationKey;
+    }
+
+    /**
+     * Returns the subcommands in the order they were added
+     *
+     * @return Non-null immutable list of subcommands
+     */
+    public @NotNull List<BaseCommand> getSubcommands() {
+        return subcommands;
+    }
+
+    /**
+     * Returns a subcommand by name
+     *
+     * @param subcommandName Non-null subcommand name (case-insensitive)
+     *
+     * @return Subcommand if found, {@link Optional#empty()} otherwise
+     */
+    public Optional<BaseCommand> getSubcommand(@NotNull @NonNull String subcommandName) {
+        return Optional.ofNullable(index.get(CommandRegistry.normalizeName(subcommandName)));
+    }
+
+    @Override
+    public void execute(@NotNull CommandInvocationContext context) {
+        String[] arguments = context.getArguments();
+        StringBuilder path = new StringBuilder(name);
+        BaseCommand target = this;
+        int depth = 0;
+
+        while (target instanceof CommandTree && depth < arguments.length) {
+            BaseCommand subcommand = ((CommandTree) target).index.get(CommandRegistry.normalizeName(arguments[depth]));
+
+            if (subcommand == null) {
+                break;
+            }
+
+            path.append(' ').append(subcommand.getName());
+            target = subcommand;
+            depth++;
+        }
+
+        if (!(target instanceof CommandTree)) {
+            target.execute(createSubcontext(context, path, depth));
+            return;
+        }
+
+        CommandTree tree = (CommandTree) target;
+
+        if (tree.defaultAction != null) {
+            tree.defaultAction.accept(createSubcontext(context, path, depth));
+            return;
+        }
+
+        String available = String.join(", ", tree.getSubcommandNames());
+
+        if (depth < arguments.length) {
+            context.getOutputHandler().error("Unknown subcommand: " + path + " " + arguments[depth] + ". Available subcommands: " + available);
+        } else {
+            context.getOutputHandler().error("Missing subcommand: " + path + ". Available subcommands: " + available);
+        }
+    }
+
+    /**
+     * Returns names of the subcommands in the order they were added
+     *
+     * @return Non-null list of subcommand names
+     */
+    private List<String> getSubcommandNames() {
+        List<String> names = new ArrayList<>(subcommands.size());
+
+        for (BaseCommand subcommand : subcommands) {
+            names.add(subcommand.getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Creates a context for a resolved subcommand
+     *
+     * @param context Context of this command
+     * @param path    Path of the subcommand
+     * @param depth   Number of arguments used to resolve the subcommand
+     *
+     * @return Non-null context with the remaining arguments
+     */
+    private static CommandInvocationContext createSubcontext(CommandInvocationContext context, CharSequence path, int depth) {
+        if (depth == 0 && context.getCommandName().contentEquals(path)) {
+            return context;
+        }
+
+        String[] arguments = context.getArguments();
+        String[] remainingArguments = depth == arguments.length ? CommandParseResult.EMPTY_ARGUMENTS : Arrays.copyOfRange(arguments, depth, arguments.length);
+        CommandParseResult result = new SubcommandParseResult(path.toString(), remainingArguments, context.getCommandParseResult());
+        return new CommandInvocationContext(context.getConsoleParallax(), result, context.getOutputHandler(), context);
+    }
+
+    /**
+     * Parse result of a resolved subcommand, which keeps the flags of the original parse result
+     */
+    private static final class SubcommandParseResult extends CommandParseResult {
+
+        private final CommandParseResult parent;
+
+        private SubcommandParseResult(String commandName, String[] arguments, CommandParseResult parent) {
+            super(commandName, arguments);
+            this.parent = parent;
+        }
+
+        @Override
+        public @NotNull Map<String, String> getFlags() {
+            return parent.getFlags();
+        }
+    }
+
+    /**
+     * Subcommand defined by a name, usage and an action
+     */
+    private static final class ActionCommand implements BaseCommand {
+
+        private final String name;
+        private final String usage;
+        private final Consumer<CommandInvocationContext> action;
+
+        private ActionCommand(String name, String usage, Consumer<CommandInvocationContext> action) {
+            this.name = name;
+            this.usage = usage;
+            this.action = action;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public @NotNull String getUsage() {
+            return usage;
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            action.accept(context);
+        }
+    }
+
+    /**
+     * Builder for {@link CommandTree}
+     */
+    public static final class Builder {
+
+        private final String name;
+        private final Map<String, BaseCommand> subcommands = new LinkedHashMap<>();
+        private final Map<String, BaseCommand> index = new HashMap<>(); // Names and aliases of the subcommands
+        private String usage = "No usage provided";
+        private String syntax;
+        private String description = "No description provided";
+        private String serializationKey;
+        private Consumer<CommandInvocationContext> defaultAction;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Sets the usage of the command
+         *
+         * @param usage Non-null usage
+         *
+         * @return Builder instance
+         */
+        public Builder setUsage(@NotNull @NonNull String usage) {
+            this.usage = usage;
+            return this;
+        }
+
+        /**
+         * Sets the syntax of the command. By default, the syntax lists the subcommands, e.g. {@code cache <stats|evict>}
+         *
+         * @param syntax Non-null syntax
+         *
+         * @return Builder instance
+         */
+        public Builder setSyntax(@NotNull @NonNull String syntax) {
+            this.syntax = syntax;
+            return this;
+        }
+
+        /**
+         * Sets the description of the command
+         *
+         * @param description Non-null description
+         *
+         * @return Builder instance
+         */
+        public Builder setDescription(@NotNull @NonNull String description) {
+            this.description = description;
+            return this;
+        }
+
+        /**
+         * Sets the serialization key of the command (see {@link BaseCommand#getSerializationKey()})
+         *
+         * @param serializationKey Nullable serialization key
+         *
+         * @return Builder instance
+         */
+        public Builder setSerializationKey(@Nullable String serializationKey) {
+            this.serializationKey = serializationKey;
+            return this;
+        }
+
+        /**
+         * Sets the action which is executed when no subcommand is specified or the specified subcommand does not
+         * exist. By default, an error listing the available subcommands is written to the output handler.
+         *
+         * @param defaultAction Nullable default action, receives all arguments which were not used to resolve a
+         *                      subcommand
+         *
+         * @return Builder instance
+         */
+        public Builder setDefaultAction(@Nullable Consumer<CommandInvocationContext> defaultAction) {
+            this.defaultAction = defaultAction;
+            return this;
+        }
+
+        /**
+         * Adds a subcommand, which may also be invoked by its aliases (see {@link BaseCommand#getAliases()})
+         *
+         * @param subcommand Non-null subcommand, may be another {@link CommandTree}
+         *
+         * @return Builder instance
+         *
+         * @throws IllegalArgumentException If a subcommand with the same name was already added, or the name or an
+         *                                  alias collides with a name or an alias of another subcommand
+         */
+        public Builder addSubcommand(@NotNull @NonNull BaseCommand subcommand) {
+            String key = CommandRegistry.normalizeName(subcommand.getName());
+            String[] aliases = CommandRegistry.normalizeAliases(subcommand, key);
+
+            if (subcommands.containsKey(key)) {
+                throw new IllegalArgumentException("Subcommand " + subcommand.getName() + " was already added to " + name);
+            }
+
+            checkNotIndexed(key, subcommand);
+
+            for (String alias : aliases) {
+                checkNotIndexed(alias, subcommand);
+            }
+
+            subcommands.put(key, subcommand);
+            index.put(key, subcommand);
+
+            for (String alias : aliases) {
+                index.put(alias, subcommand);
+            }
+
+            return this;
+        }
+
+        /**
+         * Adds a subcommand defined by an action
+         *
+         * @param name   Non-null subcommand name
+         * @param usage  Non-null subcommand usage
+         * @param action Non-null action, receives the arguments following the subcommand's name
+         *
+         * @return Builder instance
+         *
+         * @throws IllegalArgumentException If a subcommand with the same name was already added
+         */
+        public Builder addSubcommand(@NotNull @NonNull String name, @NotNull @NonNull String usage, @NotNull @NonNull Consumer<CommandInvocationContext> action) {
+            return addSubcommand(new ActionCommand(name, usage, action));
+        }
+
+        /**
+         * Checks that the name or alias is not used by another subcommand
+         *
+         * @param key        Normalized name or alias
+         * @param subcommand Subcommand being added
+         *
+         * @throws IllegalArgumentException If the name or alias is used
+         */
+        private void checkNotIndexed(String key, BaseCommand subcommand) {
+            BaseCommand existing = index.get(key);
+
+            if (existing != null) {
+                throw new IllegalArgumentException("Name or alias " + key + " of subcommand " + subcommand.getName() + " collides with subcommand " + existing.getName() + " of " + name);
+            }
+        }
+
+        /**
+         * Builds a new instance of {@link CommandTree} and compiles its dispatch index
+         *
+         * @return CommandTree instance
+         */
+        public CommandTree build() {
+            return new CommandTree(this);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package dev.mayuna.consoleparallax;
 
 import dev.mayuna.consoleparallax.commands.HelpCommand;
+import dev.mayuna.consoleparallax.commands.StatsCommand;
+import dev.mayuna.consoleparallax.impl.BatchInputHandler;
+import dev.mayuna.consoleparallax.impl.BufferedOutputHandler;
 import dev.mayuna.consoleparallax.impl.ConsoleInputHandler;
 import dev.mayuna.consoleparallax.impl.ConsoleOutputHandler;
 import dev.mayuna.consoleparallax.impl.SimpleCommandParser;
@@ -8,185 +11,1427 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Main class for Console Parallax library
  */
 @SuppressWarnings("FieldMayBeFinal")
 @Getter
-public class ConsoleParallax {
+public class ConsoleParallax implements AutoCloseable {
+
+    /**
+     * Maximum time the command reader waits for an input in a single {@link InputHandler#getNextInput(long, TimeUnit)}
+     * call
+     */
+    protected static final long INPUT_POLL_TIMEOUT_MILLIS = 500;
+
+    /**
+     * Initial and maximum time the command reader parks for when the input handler returns no input immediately
+     */
+    protected static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    protected static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Maximum number of inputs the command reader submits to the command executor as a single task
+     */
+    protected static final int MAX_INPUT_BATCH_SIZE = 256;
+
+    /**
+     * Default maximum number of commands waiting for the command executor, see {@link Builder#setCommandQueueCapacity(int)}
+     */
+    protected static final int DEFAULT_COMMAND_QUEUE_CAPACITY = 10_000;
+
+    /**
+     * Maximum number of records waiting between two stages of a pipeline, see {@link PipeChannel}
+     */
+    protected static final int PIPE_CAPACITY = 1024;
+
+    /**
+     * Maximum number of upstream pipeline stages running at once, further pipelines are rejected, see
+     * {@link #executePipeline(BaseCommand[], List, OutputHandler)}
+     */
+    protected static final int MAX_PIPELINE_STAGE_THREADS = 64;
+
+    /**
+     * Time {@link #close()} waits for in-flight commands to finish
+     */
+    protected static final long DEFAULT_STOP_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Maximum edit distance and number of suggested commands for unknown command names
+     */
+    protected static final int MAX_SUGGESTION_DISTANCE = 3;
+    protected static final int MAX_SUGGESTIONS = 3;
 
     protected final InputHandler inputHandler;
     protected final OutputHandler outputHandler;
-    protected final Executor commandExecutor;
+    protected volatile Executor commandExecutor;
     protected final CommandParser commandParser;
-    protected final List<BaseCommand> registeredCommands = new LinkedList<>();
+    protected final CommandRegistry commandRegistry;
+    /**
+     * @deprecated Commands are no longer executed while holding this mutex, see {@link #executionLock}
+     */
+    @Deprecated
     protected final Object mutex = new Object();
-    protected boolean running;
-    protected final @Getter(AccessLevel.NONE) Thread commandReader = createCommandReaderThread();
+    protected final Lock executionLock;
+    protected final @Getter(AccessLevel.NONE) Map<String, Lock> serializationLocks;
+    protected CommandExecutionMode executionMode = CommandExecutionMode.SYNCHRONIZED;
+    protected CommandMetrics commandMetrics = CommandMetrics.NOOP;
+    protected boolean bufferInvocationOutput;
+    protected Duration defaultCommandTimeout; // Null if commands have no timeout by default
+    protected final @Getter(AccessLevel.NONE) Object lifecycleMutex;
+    protected final @Getter(AccessLevel.NONE) AtomicInteger inFlightCommands;
+    protected final @Getter(AccessLevel.NONE) AtomicInteger queuedCommands;
+    protected final @Getter(AccessLevel.NONE) AtomicLong timedOutCommands;
+    protected @Getter(AccessLevel.NONE) CommandQueue commandQueue;
+    protected @Getter(AccessLevel.NONE) Supplier<ExecutorService> commandExecutorFactory; // Null if the executor is not owned
+    protected volatile boolean running;
+    protected volatile @Getter(AccessLevel.NONE) Thread commandReader = createCommandReaderThread();
+    protected final @Getter(AccessLevel.NONE) Lock inputLock = new ReentrantLock(); // Held by a command reader while reading
+    protected final @Getter(AccessLevel.NONE) List<String> handedOffInputs = new ArrayList<>(); // Guarded by inputLock
+    protected final @Getter(AccessLevel.NONE) ConsoleParallax parent; // Null if the instance is not derived
+    protected volatile @Getter(AccessLevel.NONE) ExecutorService pipelineStageExecutor; // Null if the instance is derived
+
+    /**
+     * Creates a new ConsoleParallax instance
+     *
+     * @param inputHandler    Input handler
+     * @param outputHandler   Output handler
+     * @param commandParser   Command parser
+     * @param commandExecutor Command executor
+     */
+    public ConsoleParallax(@NotNull @NonNull InputHandler inputHandler, @NotNull @NonNull OutputHandler outputHandler, @NotNull @NonNull CommandParser commandParser, @NotNull @NonNull Executor commandExecutor) {
+        this.inputHandler = inputHandler;
+        this.outputHandler = outputHandler;
+        this.commandParser = commandParser;
+        this.commandExecutor = commandExecutor;
+        this.commandRegistry = new CommandRegistry();
+        this.executionLock = new ReentrantLock();
+        this.serializationLocks = new ConcurrentHashMap<>();
+        this.lifecycleMutex = new Object();
+        this.inFlightCommands = new AtomicInteger();
+        this.queuedCommands = new AtomicInteger();
+        this.timedOutCommands = new AtomicLong();
+        this.commandQueue = new CommandQueue(DEFAULT_COMMAND_QUEUE_CAPACITY, OverloadPolicy.BLOCK);
+        this.parent = null;
+        this.pipelineStageExecutor = createPipelineStageExecutor();
+    }
+
+    /**
+     * Creates a new ConsoleParallax instance derived from the parent instance, with its own input and output handler<br>
+     * The derived instance shares the command registry, command parser, command executor, execution mode, metrics and
+     * execution locks with the parent, so commands are executed exactly as if they were submitted to the parent. Commands
+     * submitted by the derived instance count as in-flight commands of the parent. The derived instance does not own
+     * the command executor and always uses the parent's current one, which is recreated when the parent is started
+     * again after it was stopped.
+     *
+     * @param parent        Parent instance
+     * @param inputHandler  Input handler
+     * @param outputHandler Output handler
+     */
+    protected ConsoleParallax(@NotNull @NonNull ConsoleParallax parent, @NotNull @NonNull InputHandler inputHandler, @NotNull @NonNull OutputHandler outputHandler) {
+        this.inputHandler = inputHandler;
+        this.outputHandler = outputHandler;
+        this.commandParser = parent.commandParser;
+        this.commandExecutor = parent.commandExecutor;
+        this.commandRegistry = parent.commandRegistry;
+        this.executionLock = parent.executionLock;
+        this.serializationLocks = parent.serializationLocks;
+        this.lifecycleMutex = parent.lifecycleMutex;
+        this.inFlightCommands = parent.inFlightCommands;
+        this.queuedCommands = parent.queuedCommands;
+        this.timedOutCommands = parent.timedOutCommands;
+        this.commandQueue = parent.commandQueue;
+        this.executionMode = parent.executionMode;
+        this.commandMetrics = parent.commandMetrics;
+        this.bufferInvocationOutput = parent.bufferInvocationOutput;
+        this.defaultCommandTimeout = parent.defaultCommandTimeout;
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a {@link ConsoleParallax} Builder with default values
+     *
+     * @return Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts the ConsoleParallax instance<br>
+     * The instance may be started again after it was stopped
+     *
+     * @throws IllegalStateException If the instance is already running
+     */
+    public void start() {
+        synchronized (lifecycleMutex) {
+            if (running) {
+                throw new IllegalStateException("ConsoleParallax is already running");
+            }
+
+            if (commandExecutorFactory != null && ((ExecutorService) commandExecutor).isShutdown()) {
+                commandExecutor = commandExecutorFactory.get();
+            }
+
+            if (pipelineStageExecutor != null && pipelineStageExecutor.isShutdown()) {
+                pipelineStageExecutor = createPipelineStageExecutor();
+            }
+
+            if (commandReader.getState() != Thread.State.NEW) {
+                commandReader = createCommandReaderThread();
+            }
+
+            running = true;
+            commandReader.start();
+        }
+    }
+
+    /**
+     * Interrupts the command reader thread and stops the ConsoleParallax instance<br>
+     * Does not wait for in-flight commands and does not shut down the command executor, see {@link #stop(long, TimeUnit)}
+     */
+    public void interrupt() {
+        synchronized (lifecycleMutex) {
+            running = false;
+            commandReader.interrupt();
+        }
+    }
+
+    /**
+     * Stops the ConsoleParallax instance: interrupts the command reader thread, waits for in-flight commands to finish,
+     * shuts down the pipeline stage threads and the command executor if it was created by the {@link Builder}<br>
+     * Pipelines are rejected until the instance is started again.
+     *
+     * @param timeout Maximum time to wait for in-flight commands
+     * @param unit    Non-null unit of the timeout
+     *
+     * @return {@code true} if all in-flight commands finished within the timeout, {@code false} otherwise
+     *
+     * @throws InterruptedException If the current thread was interrupted while waiting
+     */
+    public boolean stop(long timeout, @NotNull @NonNull TimeUnit unit) throws InterruptedException {
+        interrupt();
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained = awaitTermination(timeout, unit);
+
+        if (commandExecutorFactory != null) {
+            ExecutorService executorService = (ExecutorService) commandExecutor;
+            executorService.shutdown();
+
+            if (!executorService.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                executorService.shutdownNow();
+                drained = false;
+            }
+        }
+
+        if (pipelineStageExecutor != null) {
+            if (drained) {
+                pipelineStageExecutor.shutdown();
+            } else {
+                pipelineStageExecutor.shutdownNow(); // Interrupts the stages of pipelines which did not finish
+            }
+        }
+
+        return drained;
+    }
+
+    /**
+     * Waits until the instance is stopped and all in-flight commands are finished
+     *
+     * @param timeout Maximum time to wait
+     * @param unit    Non-null unit of the timeout
+     *
+     * @return {@code true} if the instance terminated within the timeout, {@code false} otherwise
+     *
+     * @throws InterruptedException If the current thread was interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, @NotNull @NonNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        synchronized (lifecycleMutex) {
+            while (running || inFlightCommands.get() > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+
+                lifecycleMutex.wait(remainingMillis);
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Stops the ConsoleParallax instance, waiting at most {@link #DEFAULT_STOP_TIMEOUT_MILLIS} for in-flight commands
+     *
+     * @see #stop(long, TimeUnit)
+     */
+    @Override
+    public void close() {
+        try {
+            stop(DEFAULT_STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the command executor<br>
+     * Derived instances return the current command executor of their parent instance
+     *
+     * @return Non-null command executor
+     */
+    public @NotNull Executor getCommandExecutor() {
+        return parent != null ? parent.getCommandExecutor() : commandExecutor;
+    }
+
+    /**
+     * Returns the executor running the upstream stages of pipelines<br>
+     * Derived instances return the current executor of their parent instance
+     *
+     * @return Non-null executor service
+     */
+    private ExecutorService getPipelineStageExecutor() {
+        return parent != null ? parent.getPipelineStageExecutor() : pipelineStageExecutor;
+    }
+
+    /**
+     * Returns the number of commands submitted to the command executor which have not finished yet
+     *
+     * @return Number of in-flight commands
+     */
+    public int getInFlightCommandCount() {
+        return inFlightCommands.get();
+    }
+
+    /**
+     * Returns the number of commands submitted to the command executor which have not started yet
+     *
+     * @return Number of queued commands
+     */
+    public int getQueuedCommandCount() {
+        return queuedCommands.get();
+    }
+
+    /**
+     * Returns the capacity of the command queue
+     *
+     * @return Maximum number of commands waiting for the command executor
+     */
+    public int getCommandQueueCapacity() {
+        return commandQueue.getCapacity();
+    }
+
+    /**
+     * Returns the policy applied when a command is submitted while the command queue is full
+     *
+     * @return Non-null overload policy
+     */
+    public @NotNull OverloadPolicy getOverloadPolicy() {
+        return commandQueue.getOverloadPolicy();
+    }
+
+    /**
+     * Returns the number of commands rejected or shed because the command queue was full
+     *
+     * @return Number of rejected commands
+     */
+    public long getRejectedCommandCount() {
+        return commandQueue.getRejectedCommandCount();
+    }
+
+    /**
+     * Returns the number of commands which exceeded their timeout
+     *
+     * @return Number of timed out commands
+     */
+    public long getTimedOutCommandCount() {
+        return timedOutCommands.get();
+    }
+
+    /**
+     * Registers a command, including its aliases<br>
+     * Replaces the command if another command with the same name is already registered
+     *
+     * @param command Non-null command to register
+     *
+     * @return Always {@code true}, a command which can't be registered is reported by an exception
+     *
+     * @throws IllegalArgumentException If the name or an alias collides with an alias of another command, or an alias
+     *                                  collides with a name of another command
+     */
+    public boolean registerCommand(@NotNull @NonNull BaseCommand command) {
+        return commandRegistry.register(command);
+    }
+
+    /**
+     * Registers multiple commands at once (e.g. all commands of a plugin), see
+     * {@link CommandRegistry#registerAll(Collection)}<br>
+     * Replaces commands which are already registered
+     *
+     * @param commands Non-null collection of non-null commands to register
+     *
+     * @throws IllegalArgumentException If a name or an alias collides with a name or an alias of another command, none
+     *                                  of the commands is registered then
+     */
+    public void registerCommands(@NotNull @NonNull Collection<? extends BaseCommand> commands) {
+        commandRegistry.registerAll(commands);
+    }
+
+    /**
+     * Registers the default help command
+     */
+    public void registerDefaultHelpCommand() {
+        registerCommand(new HelpCommand());
+    }
+
+    /**
+     * Registers the default stats command<br>
+     * The stats command requires {@link dev.mayuna.consoleparallax.impl.HistogramCommandMetrics} to be set via
+     * {@link Builder#setCommandMetrics(CommandMetrics)}
+     */
+    public void registerDefaultStatsCommand() {
+        registerCommand(new StatsCommand());
+    }
+
+    /**
+     * Unregisters a command
+     *
+     * @param command Non-null command to unregister
+     *
+     * @return {@code true} if the command was successfully unregistered, {@code false} otherwise
+     */
+    public boolean unregisterCommand(@NotNull @NonNull BaseCommand command) {
+        return commandRegistry.unregister(command);
+    }
+
+    /**
+     * Unregisters a command by name
+     *
+     * @param commandName Non-null command name
+     *
+     * @return {@code true} if the command was successfully unregistered, {@code false} otherwise
+     */
+    public boolean unregisterCommand(@NotNull @NonNull String commandName) {
+        return commandRegistry.unregister(commandName);
+    }
+
+    /**
+     * Unregisters multiple commands at once, see {@link CommandRegistry#unregisterAll(Collection)}
+     *
+     * @param commands Non-null collection of non-null commands to unregister
+     *
+     * @return Number of unregistered commands
+     */
+    public int unregisterCommands(@NotNull @NonNull Collection<? extends BaseCommand> commands) {
+        return commandRegistry.unregisterAll(commands);
+    }
+
+    /**
+     * Returns a snapshot of registered commands in the registration order
+     *
+     * @return Immutable list of registered commands
+     **/
+    public List<BaseCommand> getRegisteredCommands() {
+        return commandRegistry.getCommands();
+    }
+
+    /**
+     * Returns a command by name
+     *
+     * @param commandName Command name
+     *
+     * @return Command if found, {@link Optional#empty()} otherwise
+     */
+    public Optional<BaseCommand> getCommand(@NotNull @NonNull String commandName) {
+        return commandRegistry.get(commandName);
+    }
+
+    /**
+     * Returns names of registered commands starting with the specified prefix
+     *
+     * @param prefix Non-null prefix (case-insensitive)
+     *
+     * @return Non-null list of command names in alphabetical order
+     */
+    public @NotNull List<String> complete(@NotNull @NonNull String prefix) {
+        return commandRegistry.complete(prefix);
+    }
+
+    /**
+     * Returns names of registered commands similar to the specified (possibly mistyped) command name<br>
+     * The allowed edit distance grows with the length of the name, from 1 up to {@link #MAX_SUGGESTION_DISTANCE}
+     *
+     * @param commandName Non-null command name
+     *
+     * @return Non-null list of at most {@link #MAX_SUGGESTIONS} command names, the most similar first
+     */
+    public @NotNull List<String> suggestCommands(@NotNull @NonNull String commandName) {
+        int maxDistance = Math.max(1, Math.min(MAX_SUGGESTION_DISTANCE, commandName.length() / 3));
+        return commandRegistry.suggest(commandName, maxDistance, MAX_SUGGESTIONS);
+    }
+
+    /**
+     * Dispatches a command without going through the input handler<br>
+     * The input is parsed and the command is executed on the command executor, according to the
+     * {@link CommandExecutionMode}. Output of the command is captured in the {@link CommandResult} instead of being
+     * written to the output handler.
+     *
+     * @param input Non-null command input
+     *
+     * @return Non-null future completed with the result ({@link CommandResult.Status#FAILED} if the input could not be
+     * parsed), or exceptionally if the command executor rejected the command ({@link RejectedExecutionException})
+     */
+    public @NotNull CompletableFuture<CommandResult> dispatch(@NotNull @NonNull String input) {
+        return submitDispatch(input, null);
+    }
+
+    /**
+     * Dispatches an already parsed command without going through the input handler, see {@link #dispatch(String)}
+     *
+     * @param parseResult Non-null command parse result
+     *
+     * @return Non-null future completed with the result, or exceptionally if the command executor rejected the command
+     * ({@link RejectedExecutionException})
+     */
+    public @NotNull CompletableFuture<CommandResult> dispatch(@NotNull @NonNull CommandParseResult parseResult) {
+        return submitDispatch(null, parseResult);
+    }
+
+    /**
+     * Dispatches multiple commands, see {@link #dispatch(String)}<br>
+     * Each input is submitted to the command executor as its own task, so with a multithreaded executor the inputs are
+     * parsed while preceding commands are being executed. The order of execution is the order of the inputs only if the
+     * command executor executes tasks in order (e.g. the default single-threaded executor).
+     *
+     * @param inputs Non-null list of non-null command inputs
+     *
+     * @return Non-null future completed with the results in the order of the inputs, or exceptionally if any of the
+     * commands could not be dispatched
+     */
+    public @NotNull CompletableFuture<List<CommandResult>> dispatchAll(@NotNull @NonNull List<String> inputs) {
+        for (String input : inputs) {
+            if (input == null) {
+                throw new NullPointerException("inputs contains a null input");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<CommandResult>[] futures = new CompletableFuture[inputs.size()];
+
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = submitDispatch(inputs.get(i), null);
+        }
+
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            List<CommandResult> results = new ArrayList<>(futures.length);
+
+            for (CompletableFuture<CommandResult> future : futures) {
+                results.add(future.join());
+            }
+
+            return results;
+        });
+    }
+
+    /**
+     * Runs a script file, one command per line, and waits until all its commands finish<br>
+     * The file is streamed, not loaded whole (see {@link BatchInputHandler}). Commands are dispatched (see
+     * {@link #dispatch(String)}) one after another, each after the previous one finished. Commands between the lines
+     * <code>parallel {</code> and <code>}</code> are dispatched together and may run concurrently (in
+     * {@link CommandExecutionMode#CONCURRENT} with a multithreaded command executor); the block ends once all of them
+     * finished. A failing command does not stop the script. Must not be called from a command, as it waits for the
+     * command executor.
+     *
+     * @param path Non-null UTF-8 script file
+     *
+     * @return Non-null result of each line and the total wall time
+     *
+     * @throws IOException                If the script could not be read
+     * @throws IllegalArgumentException   If the parallel blocks are nested, not terminated or not started
+     * @throws RejectedExecutionException If the command executor rejected a command
+     */
+    public @NotNull ScriptResult runScript(@NotNull @NonNull Path path) throws IOException {
+        long start = System.nanoTime();
+        List<ScriptResult.Line> lines = new ArrayList<>();
+        List<PendingScriptLine> parallelBlock = null;
+
+        try (BatchInputHandler script = new BatchInputHandler(path)) {
+            String line;
+
+            while ((line = script.nextLine()) != null) {
+                int lineNumber = script.getLineNumber();
+
+                if (BatchInputHandler.isParallelBlockStart(line)) {
+                    if (parallelBlock != null) {
+                        awaitScriptLines(parallelBlock, lines);
+                        throw new IllegalArgumentException(path + ":" + lineNumber + ": Parallel blocks cannot be nested");
+                    }
+
+                    parallelBlock = new ArrayList<>();
+                } else if (BatchInputHandler.isBlockEnd(line)) {
+                    if (parallelBlock == null) {
+                        throw new IllegalArgumentException(path + ":" + lineNumber + ": Unexpected end of a parallel block");
+                    }
+
+                    awaitScriptLines(parallelBlock, lines);
+                    parallelBlock = null;
+                } else if (parallelBlock != null) {
+                    parallelBlock.add(new PendingScriptLine(lineNumber, line, dispatch(line)));
+                } else {
+                    lines.add(new ScriptResult.Line(lineNumber, line, awaitDispatch(dispatch(line))));
+                }
+            }
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+
+        if (parallelBlock != null) {
+            awaitScriptLines(parallelBlock, lines);
+            throw new IllegalArgumentException(path + ": Parallel block is not terminated");
+        }
+
+        return new ScriptResult(lines, System.nanoTime() - start);
+    }
+
+    /**
+     * Waits for the commands of a parallel block and adds their results
+     *
+     * @param pendingLines Lines of the parallel block
+     * @param lines        Results of the script
+     */
+    private static void awaitScriptLines(List<PendingScriptLine> pendingLines, List<ScriptResult.Line> lines) {
+        for (PendingScriptLine pendingLine : pendingLines) {
+            lines.add(new ScriptResult.Line(pendingLine.lineNumber, pendingLine.input, awaitDispatch(pendingLine.future)));
+        }
+    }
+
+    /**
+     * Waits for the result of a dispatched command
+     *
+     * @param future Future returned by {@link #dispatch(String)}
+     *
+     * @return Non-null result
+     *
+     * @throws RejectedExecutionException If the command executor rejected the command
+     */
+    private static CommandResult awaitDispatch(CompletableFuture<CommandResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Submits a dispatched command to the command executor
+     *
+     * @param input       Command input, parsed on the command executor, or null if the parse result is specified
+     * @param parseResult Command parse result, or null if the input is specified
+     *
+     * @return Non-null future completed with the result
+     */
+    private CompletableFuture<CommandResult> submitDispatch(String input, CommandParseResult parseResult) {
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+
+        try {
+            admitCommandTask(() -> {
+                try {
+                    List<CommandParseResult> stages;
+
+                    if (parseResult != null) {
+                        stages = Collections.singletonList(parseResult);
+                    } else {
+                        try {
+                            stages = commandParser.parsePipeline(input);
+                        } catch (IllegalArgumentException exception) {
+                            CapturingOutputHandler output = new CapturingOutputHandler();
+                            output.error(exception.getMessage());
+                            future.complete(new CommandResult(CommandResult.Status.FAILED, input.trim(), output.getMessages(), exception, 0));
+                            return;
+                        }
+                    }
+
+                    future.complete(stages.size() == 1 ? dispatchNow(stages.get(0)) : dispatchPipelineNow(stages));
+                } catch (RuntimeException | Error exception) {
+                    future.completeExceptionally(exception);
+                }
+            }, 1, future::completeExceptionally);
+        } catch (RejectedExecutionException exception) {
+            future.completeExceptionally(exception);
+        }
+
+        return future;
+    }
+
+    /**
+     * Executes a dispatched command on the current thread, capturing its output
+     *
+     * @param parseResult Non-null command parse result
+     *
+     * @return Non-null result
+     */
+    protected @NotNull CommandResult dispatchNow(@NotNull CommandParseResult parseResult) {
+        CapturingOutputHandler output = new CapturingOutputHandler();
+        String commandName = parseResult.getCommandName();
+        long start = System.nanoTime();
+        Optional<BaseCommand> optionalCommand = getCommand(commandName);
+
+        if (!optionalCommand.isPresent()) {
+            commandMetrics.recordCommandNotFound(commandName);
+            output.error(createCommandNotFoundMessage(commandName));
+            return new CommandResult(CommandResult.Status.NOT_FOUND, commandName, output.getMessages(), null, System.nanoTime() - start);
+        }
+
+        CommandInvocationContext context = new CommandInvocationContext(this, parseResult, output);
+        Throwable failure = null;
+
+        try {
+            executeCommand(optionalCommand.get(), context);
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+        }
+
+        CommandResult.Status status;
+
+        if (context.isTimedOut()) {
+            status = CommandResult.Status.TIMED_OUT;
+        } else {
+            status = failure == null ? CommandResult.Status.SUCCESS : CommandResult.Status.FAILED;
+        }
+
+        return new CommandResult(status, commandName, output.getMessages(), failure, System.nanoTime() - start);
+    }
+
+    /**
+     * Executes a dispatched pipeline on the current thread, capturing the output of its last stage and the errors of
+     * all stages
+     *
+     * @param stages Parsed commands of the pipeline stages
+     *
+     * @return Non-null result, named after the commands of the pipeline (e.g. {@code list | count})
+     */
+    private CommandResult dispatchPipelineNow(List<CommandParseResult> stages) {
+        CapturingOutputHandler output = new CapturingOutputHandler();
+        StringBuilder pipelineName = new StringBuilder();
+        long start = System.nanoTime();
+
+        for (CommandParseResult stage : stages) {
+            if (pipelineName.length() > 0) {
+                pipelineName.append(" | ");
+            }
+
+            pipelineName.append(stage.getCommandName());
+        }
+
+        boolean found = false;
+        Throwable failure = null;
+
+        try {
+            found = processPipeline(stages, output);
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+        }
+
+        CommandResult.Status status = failure != null ? CommandResult.Status.FAILED : found ? CommandResult.Status.SUCCESS : CommandResult.Status.NOT_FOUND;
+        return new CommandResult(status, pipelineName.toString(), output.getMessages(), failure, System.nanoTime() - start);
+    }
+
+    /**
+     * Processes a command, writing its output to the output handler<br>
+     * If the invocation output is buffered (see {@link Builder#setBufferInvocationOutput(boolean)}), the output is
+     * written once the command finishes, so it is not interleaved with output of concurrent invocations.
+     *
+     * @param input Command input
+     */
+    protected void processCommand(@NotNull @NonNull String input) {
+        if (!bufferInvocationOutput) {
+            processCommand(input, outputHandler);
+            return;
+        }
+
+        BufferedOutputHandler buffer = new BufferedOutputHandler();
+
+        try {
+            processCommand(input, buffer);
+        } finally {
+            buffer.flushTo(outputHandler);
+        }
+    }
+
+    /**
+     * Processes a command, writing its output to the specified output handler instead of the instance's output
+     * handler<br>
+     * Input which is not a valid pipeline (see {@link CommandParser#parsePipeline(String)}) is reported as an error.
+     *
+     * @param input         Command input
+     * @param outputHandler Output handler of the invocation
+     */
+    protected void processCommand(@NotNull @NonNull String input, @NotNull @NonNull OutputHandler outputHandler) {
+        List<CommandParseResult> stages;
+
+        try {
+            stages = commandParser.parsePipeline(input);
+        } catch (IllegalArgumentException exception) {
+            outputHandler.error(exception.getMessage());
+            return;
+        }
+
+        if (stages.size() > 1) {
+            processPipeline(stages, outputHandler);
+            return;
+        }
+
+        CommandParseResult result = stages.get(0);
+        Optional<BaseCommand> optionalCommand = getCommand(result.getCommandName());
+
+        if (!optionalCommand.isPresent()) {
+            commandMetrics.recordCommandNotFound(result.getCommandName());
+            outputHandler.error(createCommandNotFoundMessage(result.getCommandName()));
+            return;
+        }
+
+        executeCommand(optionalCommand.get(), new CommandInvocationContext(this, result, outputHandler));
+    }
+
+    /**
+     * Processes a pipeline of commands (e.g. {@code list-sessions | filter idle | count}), writing the output of the
+     * last stage and the errors of all stages to the specified output handler<br>
+     * Nothing is executed if any of the commands is not found. See {@link #executePipeline(BaseCommand[], List,
+     * OutputHandler)}.
+     *
+     * @param stages        Non-null parsed commands of the pipeline stages
+     * @param outputHandler Non-null output handler of the pipeline
+     *
+     * @return {@code true} if all commands were found and the pipeline was executed
+     */
+    protected boolean processPipeline(@NotNull List<CommandParseResult> stages, @NotNull OutputHandler outputHandler) {
+        BaseCommand[] commands = new BaseCommand[stages.size()];
+
+        for (int i = 0; i < commands.length; i++) {
+            String commandName = stages.get(i).getCommandName();
+            Optional<BaseCommand> optionalCommand = getCommand(commandName);
+
+            if (!optionalCommand.isPresent()) {
+                commandMetrics.recordCommandNotFound(commandName);
+                outputHandler.error(createCommandNotFoundMessage(commandName));
+                return false;
+            }
+
+            commands[i] = optionalCommand.get();
+        }
+
+        executePipeline(commands, stages, outputHandler);
+        return true;
+    }
 
     /**
-     * Creates a new ConsoleParallax instance
+     * Creates the error message for an unknown command, including suggestions of similar commands
      *
-     * @param inputHandler    Input handler
-     * @param outputHandler   Output handler
-     * @param commandParser   Command parser
-     * @param commandExecutor Command executor
+     * @param commandName Non-null command name
+     *
+     * @return Non-null error message
      */
-    public ConsoleParallax(@NotNull @NonNull InputHandler inputHandler, @NotNull @NonNull OutputHandler outputHandler, @NotNull @NonNull CommandParser commandParser, @NotNull @NonNull Executor commandExecutor) {
-        this.inputHandler = inputHandler;
-        this.outputHandler = outputHandler;
-        this.commandParser = commandParser;
-        this.commandExecutor = commandExecutor;
+    private @NotNull String createCommandNotFoundMessage(@NotNull String commandName) {
+        List<String> suggestions = suggestCommands(commandName);
+
+        if (suggestions.isEmpty()) {
+            return "Command not found: " + commandName;
+        }
+
+        return "Command not found: " + commandName + ". Did you mean: " + String.join(", ", suggestions) + "?";
     }
 
     /**
-     * Creates a {@link ConsoleParallax} Builder with default values
+     * Submits a task to the command executor, tracking it as an in-flight command
      *
-     * @return Builder instance
+     * @param task Non-null task
+     *
+     * @throws RejectedExecutionException If the command executor rejected the task
      */
-    public static Builder builder() {
-        return new Builder();
+    protected void submitCommandTask(@NotNull Runnable task) {
+        inFlightCommands.incrementAndGet();
+        queuedCommands.incrementAndGet();
+
+        try {
+            getCommandExecutor().execute(() -> {
+                queuedCommands.decrementAndGet();
+
+                try {
+                    task.run();
+                } finally {
+                    finishCommandTask();
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            queuedCommands.decrementAndGet();
+            finishCommandTask();
+            throw exception;
+        }
     }
 
     /**
-     * Starts the ConsoleParallax instance
+     * Submits a task to the command executor through the bounded command queue, applying the {@link OverloadPolicy} if
+     * the queue is full<br>
+     * With {@link OverloadPolicy#BLOCK}, the current thread waits for space in the queue. Tasks submitted from a command
+     * should therefore not wait for their result, if the command executor may be saturated.
+     *
+     * @param task         Non-null task
+     * @param commandCount Number of commands the task holds
+     * @param onRejected   Non-null callback called with the cause when the task is rejected or shed by the overload
+     *                     policy
+     *
+     * @throws RejectedExecutionException If the command executor rejected the task or the current thread was
+     *                                    interrupted while waiting for space in the queue
      */
-    public void start() {
-        running = true;
-        commandReader.start();
+    protected void admitCommandTask(@NotNull Runnable task, int commandCount, @NotNull Consumer<RejectedExecutionException> onRejected) {
+        CommandQueue.Entry entry = new CommandQueue.Entry(task, commandCount, onRejected);
+        List<CommandQueue.Entry> rejected;
+
+        inFlightCommands.incrementAndGet();
+
+        try {
+            rejected = commandQueue.offer(entry);
+        } catch (RejectedExecutionException exception) {
+            finishCommandTask();
+            throw exception;
+        }
+
+        if (rejected.isEmpty() || rejected.get(0) != entry) {
+            queuedCommands.incrementAndGet();
+        }
+
+        if (!rejected.isEmpty()) {
+            // Either the entry itself was rejected or it took the place (and the executor task) of the shed entries
+            for (CommandQueue.Entry rejectedEntry : rejected) {
+                if (rejectedEntry != entry) {
+                    queuedCommands.decrementAndGet();
+                }
+
+                finishCommandTask();
+                rejectedEntry.reject(new RejectedExecutionException("Command queue is full (" + commandQueue.getCapacity() + " commands)"));
+            }
+            return;
+        }
+
+        try {
+            getCommandExecutor().execute(this::runQueuedCommandTask);
+        } catch (RejectedExecutionException exception) {
+            CommandQueue.Entry removed = commandQueue.removeOrPollLast(entry);
+
+            if (removed == null) {
+                return; // The entry and all others were run by executor tasks submitted earlier
+            }
+
+            queuedCommands.decrementAndGet();
+            finishCommandTask();
+
+            if (removed == entry) {
+                throw exception;
+            }
+
+            removed.reject(exception); // The entry was run by an executor task submitted earlier
+        }
     }
 
     /**
-     * Interrupts the command reader thread and stops the ConsoleParallax instance
+     * Runs the oldest task of the command queue. Called on the command executor, once per admitted task
      */
-    public void interrupt() {
-        running = false;
-        commandReader.interrupt();
+    private void runQueuedCommandTask() {
+        CommandQueue.Entry entry = commandQueue.poll();
+
+        if (entry == null) {
+            return; // Shed or removed
+        }
+
+        queuedCommands.decrementAndGet();
+
+        try {
+            entry.getTask().run();
+        } finally {
+            finishCommandTask();
+        }
     }
 
     /**
-     * Registers a command<br>
-     * Replaces the command if it is already registered
-     *
-     * @param command Non-null command to register
-     *
-     * @return {@code true} if the command was successfully registered, {@code false} otherwise
+     * Marks an in-flight command as finished and wakes up threads waiting for termination
      */
-    public boolean registerCommand(@NotNull @NonNull BaseCommand command) {
-        synchronized (mutex) {
-            registeredCommands.removeIf(c -> c.getName().equalsIgnoreCase(command.getName()));
-            return registeredCommands.add(command);
+    private void finishCommandTask() {
+        if (inFlightCommands.decrementAndGet() == 0) {
+            synchronized (lifecycleMutex) {
+                lifecycleMutex.notifyAll();
+            }
         }
     }
 
     /**
-     * Registers the default help command
+     * Processes multiple inputs in order<br>
+     * Exception thrown by one command is passed to the current thread's uncaught exception handler, and the rest of the
+     * inputs is still processed
+     *
+     * @param inputs Inputs to process
      */
-    public void registerDefaultHelpCommand() {
-        registerCommand(new HelpCommand());
+    protected void processCommands(@NotNull List<String> inputs) {
+        for (String input : inputs) {
+            if (input == null || input.isEmpty()) {
+                continue;
+            }
+
+            try {
+                processCommand(input);
+            } catch (RuntimeException | Error exception) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+            }
+        }
     }
 
     /**
-     * Unregisters a command
-     *
-     * @param command Non-null command to unregister
+     * Executes a command according to the {@link CommandExecutionMode}
      *
-     * @return {@code true} if the command was successfully unregistered, {@code false} otherwise
+     * @param command Non-null command to execute
+     * @param context Non-null command invocation context
      */
-    public boolean unregisterCommand(@NotNull @NonNull BaseCommand command) {
-        synchronized (mutex) {
-            return registeredCommands.remove(command);
+    protected void executeCommand(@NotNull BaseCommand command, @NotNull CommandInvocationContext context) {
+        if (executionMode == CommandExecutionMode.SYNCHRONIZED) {
+            executionLock.lock();
+
+            try {
+                invokeCommand(command, context);
+            } finally {
+                executionLock.unlock();
+            }
+            return;
+        }
+
+        String serializationKey = command.getSerializationKey();
+
+        if (serializationKey == null) {
+            invokeCommand(command, context);
+            return;
+        }
+
+        Lock lock = serializationLocks.computeIfAbsent(serializationKey, key -> new ReentrantLock());
+        lock.lock();
+
+        try {
+            invokeCommand(command, context);
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Unregisters a command by name
+     * Executes a pipeline according to the {@link CommandExecutionMode}<br>
+     * The stages are connected by {@link PipeChannel}s and run concurrently: the last stage on the current thread, the
+     * others on the pipeline stage threads of the instance, which are separate from the command executor, so a stage
+     * waiting for the next one never occupies a thread the next one needs. At most {@link #MAX_PIPELINE_STAGE_THREADS}
+     * upstream stages run at once, a pipeline needing more is rejected instead of waiting for a thread, and the threads
+     * are shut down by {@link #stop(long, TimeUnit)}. Locks are acquired once for the whole pipeline, the
+     * execution lock in {@link CommandExecutionMode#SYNCHRONIZED} mode or the serialization locks of all stages (in a
+     * consistent order) in {@link CommandExecutionMode#CONCURRENT} mode.<br>
+     * If any stage throws an exception, it is rethrown once all stages finish.
      *
-     * @param commandName Non-null command name
+     * @param commands      Non-null commands of the pipeline stages
+     * @param stages        Non-null parsed commands of the pipeline stages
+     * @param outputHandler Non-null output handler of the pipeline
      *
-     * @return {@code true} if the command was successfully unregistered, {@code false} otherwise
+     * @throws RejectedExecutionException If there are no pipeline stage threads left or the instance is stopped
      */
-    public boolean unregisterCommand(@NotNull @NonNull String commandName) {
-        synchronized (mutex) {
-            return registeredCommands.removeIf(c -> c.getName().equalsIgnoreCase(commandName));
+    protected void executePipeline(@NotNull BaseCommand[] commands, @NotNull List<CommandParseResult> stages, @NotNull OutputHandler outputHandler) {
+        if (executionMode == CommandExecutionMode.SYNCHRONIZED) {
+            executionLock.lock();
+
+            try {
+                runPipeline(commands, stages, outputHandler);
+            } finally {
+                executionLock.unlock();
+            }
+            return;
+        }
+
+        TreeSet<String> serializationKeys = new TreeSet<>();
+
+        for (BaseCommand command : commands) {
+            String serializationKey = command.getSerializationKey();
+
+            if (serializationKey != null) {
+                serializationKeys.add(serializationKey);
+            }
+        }
+
+        List<Lock> locks = new ArrayList<>(serializationKeys.size());
+
+        try {
+            for (String serializationKey : serializationKeys) {
+                Lock lock = serializationLocks.computeIfAbsent(serializationKey, key -> new ReentrantLock());
+                lock.lock();
+                locks.add(lock);
+            }
+
+            runPipeline(commands, stages, outputHandler);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
         }
     }
 
     /**
-     * Returns a list of registered commands
+     * Runs the stages of a pipeline, with the execution or serialization locks already held
      *
-     * @return Unmodifiable list of registered commands
-     **/
-    public List<BaseCommand> getRegisteredCommands() {
-        return Collections.unmodifiableList(registeredCommands);
+     * @param commands      Commands of the pipeline stages
+     * @param stages        Parsed commands of the pipeline stages
+     * @param outputHandler Output handler of the pipeline
+     */
+    private void runPipeline(BaseCommand[] commands, List<CommandParseResult> stages, OutputHandler outputHandler) {
+        int lastStage = commands.length - 1;
+        List<CompletableFuture<Void>> upstreamStages = new ArrayList<>(lastStage);
+        PipeChannel input = null;
+        Throwable failure = null;
+
+        try {
+            for (int i = 0; i < lastStage; i++) {
+                BaseCommand command = commands[i];
+                PipeChannel stageInput = input;
+                PipeChannel stageOutput = new PipeChannel(PIPE_CAPACITY, outputHandler);
+                CommandInvocationContext context = new CommandInvocationContext(this, stages.get(i), stageOutput, null, stageInput);
+                stageOutput.setReaderCloseListener(context::cancel);
+
+                upstreamStages.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        invokeCommand(command, context);
+                    } finally {
+                        stageOutput.closeWriter();
+
+                        if (stageInput != null) {
+                            stageInput.closeReader();
+                        }
+                    }
+                }, getPipelineStageExecutor()));
+
+                input = stageOutput;
+            }
+
+            invokeCommand(commands[lastStage], new CommandInvocationContext(this, stages.get(lastStage), outputHandler, null, input));
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+        } finally {
+            if (input != null) {
+                input.closeReader();
+            }
+        }
+
+        for (CompletableFuture<Void> upstreamStage : upstreamStages) {
+            try {
+                upstreamStage.join();
+            } catch (CompletionException exception) {
+                if (failure == null) {
+                    failure = exception.getCause();
+                }
+            }
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        if (failure != null) {
+            throw new CompletionException(failure);
+        }
     }
 
     /**
-     * Returns a command by name
-     *
-     * @param commandName Command name
+     * Invokes the command, supervising its timeout (see {@link BaseCommand#getTimeout()})<br>
+     * When the command exceeds its timeout, the invocation is cancelled and the executing thread is interrupted. That is
+     * all the shared {@link TimeoutWheel} thread does, so a slow output handler cannot delay other timeouts. Once the
+     * command returns, the interrupt is cleared, so it does not affect the next task of the thread, and the timeout is
+     * reported on the executing thread to the invocation's output handler and to {@link CommandMetrics} (see
+     * {@link CommandInvocationContext#isTimedOut()}).
      *
-     * @return Command if found, {@link Optional#empty()} otherwise
+     * @param command Non-null command to invoke
+     * @param context Non-null command invocation context
      */
-    public Optional<BaseCommand> getCommand(@NotNull @NonNull String commandName) {
-        synchronized (mutex) {
-            return registeredCommands.stream()
-                                     .filter(command -> command.getName().equalsIgnoreCase(commandName))
-                                     .findFirst();
+    protected void invokeCommand(@NotNull BaseCommand command, @NotNull CommandInvocationContext context) {
+        long timeoutNanos = getTimeoutNanos(command);
+
+        if (timeoutNanos <= 0) {
+            invokeCommandMeasured(command, context);
+            return;
+        }
+
+        Thread thread = Thread.currentThread();
+        TimeoutWheel.Timeout timeout = TimeoutWheel.SHARED.schedule(timeoutNanos, () -> {
+            context.cancel();
+            thread.interrupt();
+        });
+
+        try {
+            invokeCommandMeasured(command, context);
+        } finally {
+            if (!timeout.cancel()) {
+                Thread.interrupted(); // Clears the interrupt of the timeout
+                context.markTimedOut();
+                timedOutCommands.incrementAndGet();
+                commandMetrics.recordCommandTimedOut(command, timeoutNanos);
+                context.getOutputHandler().error("Command timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms: " + command.getName());
+            }
         }
     }
 
     /**
-     * Processes a command
+     * Returns the timeout of the command
      *
-     * @param input Command input
+     * @param command Non-null command
+     *
+     * @return Timeout in nanoseconds, zero or negative if the command has no timeout
      */
-    protected void processCommand(@NotNull @NonNull String input) {
-        CommandParseResult result = commandParser.parseCommand(input);
+    private long getTimeoutNanos(BaseCommand command) {
+        Duration timeout = command.getTimeout();
+
+        if (timeout == null) {
+            timeout = defaultCommandTimeout;
+        }
 
-        synchronized (mutex) {
-            Optional<BaseCommand> optionalCommand = getCommand(result.getCommandName());
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return 0;
+        }
 
-            if (!optionalCommand.isPresent()) {
-                outputHandler.error("Command not found: " + result.getCommandName());
-                return;
-            }
+        try {
+            return timeout.toNanos();
+        } catch (ArithmeticException exception) {
+            return 0; // Hundreds of years, no timeout in practice
+        }
+    }
 
-            BaseCommand command = optionalCommand.get();
-            command.execute(new CommandInvocationContext(this, result));
+    /**
+     * Invokes the command, recording its execution in {@link CommandMetrics} if they are enabled
+     *
+     * @param command Non-null command to invoke
+     * @param context Non-null command invocation context
+     */
+    private void invokeCommandMeasured(BaseCommand command, CommandInvocationContext context) {
+        if (!commandMetrics.isEnabled()) {
+            command.execute(context);
+            return;
         }
 
+        long start = System.nanoTime();
+        Throwable failure = null;
+
+        try {
+            command.execute(context);
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            commandMetrics.recordCommandExecuted(command, System.nanoTime() - start, failure);
+        }
     }
 
+
     /**
-     * Creates a new thread for reading commands
+     * Creates a new thread for reading commands<br>
+     * The thread stops when the instance is interrupted or when the input handler reaches the end of stream. If the input
+     * handler returns no input without blocking, the thread parks with an exponential backoff instead of spinning.<br>
+     * Inputs already available in the input handler ({@link InputHandler#drainTo(List, int)}) are submitted to the
+     * command executor together as a single task.<br>
+     * Only one command reader reads from the input handler at a time, see {@link #readNextInputs(int)}.
      *
      * @return Command reader thread
      */
     protected Thread createCommandReaderThread() {
         return new Thread(() -> {
             Thread.currentThread().setName("ConsoleParallax Command Reader");
+            long idleParkNanos = MIN_IDLE_PARK_NANOS;
+
+            while (running && commandReader == Thread.currentThread()) {
+                long pollStart = System.nanoTime();
+                int maxBatchSize = Math.max(1, Math.min(MAX_INPUT_BATCH_SIZE, commandQueue.getCapacity()));
+                List<String> inputs;
+
+                try {
+                    inputs = readNextInputs(maxBatchSize);
+                } catch (InterruptedException ignored) {
+                    break;
+                }
+
+                if (inputs.isEmpty()) {
+                    if (inputHandler.isEndOfStream()) {
+                        break;
+                    }
 
-            while (running) {
-                String input = inputHandler.getNextInput();
+                    long blockedNanos = System.nanoTime() - pollStart;
+
+                    if (blockedNanos < idleParkNanos) {
+                        LockSupport.parkNanos(idleParkNanos - blockedNanos);
+                        idleParkNanos = Math.min(idleParkNanos * 2, MAX_IDLE_PARK_NANOS);
+                    }
 
-                if (input == null || input.isEmpty()) {
                     continue;
                 }
 
-                commandExecutor.execute(() -> processCommand(input));
+                idleParkNanos = MIN_IDLE_PARK_NANOS;
+
+                try {
+                    if (inputs.size() == 1) {
+                        String input = inputs.get(0);
+                        admitCommandTask(() -> processCommand(input), 1, exception -> outputHandler.error("Command rejected, command queue is full: " + input));
+                    } else {
+                        admitCommandTask(() -> processCommands(inputs), inputs.size(), exception -> outputHandler.error(inputs.size() + " commands rejected, command queue is full"));
+                    }
+                } catch (RejectedExecutionException ignored) {
+                    break; // Command executor was shut down
+                }
+            }
+
+            synchronized (lifecycleMutex) {
+                if (commandReader == Thread.currentThread()) {
+                    running = false;
+                    lifecycleMutex.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the next input on the current command reader thread, together with inputs already available in the input
+     * handler<br>
+     * A command reader replaced by {@link #start()} after {@link #stop(long, TimeUnit)} may still be blocked in a
+     * blocking input handler (e.g. {@link dev.mayuna.consoleparallax.impl.ConsoleInputHandler}), which is not
+     * interruptible. Readers therefore hold {@link #inputLock} while reading and draining, so the input handler is
+     * never called concurrently. If the replaced reader receives inputs, it does not process them, but hands them off
+     * to the current command reader, or to the next one if the instance is not running.
+     *
+     * @param maxInputs Maximum number of inputs to return, at least one
+     *
+     * @return Inputs in the order they were read, empty if there is no input or the current thread is no longer the
+     * command reader
+     *
+     * @throws InterruptedException If the current thread was interrupted while waiting
+     */
+    protected @NotNull List<String> readNextInputs(int maxInputs) throws InterruptedException {
+        inputLock.lockInterruptibly();
+
+        try {
+            List<String> inputs = new ArrayList<>();
+
+            if (!handedOffInputs.isEmpty()) {
+                List<String> handedOff = handedOffInputs.subList(0, Math.min(maxInputs, handedOffInputs.size()));
+                inputs.addAll(handedOff);
+                handedOff.clear();
+            } else {
+                String input = inputHandler.getNextInput(INPUT_POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (input != null && !input.isEmpty()) {
+                    inputs.add(input);
+
+                    if (maxInputs > 1) {
+                        inputHandler.drainTo(inputs, maxInputs - 1);
+                    }
+                }
+            }
+
+            if (!inputs.isEmpty() && (!running || commandReader != Thread.currentThread())) {
+                handedOffInputs.addAll(0, inputs);
+                inputs.clear();
             }
+
+            return inputs;
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /**
+     * Creates the default command executor, used when no executor is specified in the {@link Builder}
+     *
+     * @return Single-threaded executor service
+     */
+    protected static ExecutorService createDefaultCommandExecutor() {
+        ThreadFactory threadFactory = runnable -> new Thread(runnable, "ConsoleParallax Command Executor");
+        return Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * Creates the executor running the upstream stages of pipelines<br>
+     * Threads are created on demand, up to {@link #MAX_PIPELINE_STAGE_THREADS}, and terminate when idle. A stage is
+     * never queued, since it may be the one the stages already running wait for, so it is rejected if all threads are
+     * busy.
+     *
+     * @return Non-null executor service
+     */
+    private static ExecutorService createPipelineStageExecutor() {
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ConsoleParallax Pipeline Stage");
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(0, MAX_PIPELINE_STAGE_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory, (runnable, executor) -> {
+            throw new RejectedExecutionException(executor.isShutdown() ? "ConsoleParallax is stopped" : "Too many pipeline stages are running (" + MAX_PIPELINE_STAGE_THREADS + ")");
         });
     }
 
+    /**
+     * Line of a parallel block whose command was dispatched
+     */
+    private static final class PendingScriptLine {
+
+        private final int lineNumber;
+        private final String input;
+        private final CompletableFuture<CommandResult> future;
+
+        private PendingScriptLine(int lineNumber, String input, CompletableFuture<CommandResult> future) {
+            this.lineNumber = lineNumber;
+            this.input = input;
+            this.future = future;
+        }
+    }
+
     /**
      * Builder for {@link ConsoleParallax}
      */
@@ -194,8 +1439,15 @@ public class ConsoleParallax {
 
         protected InputHandler inputHandler = new ConsoleInputHandler();
         protected OutputHandler outputHandler = new ConsoleOutputHandler();
-        protected Executor commandExecutor = Executors.newSingleThreadExecutor();
+        protected Executor commandExecutor;
+        protected Supplier<ExecutorService> commandExecutorFactory = ConsoleParallax::createDefaultCommandExecutor;
         protected CommandParser commandParser = new SimpleCommandParser();
+        protected CommandExecutionMode executionMode = CommandExecutionMode.SYNCHRONIZED;
+        protected CommandMetrics commandMetrics = CommandMetrics.NOOP;
+        protected boolean bufferInvocationOutput;
+        protected int commandQueueCapacity = DEFAULT_COMMAND_QUEUE_CAPACITY;
+        protected OverloadPolicy overloadPolicy = OverloadPolicy.BLOCK;
+        protected Duration defaultCommandTimeout;
 
         /**
          * Creates a new Builder instance with default values
@@ -228,7 +1480,9 @@ public class ConsoleParallax {
         }
 
         /**
-         * Sets the command executor
+         * Sets the command executor<br>
+         * The executor is not shut down by {@link ConsoleParallax#stop(long, TimeUnit)}, when not set, a single-threaded
+         * executor owned by the {@link ConsoleParallax} instance is used
          *
          * @param commandExecutor Command executor
          *
@@ -236,6 +1490,27 @@ public class ConsoleParallax {
          */
         public Builder setCommandExecutor(@NotNull @NonNull Executor commandExecutor) {
             this.commandExecutor = commandExecutor;
+            this.commandExecutorFactory = null;
+            return this;
+        }
+
+        /**
+         * Executes each command invocation on its own virtual thread, in {@link CommandExecutionMode#CONCURRENT}
+         * mode<br>
+         * The virtual thread executor is owned by the {@link ConsoleParallax} instance. Requires Java 21 or newer.
+         *
+         * @return Builder instance
+         *
+         * @throws UnsupportedOperationException If the current runtime does not support virtual threads
+         */
+        public Builder useVirtualThreads() {
+            if (!VirtualThreads.isSupported()) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or newer (running on " + System.getProperty("java.version") + ")");
+            }
+
+            this.commandExecutor = null;
+            this.commandExecutorFactory = VirtualThreads::newVirtualThreadPerTaskExecutor;
+            this.executionMode = CommandExecutionMode.CONCURRENT;
             return this;
         }
 
@@ -251,13 +1526,107 @@ public class ConsoleParallax {
             return this;
         }
 
+        /**
+         * Sets the command execution mode
+         *
+         * @param executionMode Command execution mode
+         *
+         * @return Builder instance
+         */
+        public Builder setExecutionMode(@NotNull @NonNull CommandExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        /**
+         * Sets the command metrics, {@link CommandMetrics#NOOP} by default
+         *
+         * @param commandMetrics Command metrics
+         *
+         * @return Builder instance
+         */
+        public Builder setCommandMetrics(@NotNull @NonNull CommandMetrics commandMetrics) {
+            this.commandMetrics = commandMetrics;
+            return this;
+        }
+
+        /**
+         * Sets whether the output of each command invocation is buffered and written to the output handler at once when
+         * the command finishes, disabled by default<br>
+         * Consecutive messages of the same type are written as one multi-line message. Useful with
+         * {@link CommandExecutionMode#CONCURRENT}, where output of concurrent invocations would be interleaved otherwise.
+         *
+         * @param bufferInvocationOutput Whether the invocation output is buffered
+         *
+         * @return Builder instance
+         */
+        public Builder setBufferInvocationOutput(boolean bufferInvocationOutput) {
+            this.bufferInvocationOutput = bufferInvocationOutput;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of commands read by the command reader or dispatched (see
+         * {@link ConsoleParallax#dispatch(String)}) which may wait for the command executor, 10 000 by default<br>
+         * When the queue is full, the {@link OverloadPolicy} is applied.
+         *
+         * @param commandQueueCapacity Positive capacity
+         *
+         * @return Builder instance
+         *
+         * @throws IllegalArgumentException If the capacity is not positive
+         */
+        public Builder setCommandQueueCapacity(int commandQueueCapacity) {
+            if (commandQueueCapacity <= 0) {
+                throw new IllegalArgumentException("Command queue capacity must be positive");
+            }
+
+            this.commandQueueCapacity = commandQueueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the policy applied when a command is submitted while the command queue is full,
+         * {@link OverloadPolicy#BLOCK} by default
+         *
+         * @param overloadPolicy Overload policy
+         *
+         * @return Builder instance
+         */
+        public Builder setOverloadPolicy(@NotNull @NonNull OverloadPolicy overloadPolicy) {
+            this.overloadPolicy = overloadPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the timeout of commands which do not specify their own (see {@link BaseCommand#getTimeout()}), no
+         * timeout by default
+         *
+         * @param defaultCommandTimeout Nullable timeout, null, zero or negative for no timeout
+         *
+         * @return Builder instance
+         */
+        public Builder setDefaultCommandTimeout(@Nullable Duration defaultCommandTimeout) {
+            this.defaultCommandTimeout = defaultCommandTimeout;
+            return this;
+        }
+
         /**
          * Builds a new instance of {@link ConsoleParallax}
          *
          * @return ConsoleParallax instance
          */
         public ConsoleParallax build() {
-            return new ConsoleParallax(inputHandler, outputHandler, commandParser, commandExecutor);
+            Executor executor = commandExecutorFactory != null ? commandExecutorFactory.get() : commandExecutor;
+
+            ConsoleParallax consoleParallax = new ConsoleParallax(inputHandler, outputHandler, commandParser, executor);
+            consoleParallax.executionMode = executionMode;
+            consoleParallax.commandMetrics = commandMetrics;
+            consoleParallax.bufferInvocationOutput = bufferInvocationOutput;
+            consoleParallax.defaultCommandTimeout = defaultCommandTimeout;
+            consoleParallax.commandQueue = new CommandQueue(commandQueueCapacity, overloadPolicy);
+            consoleParallax.commandExecutorFactory = commandExecutorFactory;
+            return consoleParallax;
         }
     }
 }
@@ -1,6 +1,10 @@
 package dev.mayuna.consoleparallax;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Interface for handling arbitrary string input.
@@ -11,7 +15,49 @@ public interface InputHandler {
      * Returns next input to be processed.<br>
      * Should block until input is available.
      *
-     * @return String of next input
+     * @return String of next input, may be {@code null} if no input is available (e.g., the end of stream was reached)
      */
     String getNextInput();
+
+    /**
+     * Returns next input to be processed, waiting at most the specified time.<br>
+     * Default implementation ignores the timeout and calls {@link #getNextInput()}.
+     *
+     * @param timeout Maximum time to wait
+     * @param unit    Non-null unit of the timeout
+     *
+     * @return String of next input, {@code null} if no input was available within the timeout or the end of stream was
+     * reached
+     *
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    @Nullable
+    default String getNextInput(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return getNextInput();
+    }
+
+    /**
+     * Drains inputs which are already available, without blocking.<br>
+     * The command reader thread calls this method after it receives an input, so it can process the whole batch as a
+     * single task. Default implementation drains nothing, so the command reader falls back to one
+     * {@link #getNextInput(long, TimeUnit)} call per input.
+     *
+     * @param inputs    Non-null list to which the inputs should be added, in order
+     * @param maxInputs Maximum number of inputs to drain
+     *
+     * @return Number of drained inputs
+     */
+    default int drainTo(@NotNull List<String> inputs, int maxInputs) {
+        return 0;
+    }
+
+    /**
+     * Determines if the input has reached its end, and no more input will ever be available.<br>
+     * Command reader thread stops when this method returns {@code true}.
+     *
+     * @return {@code true} if the end of stream was reached, {@code false} otherwise
+     */
+    default boolean isEndOfStream() {
+        return false;
+    }
 }
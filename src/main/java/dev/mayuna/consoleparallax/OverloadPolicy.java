@@ -0,0 +1,24 @@
+package dev.mayuna.consoleparallax;
+
+/**
+ * Specifies what {@link ConsoleParallax} does when a command is submitted while its command queue is full
+ */
+public enum OverloadPolicy {
+
+    /**
+     * The submitting thread (e.g. the command reader) waits until there is space in the command queue<br>
+     * This is the default policy
+     */
+    BLOCK,
+
+    /**
+     * The submitted command is rejected and an error is written to the output handler
+     */
+    REJECT,
+
+    /**
+     * The oldest queued command is dropped to make space for the submitted command and an error is written to the
+     * output handler
+     */
+    SHED_OLDEST
+}
@@ -0,0 +1,206 @@
+package dev.mayuna.consoleparallax;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded channel between two stages of a command pipeline (e.g. {@code list-sessions | filter idle | count})<br>
+ * The upstream stage writes to the channel as its {@link OutputHandler}: {@link #info(String)} enqueues a record,
+ * waiting while the channel is full, and {@link #error(String)} bypasses the pipeline and is written to the pipeline's
+ * output handler. The downstream stage reads the records from {@link CommandInvocationContext#getPipeInput()}, either
+ * with {@link #read()} or by iterating the channel, while the upstream stage is still running, so the output is never
+ * buffered fully in memory.<br>
+ * Once the downstream stage finishes, further records are discarded and the upstream stage's invocation is cancelled
+ * (see {@link CommandInvocationContext#isCancelled()}).
+ */
+public final class PipeChannel implements OutputHandler, Iterable<String> {
+
+    private final int capacity;
+    private final OutputHandler errorOutputHandler;
+    private final ArrayDeque<String> records;
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private boolean writerClosed;
+    private boolean readerClosed;
+    private Runnable readerCloseListener;
+
+    /**
+     * Creates a new PipeChannel
+     *
+     * @param capacity           Maximum number of records waiting for the downstream stage
+     * @param errorOutputHandler Output handler of the pipeline, errors are written to
+     */
+    PipeChannel(int capacity, OutputHandler errorOutputHandler) {
+        this.capacity = capacity;
+        this.errorOutputHandler = errorOutputHandler;
+        this.records = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    /**
+     * Enqueues a record for the downstream stage, waiting while the channel is full<br>
+     * The record is discarded if the downstream stage already finished or the current thread is interrupted (e.g.
+     * because the upstream stage exceeded its timeout).
+     *
+     * @param message Record
+     */
+    @Override
+    public void info(@NotNull String message) {
+        lock.lock();
+
+        try {
+            while (records.size() >= capacity && !readerClosed) {
+                notFull.await();
+            }
+
+            if (readerClosed) {
+                return;
+            }
+
+            records.addLast(message);
+            notEmpty.signal();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the error to the pipeline's output handler, errors are not passed to the downstream stage
+     *
+     * @param message Message to print
+     */
+    @Override
+    public void error(@NotNull String message) {
+        errorOutputHandler.error(message);
+    }
+
+    /**
+     * Reads the next record, waiting until the upstream stage writes one or finishes
+     *
+     * @return Record, or null if the upstream stage finished and all records were read
+     *
+     * @throws InterruptedException If the current thread was interrupted while waiting
+     */
+    public @Nullable String read() throws InterruptedException {
+        lock.lock();
+
+        try {
+            while (records.isEmpty() && !writerClosed) {
+                notEmpty.await();
+            }
+
+            String record = records.pollFirst();
+
+            if (record != null) {
+                notFull.signal();
+            }
+
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator reading the records, see {@link #read()}<br>
+     * The iteration ends when the upstream stage finishes or the current thread is interrupted, in which case the
+     * interrupt status is preserved.
+     *
+     * @return Non-null iterator
+     */
+    @Override
+    public @NotNull Iterator<String> iterator() {
+        return new Iterator<String>() {
+
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = read();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                String record = next;
+                next = null;
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Returns the maximum number of records waiting for the downstream stage
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the listener called once the downstream stage finishes
+     *
+     * @param readerCloseListener Listener
+     */
+    void setReaderCloseListener(Runnable readerCloseListener) {
+        this.readerCloseListener = readerCloseListener;
+    }
+
+    /**
+     * Marks the end of the records. Called once the upstream stage finishes
+     */
+    void closeWriter() {
+        lock.lock();
+
+        try {
+            writerClosed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the waiting records and any further records. Called once the downstream stage finishes
+     */
+    void closeReader() {
+        lock.lock();
+
+        try {
+            if (readerClosed) {
+                return;
+            }
+
+            readerClosed = true;
+            records.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (readerCloseListener != null) {
+            readerCloseListener.run();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.mayuna.consoleparallax;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a script run by {@link ConsoleParallax#runScript(java.nio.file.Path)}, holding the result of each line
+ */
+@Getter
+public final class ScriptResult {
+
+    private final List<Line> lines;
+    private final long wallTimeNanos;
+
+    ScriptResult(List<Line> lines, long wallTimeNanos) {
+        this.lines = Collections.unmodifiableList(lines);
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    /**
+     * Determines if all commands of the script succeeded
+     *
+     * @return {@code true} if every line has a successful result
+     */
+    public boolean isSuccess() {
+        for (Line line : lines) {
+            if (!line.getResult().isSuccess()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the lines whose command was not found or failed
+     *
+     * @return Non-null list of unsuccessful lines, in the order of the script
+     */
+    public @NotNull List<Line> getFailedLines() {
+        List<Line> failedLines = new ArrayList<>();
+
+        for (Line line : lines) {
+            if (!line.getResult().isSuccess()) {
+                failedLines.add(line);
+            }
+        }
+
+        return failedLines;
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptResult{lines=" + lines.size() + ", failed=" + getFailedLines().size() + ", wallTimeNanos=" + wallTimeNanos + "}";
+    }
+
+    /**
+     * Result of a single line of the script
+     */
+    @Getter
+    public static final class Line {
+
+        private final int lineNumber;
+        private final String input;
+        private final CommandResult result;
+
+        Line(int lineNumber, String input, CommandResult result) {
+            this.lineNumber = lineNumber;
+            this.input = input;
+            this.result = result;
+        }
+
+        @Override
+        public String toString() {
+            return lineNumber + ": " + input + " -> " + result.getStatus();
+        }
+    }
+}
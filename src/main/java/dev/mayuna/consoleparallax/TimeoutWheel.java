@@ -0,0 +1,254 @@
+package dev.mayuna.consoleparallax;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel supervising command timeouts<br>
+ * A single daemon thread advances the wheel every tick and runs the tasks of expired timeouts. Scheduling and
+ * cancelling a timeout is O(1) and does not wake the thread up unless it is idle. When no timeouts are scheduled for a
+ * while, the thread exits and it is started again by the next {@link #schedule(long, Runnable)}.
+ */
+final class TimeoutWheel {
+
+    /**
+     * Wheel shared by all {@link ConsoleParallax} instances
+     */
+    static final TimeoutWheel SHARED = new TimeoutWheel(TimeUnit.MILLISECONDS.toNanos(10), 512);
+
+    private static final long IDLE_EXIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_DELAY_NANOS = TimeUnit.DAYS.toNanos(365 * 100); // Prevents overflow of the deadline
+
+    private final long tickNanos;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean workerRunning = new AtomicBoolean();
+    private volatile Thread worker;
+
+    // Accessed only by the worker thread
+    private final Timeout[] buckets;
+    private long tick;
+    private int scheduled;
+
+    /**
+     * Creates a new TimeoutWheel
+     *
+     * @param tickNanos   Duration of one tick in nanoseconds, timeouts expire at most one tick late
+     * @param bucketCount Number of buckets, power of two
+     */
+    TimeoutWheel(long tickNanos, int bucketCount) {
+        this.tickNanos = tickNanos;
+        this.mask = bucketCount - 1;
+        this.buckets = new Timeout[bucketCount];
+    }
+
+    /**
+     * Schedules a task to be run by the wheel's thread after the delay, unless the timeout is cancelled before
+     *
+     * @param delayNanos Delay in nanoseconds
+     * @param task       Task, should be short
+     *
+     * @return Timeout handle
+     */
+    Timeout schedule(long delayNanos, Runnable task) {
+        Timeout timeout = new Timeout(System.nanoTime() + Math.min(delayNanos, MAX_DELAY_NANOS), task);
+        pending.add(timeout);
+
+        if (workerRunning.compareAndSet(false, true)) {
+            startWorker();
+        } else {
+            Thread currentWorker = worker;
+
+            if (currentWorker != null) {
+                LockSupport.unpark(currentWorker); // Worker may be parked without any scheduled timeout
+            }
+        }
+
+        return timeout;
+    }
+
+    /**
+     * Starts a new worker thread
+     */
+    private void startWorker() {
+        Thread thread = new Thread(this::runWorker, "ConsoleParallax Timeout Wheel");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * Worker thread loop
+     */
+    private void runWorker() {
+        long idleSince = -1;
+
+        while (true) {
+            transferPending();
+
+            if (scheduled == 0) {
+                long now = System.nanoTime();
+
+                if (idleSince == -1) {
+                    idleSince = now;
+                } else if (now - idleSince >= IDLE_EXIT_NANOS) {
+                    workerRunning.set(false);
+
+                    // A timeout may have been scheduled before the flag was cleared
+                    if (pending.isEmpty() || !workerRunning.compareAndSet(false, true)) {
+                        return;
+                    }
+
+                    idleSince = -1;
+                    continue;
+                }
+
+                LockSupport.parkNanos(this, IDLE_EXIT_NANOS);
+                continue;
+            }
+
+            idleSince = -1;
+            long tickDeadline = startNanos + (tick + 1) * tickNanos;
+            long now = System.nanoTime();
+
+            if (now < tickDeadline) {
+                LockSupport.parkNanos(this, tickDeadline - now);
+                continue; // Transfers timeouts scheduled in the meantime first
+            }
+
+            expireBucket((int) (tick & mask));
+            tick++;
+        }
+    }
+
+    /**
+     * Moves scheduled timeouts into their buckets
+     */
+    private void transferPending() {
+        Timeout timeout;
+
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+
+            if (scheduled == 0) {
+                tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos); // Skips ticks elapsed while idle
+            }
+
+            long expirationTick = Math.max(tick, (timeout.deadlineNanos - startNanos) / tickNanos);
+            int bucket = (int) (expirationTick & mask);
+
+            timeout.rounds = (expirationTick - tick) / buckets.length;
+            timeout.next = buckets[bucket];
+            buckets[bucket] = timeout;
+            scheduled++;
+        }
+    }
+
+    /**
+     * Expires timeouts of the bucket which are due in this round and removes cancelled timeouts
+     *
+     * @param bucket Bucket index
+     */
+    private void expireBucket(int bucket) {
+        Timeout previous = null;
+        Timeout timeout = buckets[bucket];
+
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean remove = timeout.isCancelled();
+
+            if (!remove && timeout.rounds <= 0) {
+                timeout.expire();
+                remove = true;
+            } else if (!remove) {
+                timeout.rounds--;
+            }
+
+            if (remove) {
+                if (previous == null) {
+                    buckets[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+
+                timeout.next = null;
+                scheduled--;
+            } else {
+                previous = timeout;
+            }
+
+            timeout = next;
+        }
+    }
+
+    /**
+     * Handle of a scheduled timeout
+     */
+    static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final long deadlineNanos;
+        private Runnable task;
+        private volatile int state;
+
+        // Accessed only by the worker thread
+        private long rounds;
+        private Timeout next;
+
+        private Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the timeout. Once this method returns, the task is not running and will not run
+         *
+         * @return {@code true} if the timeout was cancelled, {@code false} if it already expired
+         */
+        synchronized boolean cancel() {
+            if (state != PENDING) {
+                return state == CANCELLED;
+            }
+
+            state = CANCELLED;
+            task = null;
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * Runs the task, unless the timeout was cancelled
+         */
+        private synchronized void expire() {
+            if (state != PENDING) {
+                return;
+            }
+
+            state = EXPIRED;
+
+            try {
+                task.run();
+            } catch (RuntimeException | Error exception) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+            } finally {
+                task = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.mayuna.consoleparallax;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reflective access to virtual threads (Java 21+), so the library stays compatible with Java 8
+ */
+final class VirtualThreads {
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Determines if the current runtime supports virtual threads
+     *
+     * @return {@code true} if virtual threads are supported, {@code false} otherwise
+     */
+    static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor which runs each task on its own virtual thread
+     *
+     * @return Executor service
+     *
+     * @throws UnsupportedOperationException If the current runtime does not support virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer (running on " + System.getProperty("java.version") + ")");
+        }
+
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not create virtual thread executor", throwable);
+        }
+    }
+
+    /**
+     * Looks up {@code Executors#newVirtualThreadPerTaskExecutor()}
+     *
+     * @return Method handle or {@code null} if the method does not exist
+     */
+    private static MethodHandle findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+}
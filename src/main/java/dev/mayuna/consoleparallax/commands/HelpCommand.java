@@ -2,17 +2,56 @@ package dev.mayuna.consoleparallax.commands;
 
 import dev.mayuna.consoleparallax.BaseCommand;
 import dev.mayuna.consoleparallax.CommandInvocationContext;
+import dev.mayuna.consoleparallax.CommandRegistry;
+import dev.mayuna.consoleparallax.CommandTree;
 import dev.mayuna.consoleparallax.ConsoleParallax;
+import dev.mayuna.consoleparallax.OutputHandler;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Help command default implementation
+ * Help command default implementation<br>
+ * The listing of commands and the descriptions of commands are rendered once into preformatted blocks with aligned
+ * columns and written with a single output call. They are cached until the {@link CommandRegistry} changes (see
+ * {@link CommandRegistry#getVersion()}), so names, usages and descriptions of registered commands should not change.
+ * Long listings are split into pages, e.g. {@code help 2} shows the second page. Aliases are listed with their
+ * command, e.g. {@code stop (halt, quit)}.
  */
 public class HelpCommand implements BaseCommand {
 
+    /**
+     * Default number of commands listed on a single page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String COLUMN_GAP = "  ";
+
+    private final int pageSize;
+    private volatile RenderedHelp renderedHelp; // Null until the first invocation
+
+    /**
+     * Creates a new HelpCommand listing {@link #DEFAULT_PAGE_SIZE} commands per page
+     */
+    public HelpCommand() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a new HelpCommand
+     *
+     * @param pageSize Number of commands listed on a single page, zero or negative lists all commands on a single page
+     */
+    public HelpCommand(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
     @Override
     public @NotNull String getName() {
         return "help";
@@ -25,7 +64,7 @@ public class HelpCommand implements BaseCommand {
 
     @Override
     public @NotNull String getSyntax() {
-        return "help [command]";
+        return "help [page | command [subcommand...]]";
     }
 
     @Override
@@ -35,53 +74,264 @@ public class HelpCommand implements BaseCommand {
 
     @Override
     public void execute(@NotNull CommandInvocationContext context) {
-        if (context.getArguments().length == 0) {
+        String[] arguments = context.getArguments();
+
+        if (arguments.length == 0) {
             showAllCommands(context);
             return;
         }
 
-        showCommandDescription(context, context.getArguments()[0]);
+        if (arguments.length == 1 && context.getInt(0).isValid() && !context.getConsoleParallax().getCommand(arguments[0]).isPresent()) {
+            showCommandsPage(context, context.getInt(0).getAsInt());
+            return;
+        }
+
+        showCommandDescription(context, arguments[0]);
     }
 
     /**
-     * Shows all commands and their usages
+     * Shows the first page of commands and their usages
      *
      * @param context Command invocation context
      */
     protected void showAllCommands(CommandInvocationContext context) {
-        ConsoleParallax consoleParallax = context.getConsoleParallax();
-        List<BaseCommand> commands = consoleParallax.getRegisteredCommands();
+        showCommandsPage(context, 1);
+    }
 
-        consoleParallax.getOutputHandler().info("Number of commands: " + commands.size());
+    /**
+     * Shows a page of commands and their usages
+     *
+     * @param context Command invocation context
+     * @param page    Page number, starting at 1
+     */
+    protected void showCommandsPage(CommandInvocationContext context, int page) {
+        String[] pages = getRenderedHelp(context.getConsoleParallax()).pages;
 
-        synchronized (consoleParallax.getMutex()) {
-            for (BaseCommand command : commands) {
-                consoleParallax.getOutputHandler().info("  " + command.getName() + "\t" + command.getUsage());
-            }
+        if (page < 1 || page > pages.length) {
+            context.getOutputHandler().error("Page not found: " + page + " (there are " + pages.length + " pages)");
+            return;
         }
 
-        consoleParallax.getOutputHandler().info("Specify a command in the help command to see its description.");
+        context.getOutputHandler().info(pages[page - 1]);
+    }
+
+    /**
+     * Shows subcommands of a command tree and their usages, recursively
+     *
+     * @param outputHandler Output handler
+     * @param commandTree   Command tree
+     * @param indent        Indentation of the subcommands
+     *
+     * @deprecated The listing is rendered into a single block, see {@link #showCommandsPage(CommandInvocationContext, int)}
+     */
+    @Deprecated
+    protected void showSubcommands(OutputHandler outputHandler, CommandTree commandTree, String indent) {
+        for (BaseCommand subcommand : commandTree.getSubcommands()) {
+            outputHandler.info(indent + subcommand.getName() + "\t" + subcommand.getUsage());
+
+            if (subcommand instanceof CommandTree) {
+                showSubcommands(outputHandler, (CommandTree) subcommand, indent + "  ");
+            }
+        }
     }
 
     /**
-     * Shows the description of a command
+     * Shows the description of a command. Following arguments of the context select a subcommand of a
+     * {@link CommandTree}, e.g. {@code help cache evict}
      *
      * @param context     Command invocation context
      * @param commandName Command name
      */
     protected void showCommandDescription(CommandInvocationContext context, String commandName) {
         ConsoleParallax consoleParallax = context.getConsoleParallax();
+        OutputHandler outputHandler = context.getOutputHandler();
+        RenderedHelp rendered = getRenderedHelp(consoleParallax);
         Optional<BaseCommand> optionalCommand = consoleParallax.getCommand(commandName);
 
         if (!optionalCommand.isPresent()) {
-            consoleParallax.getOutputHandler().error("Command not found: " + commandName);
+            outputHandler.error("Command not found: " + commandName);
             return;
         }
 
         BaseCommand command = optionalCommand.get();
+        StringBuilder path = new StringBuilder(command.getName());
+        String[] arguments = context.getArguments();
+
+        for (int i = 1; i < arguments.length && command instanceof CommandTree; i++) {
+            Optional<BaseCommand> optionalSubcommand = ((CommandTree) command).getSubcommand(arguments[i]);
+
+            if (!optionalSubcommand.isPresent()) {
+                outputHandler.error("Subcommand not found: " + path + " " + arguments[i]);
+                return;
+            }
+
+            command = optionalSubcommand.get();
+            path.append(' ').append(command.getName());
+        }
+
+        BaseCommand describedCommand = command;
+        String commandPath = path.toString();
+        outputHandler.info(rendered.descriptions.computeIfAbsent(CommandRegistry.normalizeName(commandPath), key -> renderDescription(commandPath, describedCommand)));
+    }
+
+    /**
+     * Returns the rendered help of the current registry version, rendering it if the registry changed
+     *
+     * @param consoleParallax ConsoleParallax instance
+     *
+     * @return Non-null rendered help
+     */
+    private RenderedHelp getRenderedHelp(ConsoleParallax consoleParallax) {
+        CommandRegistry registry = consoleParallax.getCommandRegistry();
+        long version = registry.getVersion();
+        RenderedHelp rendered = renderedHelp;
+
+        if (rendered == null || rendered.registry != registry || rendered.version != version) {
+            // The commands may be newer than the version, the block is then rendered again on the next invocation
+            rendered = new RenderedHelp(registry, version, renderPages(registry.getCommands()));
+            renderedHelp = rendered;
+        }
+
+        return rendered;
+    }
+
+    /**
+     * Renders the listing of commands into pages
+     *
+     * @param commands Registered commands
+     *
+     * @return Non-null array of pages, at least one
+     */
+    private String[] renderPages(List<BaseCommand> commands) {
+        List<List<String[]>> entries = new ArrayList<>(commands.size());
+        int width = 0;
 
-        consoleParallax.getOutputHandler().info("Command: " + command.getName());
-        consoleParallax.getOutputHandler().info("Description: " + command.getDescription());
-        consoleParallax.getOutputHandler().info("Syntax: " + command.getSyntax());
+        for (BaseCommand command : commands) {
+            List<String[]> rows = new ArrayList<>(1);
+            collectRows(rows, command, "  ");
+            entries.add(rows);
+
+            for (String[] row : rows) {
+                width = Math.max(width, row[0].length());
+            }
+        }
+
+        int entriesPerPage = pageSize > 0 ? pageSize : Math.max(1, entries.size());
+        int pageCount = Math.max(1, (entries.size() + entriesPerPage - 1) / entriesPerPage);
+        String[] pages = new String[pageCount];
+
+        for (int page = 0; page < pageCount; page++) {
+            StringBuilder builder = new StringBuilder("Number of commands: ").append(commands.size());
+
+            for (int i = page * entriesPerPage; i < entries.size() && i < (page + 1) * entriesPerPage; i++) {
+                for (String[] row : entries.get(i)) {
+                    appendRow(builder.append(LINE_SEPARATOR), row, width);
+                }
+            }
+
+            if (pageCount > 1) {
+                builder.append(LINE_SEPARATOR).append("Page ").append(page + 1).append(" of ").append(pageCount)
+                       .append(". Specify a page number in the help command to see other pages.");
+            }
+
+            pages[page] = builder.append(LINE_SEPARATOR).append("Specify a command in the help command to see its description.").toString();
+        }
+
+        return pages;
+    }
+
+    /**
+     * Renders the description block of a command
+     *
+     * @param path    Path of the command, including its parent commands
+     * @param command Command
+     *
+     * @return Non-null description block
+     */
+    private static String renderDescription(String path, BaseCommand command) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Command: ").append(path).append(LINE_SEPARATOR);
+
+        if (!command.getAliases().isEmpty()) {
+            builder.append("Aliases: ").append(String.join(", ", command.getAliases())).append(LINE_SEPARATOR);
+        }
+
+        builder.append("Description: ").append(command.getDescription()).append(LINE_SEPARATOR)
+               .append("Syntax: ").append(command.getSyntax());
+
+        if (command instanceof CommandTree) {
+            List<String[]> rows = new ArrayList<>();
+
+            for (BaseCommand subcommand : ((CommandTree) command).getSubcommands()) {
+                collectRows(rows, subcommand, "  ");
+            }
+
+            int width = 0;
+
+            for (String[] row : rows) {
+                width = Math.max(width, row[0].length());
+            }
+
+            builder.append(LINE_SEPARATOR).append("Subcommands:");
+
+            for (String[] row : rows) {
+                appendRow(builder.append(LINE_SEPARATOR), row, width);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Collects the rows of the command and its subcommands, recursively
+     *
+     * @param rows    Rows, each holding the indented name with aliases and the usage
+     * @param command Command
+     * @param indent  Indentation of the command
+     */
+    private static void collectRows(List<String[]> rows, BaseCommand command, String indent) {
+        Collection<String> aliases = command.getAliases();
+        String name = aliases.isEmpty() ? command.getName() : command.getName() + " (" + String.join(", ", aliases) + ")";
+        rows.add(new String[]{indent + name, command.getUsage()});
+
+        if (command instanceof CommandTree) {
+            for (BaseCommand subcommand : ((CommandTree) command).getSubcommands()) {
+                collectRows(rows, subcommand, indent + "  ");
+            }
+        }
+    }
+
+    /**
+     * Appends a row with the name column padded to the specified width
+     *
+     * @param builder Builder
+     * @param row     Row holding the indented name and the usage
+     * @param width   Width of the name column
+     */
+    private static void appendRow(StringBuilder builder, String[] row, int width) {
+        builder.append(row[0]);
+
+        for (int i = row[0].length(); i < width; i++) {
+            builder.append(' ');
+        }
+
+        builder.append(COLUMN_GAP).append(row[1]);
+    }
+
+    /**
+     * Help rendered for a specific version of a registry
+     */
+    private static final class RenderedHelp {
+
+        private final CommandRegistry registry;
+        private final long version;
+        private final String[] pages;
+        private final Map<String, String> descriptions = new ConcurrentHashMap<>();
+
+        private RenderedHelp(CommandRegistry registry, long version, String[] pages) {
+            this.registry = registry;
+            this.version = version;
+            this.pages = pages;
+        }
     }
 }
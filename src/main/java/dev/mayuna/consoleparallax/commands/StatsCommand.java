@@ -0,0 +1,83 @@
+package dev.mayuna.consoleparallax.commands;
+
+import dev.mayuna.consoleparallax.BaseCommand;
+import dev.mayuna.consoleparallax.CommandInvocationContext;
+import dev.mayuna.consoleparallax.ConsoleParallax;
+import dev.mayuna.consoleparallax.OutputHandler;
+import dev.mayuna.consoleparallax.impl.HistogramCommandMetrics;
+import dev.mayuna.consoleparallax.impl.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stats command default implementation<br>
+ * Requires {@link HistogramCommandMetrics} to be set as {@link ConsoleParallax}'s command metrics
+ */
+public class StatsCommand implements BaseCommand {
+
+    @Override
+    public @NotNull String getName() {
+        return "stats";
+    }
+
+    @Override
+    public @NotNull String getUsage() {
+        return "Displays command execution statistics.";
+    }
+
+    @Override
+    public @NotNull String getSyntax() {
+        return "stats";
+    }
+
+    @Override
+    public @NotNull String getDescription() {
+        return "ConsoleParallax implemented command. Shows number of executions, errors, timeouts and p50/p99/max latencies of each command, number of unknown commands and number of queued commands.";
+    }
+
+    @Override
+    public void execute(@NotNull CommandInvocationContext context) {
+        ConsoleParallax consoleParallax = context.getConsoleParallax();
+        OutputHandler outputHandler = context.getOutputHandler();
+
+        if (!(consoleParallax.getCommandMetrics() instanceof HistogramCommandMetrics)) {
+            outputHandler.error("Command metrics are not enabled. Set HistogramCommandMetrics via ConsoleParallax.Builder#setCommandMetrics().");
+            return;
+        }
+
+        HistogramCommandMetrics metrics = (HistogramCommandMetrics) consoleParallax.getCommandMetrics();
+
+        outputHandler.info(String.format(Locale.ROOT, "Commands per second: %.2f, not found: %d, queued: %d, in-flight: %d",
+                                                              metrics.getCommandsPerSecond(),
+                                                              metrics.getNotFoundCount(),
+                                                              consoleParallax.getQueuedCommandCount(),
+                                                              consoleParallax.getInFlightCommandCount()));
+
+        for (Map.Entry<String, HistogramCommandMetrics.CommandStatistics> entry : metrics.getStatistics().entrySet()) {
+            HistogramCommandMetrics.CommandStatistics statistics = entry.getValue();
+            LatencyHistogram latency = statistics.getLatency();
+
+            outputHandler.info(String.format(Locale.ROOT, "  %s\tcount: %d, errors: %d, timeouts: %d, p50: %s, p99: %s, max: %s",
+                                                                  entry.getKey(),
+                                                                  statistics.getCount(),
+                                                                  statistics.getErrors(),
+                                                                  statistics.getTimeouts(),
+                                                                  formatNanos(latency.getValueAtPercentile(50)),
+                                                                  formatNanos(latency.getValueAtPercentile(99)),
+                                                                  formatNanos(latency.getMaxValue())));
+        }
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds
+     *
+     * @param nanos Nanoseconds
+     *
+     * @return Formatted duration
+     */
+    protected static String formatNanos(long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1_000_000d);
+    }
+}
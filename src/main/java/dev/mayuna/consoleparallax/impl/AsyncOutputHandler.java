@@ -0,0 +1,418 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.OutputHandler;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorator for {@link OutputHandler} which writes messages asynchronously<br>
+ * Messages are enqueued into a bounded lock-free queue and a single writer thread coalesces consecutive messages of the
+ * same type into one (multi-line) call of the delegate. Calling threads never block on the delegate's I/O, unless
+ * {@link BackpressurePolicy#BLOCK} is used and the queue is full. The writer thread is parked while the queue is empty.
+ */
+public final class AsyncOutputHandler implements OutputHandler, AutoCloseable {
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final OutputHandler delegate;
+    private final int capacity;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final BackpressurePolicy backpressurePolicy;
+
+    private final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger activeProducers = new AtomicInteger(); // Threads enqueueing a message they saw open
+    private final AtomicLong enqueuedMessages = new AtomicLong();
+    private final AtomicLong processedMessages = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final Object flushMonitor = new Object();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private AsyncOutputHandler(Builder builder) {
+        this.delegate = builder.delegate;
+        this.capacity = builder.capacity;
+        this.flushSize = builder.flushSize;
+        this.flushIntervalNanos = builder.flushIntervalNanos;
+        this.backpressurePolicy = builder.backpressurePolicy;
+
+        this.writer = new Thread(this::runWriter, "ConsoleParallax Output Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Creates a {@link AsyncOutputHandler} Builder with default values
+     *
+     * @param delegate Non-null output handler to which the messages are written
+     *
+     * @return Builder instance
+     */
+    public static Builder builder(@NotNull @NonNull OutputHandler delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public void info(@NotNull String message) {
+        enqueue(false, message);
+    }
+
+    @Override
+    public void error(@NotNull String message) {
+        enqueue(true, message);
+    }
+
+    /**
+     * Blocks until all messages enqueued before this call are written to the delegate
+     */
+    public void flush() {
+        long target = enqueuedMessages.get();
+
+        synchronized (flushMonitor) {
+            while (processedMessages.get() < target && writer.isAlive()) {
+                LockSupport.unpark(writer); // The writer may have used up an earlier wake-up to start coalescing
+
+                try {
+                    flushMonitor.wait(10);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drains all enqueued messages and stops the writer thread<br>
+     * Messages submitted concurrently with closing are written as well, messages submitted after closing are written to
+     * the delegate synchronously
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of messages waiting to be written
+     *
+     * @return Number of enqueued messages
+     */
+    public int getQueueSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of messages dropped due to the {@link BackpressurePolicy}
+     *
+     * @return Number of dropped messages
+     */
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Enqueues a message, applying the backpressure policy if the queue is full
+     *
+     * @param error   Whether the message is an error
+     * @param message Message
+     */
+    private void enqueue(boolean error, String message) {
+        // The writer's final drain waits for active producers, so a message enqueued after the check below is written
+        activeProducers.incrementAndGet();
+
+        try {
+            if (!closed) {
+                int previousSize = reserveSlot();
+
+                if (previousSize != -1) {
+                    queue.offer(new Message(error, message));
+                    enqueuedMessages.incrementAndGet();
+
+                    if (previousSize == 0 || previousSize + 1 >= flushSize) {
+                        LockSupport.unpark(writer);
+                    }
+                }
+
+                return;
+            }
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+
+        write(error, message);
+    }
+
+    /**
+     * Reserves space in the queue for one message
+     *
+     * @return Number of enqueued messages before the reservation, or -1 if the message should be dropped
+     */
+    private int reserveSlot() {
+        while (true) {
+            int current = size.get();
+
+            if (current < capacity) {
+                if (size.compareAndSet(current, current + 1)) {
+                    return current;
+                }
+
+                continue;
+            }
+
+            switch (backpressurePolicy) {
+                case DROP:
+                    droppedMessages.incrementAndGet();
+                    return -1;
+                case DROP_OLDEST:
+                    if (queue.poll() != null) {
+                        size.decrementAndGet();
+                        droppedMessages.incrementAndGet();
+                        processedMessages.incrementAndGet();
+                    }
+                    break;
+                case BLOCK:
+                    if (closed) {
+                        // Writer is draining and waits for this message, do not wait for space
+                        return size.getAndIncrement();
+                    }
+
+                    LockSupport.unpark(writer);
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Writer thread loop
+     */
+    private void runWriter() {
+        while (!closed) {
+            int pending = size.get();
+
+            if (pending == 0) {
+                LockSupport.park(this); // Until the first message is enqueued or the handler is closed
+                continue;
+            }
+
+            if (pending < flushSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos); // Coalesces messages until the flush size is reached
+            }
+
+            drain();
+        }
+
+        // Producers which saw the handler open may still be enqueueing
+        while (activeProducers.get() > 0) {
+            drain();
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+
+        drain();
+    }
+
+    /**
+     * Writes all enqueued messages, coalescing consecutive messages of the same type
+     */
+    private void drain() {
+        StringBuilder builder = new StringBuilder();
+        boolean error = false;
+        int count = 0;
+        Message message;
+
+        while ((message = queue.poll()) != null) {
+            size.decrementAndGet();
+
+            if (count > 0 && (message.error != error || count >= flushSize)) {
+                writeCoalesced(error, builder, count);
+                builder.setLength(0);
+                count = 0;
+            }
+
+            if (count > 0) {
+                builder.append(System.lineSeparator());
+            }
+
+            builder.append(message.text);
+            error = message.error;
+            count++;
+        }
+
+        if (count > 0) {
+            writeCoalesced(error, builder, count);
+        }
+    }
+
+    /**
+     * Writes the coalesced messages to the delegate and wakes up threads waiting in {@link #flush()}
+     *
+     * @param error   Whether the messages are errors
+     * @param builder Coalesced messages
+     * @param count   Number of coalesced messages
+     */
+    private void writeCoalesced(boolean error, StringBuilder builder, int count) {
+        try {
+            write(error, builder.toString());
+        } catch (RuntimeException exception) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+        }
+
+        processedMessages.addAndGet(count);
+
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Writes a message to the delegate
+     *
+     * @param error   Whether the message is an error
+     * @param message Message
+     */
+    private void write(boolean error, String message) {
+        if (error) {
+            delegate.error(message);
+        } else {
+            delegate.info(message);
+        }
+    }
+
+    /**
+     * Specifies what happens when a message is submitted while the queue is full
+     */
+    public enum BackpressurePolicy {
+
+        /**
+         * The calling thread waits until there is space in the queue
+         */
+        BLOCK,
+
+        /**
+         * The submitted message is dropped
+         */
+        DROP,
+
+        /**
+         * The oldest enqueued message is dropped to make space for the submitted message
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * Enqueued message
+     */
+    private static final class Message {
+
+        private final boolean error;
+        private final String text;
+
+        private Message(boolean error, String text) {
+            this.error = error;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Builder for {@link AsyncOutputHandler}
+     */
+    public static final class Builder {
+
+        private final OutputHandler delegate;
+        private int capacity = 8192;
+        private int flushSize = 256;
+        private long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+
+        private Builder(OutputHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Sets the maximum number of enqueued messages
+         *
+         * @param capacity Positive capacity
+         *
+         * @return Builder instance
+         */
+        public Builder setCapacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive");
+            }
+
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of messages coalesced into a single write. Reaching this number of enqueued messages
+         * also wakes up the writer thread before the flush interval elapses.
+         *
+         * @param flushSize Positive flush size
+         *
+         * @return Builder instance
+         */
+        public Builder setFlushSize(int flushSize) {
+            if (flushSize <= 0) {
+                throw new IllegalArgumentException("Flush size must be positive");
+            }
+
+            this.flushSize = flushSize;
+            return this;
+        }
+
+        /**
+         * Sets the interval in which the writer thread writes enqueued messages. While the queue is empty, the writer
+         * thread does not wake up.
+         *
+         * @param flushInterval Positive flush interval
+         * @param unit          Non-null unit of the flush interval
+         *
+         * @return Builder instance
+         */
+        public Builder setFlushInterval(long flushInterval, @NotNull @NonNull TimeUnit unit) {
+            if (flushInterval <= 0) {
+                throw new IllegalArgumentException("Flush interval must be positive");
+            }
+
+            this.flushIntervalNanos = unit.toNanos(flushInterval);
+            return this;
+        }
+
+        /**
+         * Sets the backpressure policy
+         *
+         * @param backpressurePolicy Non-null backpressure policy
+         *
+         * @return Builder instance
+         */
+        public Builder setBackpressurePolicy(@NotNull @NonNull BackpressurePolicy backpressurePolicy) {
+            this.backpressurePolicy = backpressurePolicy;
+            return this;
+        }
+
+        /**
+         * Builds a new instance of {@link AsyncOutputHandler} and starts its writer thread
+         *
+         * @return AsyncOutputHandler instance
+         */
+        public AsyncOutputHandler build() {
+            return new AsyncOutputHandler(this);
+        }
+    }
+}
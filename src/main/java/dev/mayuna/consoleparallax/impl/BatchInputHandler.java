@@ -0,0 +1,161 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.InputHandler;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link InputHandler} which streams commands from a script file (or any {@link BufferedReader}), one
+ * command per line<br>
+ * The file is read lazily, never loaded whole. Blank lines and lines starting with {@code #} are skipped. Lines
+ * <code>parallel {</code> and <code>}</code> delimit parallel blocks, which are honored by
+ * {@link dev.mayuna.consoleparallax.ConsoleParallax#runScript(Path)}; when used as an input handler, the block markers
+ * are skipped and the commands are returned in order. The end of stream is signalled after the last line.
+ */
+public final class BatchInputHandler implements InputHandler, AutoCloseable {
+
+    private static final Pattern PARALLEL_BLOCK_START = Pattern.compile("parallel\\s*\\{");
+
+    private final BufferedReader reader;
+    private int lineNumber;
+    private boolean endOfStream;
+
+    /**
+     * Creates a new BatchInputHandler reading the UTF-8 script file
+     *
+     * @param path Non-null script file
+     *
+     * @throws IOException If the file could not be opened
+     */
+    public BatchInputHandler(@NotNull @NonNull Path path) throws IOException {
+        this(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a new BatchInputHandler reading the reader
+     *
+     * @param reader Non-null reader, closed at the end of stream
+     */
+    public BatchInputHandler(@NotNull @NonNull BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Determines if the line starts a parallel block
+     *
+     * @param line Non-null line returned by {@link #nextLine()}
+     *
+     * @return {@code true} if the line is <code>parallel {</code>
+     */
+    public static boolean isParallelBlockStart(@NotNull @NonNull String line) {
+        return PARALLEL_BLOCK_START.matcher(line).matches();
+    }
+
+    /**
+     * Determines if the line ends a parallel block
+     *
+     * @param line Non-null line returned by {@link #nextLine()}
+     *
+     * @return {@code true} if the line is <code>}</code>
+     */
+    public static boolean isBlockEnd(@NotNull @NonNull String line) {
+        return line.equals("}");
+    }
+
+    @Override
+    public synchronized @Nullable String getNextInput() {
+        String line;
+
+        do {
+            line = nextLine();
+        } while (line != null && (isParallelBlockStart(line) || isBlockEnd(line)));
+
+        return line;
+    }
+
+    @Override
+    public synchronized int drainTo(@NotNull List<String> inputs, int maxInputs) {
+        int drained = 0;
+        String input;
+
+        while (drained < maxInputs && (input = getNextInput()) != null) {
+            inputs.add(input);
+            drained++;
+        }
+
+        return drained;
+    }
+
+    @Override
+    public synchronized boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    /**
+     * Returns the next non-blank line which is not a comment, including block markers
+     *
+     * @return Trimmed line or null if the end of the script was reached
+     *
+     * @throws UncheckedIOException If the script could not be read
+     */
+    public synchronized @Nullable String nextLine() {
+        if (endOfStream) {
+            return null;
+        }
+
+        try {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    return line;
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not read the script", exception);
+        }
+
+        close();
+        return null;
+    }
+
+    /**
+     * Returns the number of the last read line
+     *
+     * @return Line number, starting at 1
+     */
+    public synchronized int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Closes the reader and signals the end of stream
+     */
+    @Override
+    public synchronized void close() {
+        if (endOfStream) {
+            return;
+        }
+
+        endOfStream = true;
+
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // Nothing more will be read
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.OutputHandler;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link OutputHandler} which collects the messages in memory until they are flushed to another output handler<br>
+ * Consecutive messages of the same type are coalesced into one multi-line message, so the output of a command
+ * invocation is written contiguously with as few calls of the target output handler as possible.
+ */
+public final class BufferedOutputHandler implements OutputHandler {
+
+    private final List<Segment> segments = new ArrayList<>(1);
+    private int messageCount;
+
+    @Override
+    public synchronized void info(@NotNull String message) {
+        append(false, message);
+    }
+
+    @Override
+    public synchronized void error(@NotNull String message) {
+        append(true, message);
+    }
+
+    /**
+     * Returns the number of messages buffered since the last flush
+     *
+     * @return Number of buffered messages
+     */
+    public synchronized int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * Writes the buffered messages to the output handler and clears the buffer
+     *
+     * @param outputHandler Non-null output handler
+     */
+    public void flushTo(@NotNull @NonNull OutputHandler outputHandler) {
+        Segment[] flushed;
+
+        synchronized (this) {
+            if (segments.isEmpty()) {
+                return;
+            }
+
+            flushed = segments.toArray(new Segment[0]);
+            segments.clear();
+            messageCount = 0;
+        }
+
+        for (Segment segment : flushed) {
+            if (segment.error) {
+                outputHandler.error(segment.text.toString());
+            } else {
+                outputHandler.info(segment.text.toString());
+            }
+        }
+    }
+
+    /**
+     * Appends a message to the last segment if it is of the same type, otherwise starts a new segment
+     *
+     * @param error   Whether the message is an error
+     * @param message Message
+     */
+    private void append(boolean error, String message) {
+        messageCount++;
+
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+
+            if (last.error == error) {
+                last.text.append(System.lineSeparator()).append(message);
+                return;
+            }
+        }
+
+        segments.add(new Segment(error, new StringBuilder(message)));
+    }
+
+    /**
+     * Consecutive messages of the same type
+     */
+    private static final class Segment {
+
+        private final boolean error;
+        private final StringBuilder text;
+
+        private Segment(boolean error, StringBuilder text) {
+            this.error = error;
+            this.text = text;
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package dev.mayuna.consoleparallax.impl;
 
 import dev.mayuna.consoleparallax.InputHandler;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.Console;
 import java.util.Scanner;
 
 /**
  * Console implementation for {@link InputHandler}<br>
- * Uses {@link Console#readLine()} to read input
+ * Uses {@link Scanner#nextLine()} on {@link System#in} to read input<br>
+ * Signals the end of stream when {@link System#in} is closed
  */
 public final class ConsoleInputHandler implements InputHandler {
 
     private final Scanner scanner;
+    private volatile boolean endOfStream;
 
     public ConsoleInputHandler() {
         this.scanner = new Scanner(System.in);
     }
 
     @Override
-    public @NotNull String getNextInput() {
+    public @Nullable String getNextInput() {
+        if (!scanner.hasNextLine()) {
+            endOfStream = true;
+            return null;
+        }
+
         return scanner.nextLine();
     }
+
+    @Override
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
 }
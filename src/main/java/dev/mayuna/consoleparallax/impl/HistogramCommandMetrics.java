@@ -0,0 +1,163 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.BaseCommand;
+import dev.mayuna.consoleparallax.CommandMetrics;
+import dev.mayuna.consoleparallax.CommandRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link CommandMetrics} which records counts, errors and a {@link LatencyHistogram} per command
+ * name<br>
+ * Recording is lock-free. Use {@link dev.mayuna.consoleparallax.commands.StatsCommand} to print the statistics.
+ */
+public final class HistogramCommandMetrics implements CommandMetrics {
+
+    private final Map<String, CommandStatistics> statistics = new ConcurrentHashMap<>();
+    private final LongAdder notFoundCount = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Creates a new HistogramCommandMetrics
+     */
+    public HistogramCommandMetrics() {
+    }
+
+    @Override
+    public void recordCommandExecuted(@NotNull BaseCommand command, long durationNanos, @Nullable Throwable failure) {
+        CommandStatistics commandStatistics = getOrCreateStatistics(command);
+        commandStatistics.latency.record(durationNanos);
+
+        if (failure != null) {
+            commandStatistics.errors.increment();
+        }
+    }
+
+    @Override
+    public void recordCommandNotFound(@NotNull String commandName) {
+        notFoundCount.increment();
+    }
+
+    @Override
+    public void recordCommandTimedOut(@NotNull BaseCommand command, long timeoutNanos) {
+        getOrCreateStatistics(command).timeouts.increment();
+    }
+
+    /**
+     * Returns the statistics of the command, creating them if the command was not recorded yet
+     *
+     * @param command Command
+     *
+     * @return Statistics of the command
+     */
+    private CommandStatistics getOrCreateStatistics(BaseCommand command) {
+        String name = CommandRegistry.normalizeName(command.getName());
+        CommandStatistics commandStatistics = statistics.get(name);
+
+        if (commandStatistics == null) {
+            commandStatistics = statistics.computeIfAbsent(name, key -> new CommandStatistics());
+        }
+
+        return commandStatistics;
+    }
+
+    /**
+     * Returns the statistics of all executed commands
+     *
+     * @return Non-null unmodifiable map of statistics sorted by the command name
+     */
+    public @NotNull Map<String, CommandStatistics> getStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<>(statistics));
+    }
+
+    /**
+     * Returns the statistics of a command
+     *
+     * @param commandName Non-null command name
+     *
+     * @return Statistics or {@code null} if the command was not executed yet
+     */
+    public @Nullable CommandStatistics getStatistics(@NotNull String commandName) {
+        return statistics.get(CommandRegistry.normalizeName(commandName));
+    }
+
+    /**
+     * Returns the number of inputs which did not match any registered command
+     *
+     * @return Number of "command not found" errors
+     */
+    public long getNotFoundCount() {
+        return notFoundCount.sum();
+    }
+
+    /**
+     * Returns the average number of executed commands per second since the creation of this instance
+     *
+     * @return Commands per second
+     */
+    public double getCommandsPerSecond() {
+        long total = 0;
+
+        for (CommandStatistics commandStatistics : statistics.values()) {
+            total += commandStatistics.getCount();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000d;
+        return elapsedSeconds > 0 ? total / elapsedSeconds : 0;
+    }
+
+    /**
+     * Statistics of a single command
+     */
+    public static final class CommandStatistics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        private CommandStatistics() {
+        }
+
+        /**
+         * Returns the number of executions
+         *
+         * @return Number of executions
+         */
+        public long getCount() {
+            return latency.getTotalCount();
+        }
+
+        /**
+         * Returns the number of executions which threw an exception
+         *
+         * @return Number of errors
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the number of executions which exceeded the command's timeout
+         *
+         * @return Number of timeouts
+         */
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * Returns the latency histogram
+         *
+         * @return Non-null latency histogram
+         */
+        public @NotNull LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+}
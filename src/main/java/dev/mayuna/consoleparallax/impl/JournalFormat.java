@@ -0,0 +1,108 @@
+package dev.mayuna.consoleparallax.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Format of the input journal written by {@link JournalingInputHandler} and read by {@link JournalReplayInputHandler}<br>
+ * The journal is a directory of segment files named {@code journal-<index>.log}. Each segment starts with a header
+ * ({@link #MAGIC} and the wall-clock time of its creation in epoch milliseconds) followed by records. A record is the
+ * varint of the UTF-8 length plus one, the varint of microseconds elapsed since the previous record and the UTF-8 bytes
+ * of the input. Segments are preallocated with zeros, so a zero byte in place of a record marks the end of the segment.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x43504A31; // "CPJ1"
+    static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    static final int MAX_VARINT_SIZE = 10;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{10})\\.log");
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Returns the path of a segment
+     *
+     * @param directory Journal directory
+     * @param index     Segment index
+     *
+     * @return Segment path
+     */
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("journal-%010d.log", index));
+    }
+
+    /**
+     * Lists indexes of the segments in the directory
+     *
+     * @param directory Journal directory
+     *
+     * @return Sorted segment indexes
+     *
+     * @throws IOException If the directory could not be listed
+     */
+    static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+
+                if (matcher.matches()) {
+                    indexes.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * Writes an unsigned varint (LEB128)
+     *
+     * @param buffer Buffer
+     * @param value  Non-negative value
+     */
+    static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint (LEB128)
+     *
+     * @param buffer Buffer
+     *
+     * @return Value
+     *
+     * @throws IllegalStateException If the varint is malformed
+     */
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("Malformed varint in the journal");
+    }
+}
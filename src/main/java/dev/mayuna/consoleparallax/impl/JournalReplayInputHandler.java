@@ -0,0 +1,273 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.InputHandler;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@link InputHandler} which replays a journal written by {@link JournalingInputHandler}, e.g. for
+ * load testing a fresh {@link dev.mayuna.consoleparallax.ConsoleParallax} instance<br>
+ * Segments are memory-mapped and read one record at a time, so the journal is never loaded whole. Inputs are returned
+ * either as fast as they are requested or at the original timing, i.e. with the same gaps between them as when they
+ * were journaled. The end of stream is signalled after the last input.<br>
+ * Waiting for the next input at the original timing does not block the other methods, so {@link #close()} stops the
+ * replay even during a long gap between the inputs.
+ */
+public final class JournalReplayInputHandler implements InputHandler, AutoCloseable {
+
+    private final Path directory;
+    private final boolean originalTiming;
+    private final List<Long> segments;
+
+    private int nextSegment;
+    private ByteBuffer segment;
+    private String nextInput;
+    private long nextDelayNanos;
+    private long previousDueNanos = -1;
+    private long replayedCount;
+    private boolean endOfStream;
+
+    private JournalReplayInputHandler(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.originalTiming = builder.originalTiming;
+        this.segments = JournalFormat.listSegments(directory);
+    }
+
+    /**
+     * Creates a {@link JournalReplayInputHandler} Builder with default values
+     *
+     * @param directory Non-null journal directory
+     *
+     * @return Builder instance
+     */
+    public static Builder builder(@NotNull @NonNull Path directory) {
+        return new Builder(directory);
+    }
+
+    @Override
+    public synchronized @Nullable String getNextInput() {
+        try {
+            return getNextInput(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized @Nullable String getNextInput(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+
+        while (peek() != null) {
+            long waitNanos = originalTiming ? getDueNanos() - System.nanoTime() : 0;
+
+            if (waitNanos <= 0) {
+                return consume();
+            }
+
+            long remainingNanos = timeoutNanos - (System.nanoTime() - start);
+
+            if (remainingNanos <= 0) {
+                return null;
+            }
+
+            // Releases the monitor while waiting, the input is peeked again after waking up, since the replay may have
+            // been closed or the input consumed by another thread
+            waitNanos = Math.min(waitNanos, remainingNanos);
+            wait(TimeUnit.NANOSECONDS.toMillis(waitNanos), (int) (waitNanos % 1_000_000));
+        }
+
+        return null;
+    }
+
+    @Override
+    public synchronized int drainTo(@NotNull List<String> inputs, int maxInputs) {
+        int drained = 0;
+
+        while (drained < maxInputs && peek() != null && (!originalTiming || getDueNanos() <= System.nanoTime())) {
+            inputs.add(consume());
+            drained++;
+        }
+
+        return drained;
+    }
+
+    @Override
+    public synchronized boolean isEndOfStream() {
+        return peek() == null;
+    }
+
+    /**
+     * Returns the number of inputs replayed so far
+     *
+     * @return Number of replayed inputs
+     */
+    public synchronized long getReplayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * Stops the replay, signalling the end of stream
+     */
+    @Override
+    public synchronized void close() {
+        endOfStream = true;
+        nextInput = null;
+        segment = null;
+        notifyAll(); // Wakes up threads waiting for the next input
+    }
+
+    /**
+     * Returns the time at which the next input is due
+     *
+     * @return Due time in {@link System#nanoTime()}
+     */
+    private long getDueNanos() {
+        if (previousDueNanos == -1) {
+            previousDueNanos = System.nanoTime(); // The first input is replayed immediately
+            nextDelayNanos = 0;
+        }
+
+        return previousDueNanos + nextDelayNanos;
+    }
+
+    /**
+     * Returns the next input and advances the replay
+     *
+     * @return Next input
+     */
+    private String consume() {
+        if (originalTiming) {
+            previousDueNanos = getDueNanos();
+        }
+
+        String input = nextInput;
+        nextInput = null;
+        replayedCount++;
+        return input;
+    }
+
+    /**
+     * Reads the next record, if it was not read yet
+     *
+     * @return Next input or null if the end of the journal was reached
+     */
+    private String peek() {
+        while (nextInput == null && !endOfStream) {
+            if (segment == null || !readRecord()) {
+                openNextSegment();
+            }
+        }
+
+        return nextInput;
+    }
+
+    /**
+     * Reads a record from the current segment
+     *
+     * @return {@code true} if a record was read, {@code false} if the end of the segment was reached
+     */
+    private boolean readRecord() {
+        if (!segment.hasRemaining()) {
+            return false;
+        }
+
+        long lengthPlusOne = JournalFormat.readVarint(segment);
+
+        if (lengthPlusOne == 0) {
+            return false;
+        }
+
+        long elapsedMicros = JournalFormat.readVarint(segment);
+        int length = (int) (lengthPlusOne - 1);
+
+        if (length > segment.remaining()) {
+            return false; // Truncated record
+        }
+
+        byte[] bytes = new byte[length];
+        segment.get(bytes);
+
+        nextInput = new String(bytes, StandardCharsets.UTF_8);
+        nextDelayNanos = TimeUnit.MICROSECONDS.toNanos(elapsedMicros);
+        return true;
+    }
+
+    /**
+     * Maps the next segment or signals the end of stream if there is none
+     *
+     * @throws UncheckedIOException If the segment could not be read or is not a journal segment
+     */
+    private void openNextSegment() {
+        segment = null;
+
+        if (nextSegment >= segments.size()) {
+            endOfStream = true;
+            return;
+        }
+
+        Path path = JournalFormat.segmentPath(directory, segments.get(nextSegment++));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (mapped.remaining() < JournalFormat.HEADER_SIZE || mapped.getInt() != JournalFormat.MAGIC) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+
+            mapped.getLong(); // Creation time
+            segment = mapped;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not read journal segment " + path, exception);
+        }
+    }
+
+    /**
+     * Builder for {@link JournalReplayInputHandler}
+     */
+    public static final class Builder {
+
+        private final Path directory;
+        private boolean originalTiming;
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Sets whether the inputs are replayed with the same gaps between them as when they were journaled, disabled by
+         * default (inputs are replayed as fast as they are requested)
+         *
+         * @param originalTiming Whether the original timing is preserved
+         *
+         * @return Builder instance
+         */
+        public Builder setOriginalTiming(boolean originalTiming) {
+            this.originalTiming = originalTiming;
+            return this;
+        }
+
+        /**
+         * Builds a new instance of {@link JournalReplayInputHandler}
+         *
+         * @return JournalReplayInputHandler instance
+         *
+         * @throws IOException If the journal directory could not be listed
+         */
+        public JournalReplayInputHandler build() throws IOException {
+            return new JournalReplayInputHandler(this);
+        }
+    }
+}
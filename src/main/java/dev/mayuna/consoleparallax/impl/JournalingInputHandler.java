@@ -0,0 +1,222 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.InputHandler;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator for {@link InputHandler} which appends every returned input to a journal, e.g. for auditing or for replaying
+ * the inputs with {@link JournalReplayInputHandler}<br>
+ * The journal is a directory of preallocated, memory-mapped segment files, so appending an input is a memory copy
+ * without a system call. A new segment is created when the current one is full. Existing segments are never
+ * overwritten, a new journaling handler continues with a new segment. The data is written to the disk by the operating
+ * system; {@link #flush()} and {@link #close()} force it.
+ */
+public final class JournalingInputHandler implements InputHandler, AutoCloseable {
+
+    private final InputHandler delegate;
+    private final Path directory;
+    private final int segmentSize;
+
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private long lastRecordNanos = System.nanoTime();
+    private long recordCount;
+    private boolean closed;
+
+    private JournalingInputHandler(Builder builder) throws IOException {
+        this.delegate = builder.delegate;
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+
+        Files.createDirectories(directory);
+        List<Long> segments = JournalFormat.listSegments(directory);
+        this.segmentIndex = segments.isEmpty() ? -1 : segments.get(segments.size() - 1);
+        rollSegment(0);
+    }
+
+    /**
+     * Creates a {@link JournalingInputHandler} Builder with default values
+     *
+     * @param delegate  Non-null input handler whose inputs are journaled
+     * @param directory Non-null journal directory, created if it does not exist
+     *
+     * @return Builder instance
+     */
+    public static Builder builder(@NotNull @NonNull InputHandler delegate, @NotNull @NonNull Path directory) {
+        return new Builder(delegate, directory);
+    }
+
+    @Override
+    public @Nullable String getNextInput() {
+        return append(delegate.getNextInput());
+    }
+
+    @Override
+    public @Nullable String getNextInput(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return append(delegate.getNextInput(timeout, unit));
+    }
+
+    @Override
+    public int drainTo(@NotNull List<String> inputs, int maxInputs) {
+        int start = inputs.size();
+        int drained = delegate.drainTo(inputs, maxInputs);
+
+        for (int i = start; i < start + drained; i++) {
+            append(inputs.get(i));
+        }
+
+        return drained;
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return delegate.isEndOfStream();
+    }
+
+    /**
+     * Returns the number of inputs journaled by this instance
+     *
+     * @return Number of journaled inputs
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Forces the journaled inputs to be written to the disk
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Forces the journaled inputs to be written to the disk and stops journaling. Inputs returned after closing are not
+     * journaled. Does not close the delegate.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        segment.force();
+        segment = null; // Unmapped by the garbage collector
+        closed = true;
+    }
+
+    /**
+     * Appends the input to the journal
+     *
+     * @param input Input, may be null
+     *
+     * @return The input
+     *
+     * @throws UncheckedIOException If a new segment could not be created
+     */
+    private synchronized String append(String input) {
+        if (input == null || closed) {
+            return input;
+        }
+
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        long now = System.nanoTime();
+        long elapsedMicros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(now - lastRecordNanos));
+        int maxRecordSize = 2 * JournalFormat.MAX_VARINT_SIZE + bytes.length + 1; // Including the end of segment marker
+
+        if (segment.remaining() < maxRecordSize) {
+            try {
+                rollSegment(maxRecordSize);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Could not create a new journal segment in " + directory, exception);
+            }
+        }
+
+        JournalFormat.writeVarint(segment, bytes.length + 1L);
+        JournalFormat.writeVarint(segment, elapsedMicros);
+        segment.put(bytes);
+
+        lastRecordNanos = now;
+        recordCount++;
+        return input;
+    }
+
+    /**
+     * Creates and maps a new segment
+     *
+     * @param minRecordSize Size of the record which must fit into the segment
+     *
+     * @throws IOException If the segment could not be created
+     */
+    private void rollSegment(int minRecordSize) throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+
+        segmentIndex++;
+        int size = Math.max(segmentSize, JournalFormat.HEADER_SIZE + minRecordSize);
+
+        try (FileChannel channel = FileChannel.open(JournalFormat.segmentPath(directory, segmentIndex), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // Mapping stays valid after the channel is closed
+        }
+
+        segment.putInt(JournalFormat.MAGIC);
+        segment.putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Builder for {@link JournalingInputHandler}
+     */
+    public static final class Builder {
+
+        private final InputHandler delegate;
+        private final Path directory;
+        private int segmentSize = 16 * 1024 * 1024;
+
+        private Builder(InputHandler delegate, Path directory) {
+            this.delegate = delegate;
+            this.directory = directory;
+        }
+
+        /**
+         * Sets the size of a segment file in bytes, 16 MiB by default
+         *
+         * @param segmentSize Segment size, at least 1 KiB
+         *
+         * @return Builder instance
+         */
+        public Builder setSegmentSize(int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("Segment size must be at least 1024 bytes");
+            }
+
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Builds a new instance of {@link JournalingInputHandler} and creates its first segment
+         *
+         * @return JournalingInputHandler instance
+         *
+         * @throws IOException If the journal directory or the segment could not be created
+         */
+        public JournalingInputHandler build() throws IOException {
+            return new JournalingInputHandler(this);
+        }
+    }
+}
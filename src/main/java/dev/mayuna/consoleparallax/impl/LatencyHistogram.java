@@ -0,0 +1,121 @@
+package dev.mayuna.consoleparallax.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of nanosecond latencies (similar to HdrHistogram)<br>
+ * Values are recorded with a relative precision of about 3 %, up to one hour. Recording is a single atomic increment
+ * (plus a compare-and-set loop when a new maximum is recorded).
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long MAX_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records a value
+     *
+     * @param valueNanos Value in nanoseconds, negative values are recorded as zero and values over one hour as one hour
+     */
+    public void record(long valueNanos) {
+        long value = Math.min(Math.max(valueNanos, 0), MAX_TRACKABLE_VALUE);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+
+        long currentMax;
+        while (value > (currentMax = maxValue.get()) && !maxValue.compareAndSet(currentMax, value)) {
+            // Retry
+        }
+    }
+
+    /**
+     * Returns the number of recorded values
+     *
+     * @return Number of recorded values
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the maximum recorded value
+     *
+     * @return Maximum value in nanoseconds, zero if nothing was recorded
+     */
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the value at the specified percentile<br>
+     * The result is the highest value equivalent to the bucket containing the percentile, capped by the maximum
+     * recorded value
+     *
+     * @param percentile Percentile between 0 and 100
+     *
+     * @return Value in nanoseconds, zero if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * total));
+        long cumulative = 0;
+
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(index), maxValue.get());
+            }
+        }
+
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the bucket index of the value
+     *
+     * @param value Non-negative value
+     *
+     * @return Bucket index
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> exponent);
+        return exponent * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the highest value which falls into the bucket
+     *
+     * @param index Bucket index
+     *
+     * @return Highest value of the bucket
+     */
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int exponent = (index - SUB_BUCKET_HALF_COUNT) / SUB_BUCKET_HALF_COUNT;
+        long subBucket = index - (long) exponent * SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
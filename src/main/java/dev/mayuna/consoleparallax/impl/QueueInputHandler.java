@@ -0,0 +1,112 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.InputHandler;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@link InputHandler} backed by a {@link BlockingQueue}<br>
+ * Useful for feeding input programmatically. Supports timed polling, batch draining and signals the end of stream once
+ * {@link #close()} is called and all submitted inputs were consumed.
+ */
+public final class QueueInputHandler implements InputHandler {
+
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String END_OF_STREAM = new String(""); // Compared by identity
+
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+    private volatile boolean endOfStream;
+
+    /**
+     * Creates a new QueueInputHandler
+     */
+    public QueueInputHandler() {
+    }
+
+    /**
+     * Submits an input
+     *
+     * @param input Non-null input
+     *
+     * @throws IllegalStateException If the input handler was closed
+     */
+    public void submit(@NotNull @NonNull String input) {
+        if (closed) {
+            throw new IllegalStateException("QueueInputHandler is closed");
+        }
+
+        queue.add(input);
+    }
+
+    /**
+     * Closes the input handler. Already submitted inputs will still be returned, after them, the end of stream is
+     * signalled.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        queue.add(END_OF_STREAM);
+    }
+
+    @Override
+    public @Nullable String getNextInput() {
+        try {
+            return unwrap(queue.take());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public @Nullable String getNextInput(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return unwrap(queue.poll(timeout, unit));
+    }
+
+    @SuppressWarnings("StringEquality")
+    @Override
+    public int drainTo(@NotNull List<String> inputs, int maxInputs) {
+        int start = inputs.size();
+        queue.drainTo(inputs, maxInputs);
+
+        if (inputs.removeIf(input -> input == END_OF_STREAM)) {
+            endOfStream = true;
+            queue.add(END_OF_STREAM);
+        }
+
+        return inputs.size() - start;
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    /**
+     * Translates the end of stream marker
+     *
+     * @param input Input from the queue
+     *
+     * @return Input or {@code null} if it was the end of stream marker
+     */
+    @SuppressWarnings("StringEquality")
+    private String unwrap(String input) {
+        if (input != END_OF_STREAM) {
+            return input;
+        }
+
+        endOfStream = true;
+        queue.add(END_OF_STREAM); // Other consumers should see it too
+        return null;
+    }
+}
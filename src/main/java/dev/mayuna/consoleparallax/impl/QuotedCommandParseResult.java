@@ -0,0 +1,65 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.CommandParseResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parse result of {@link QuotedCommandParser} for commands with flags<br>
+ * Flag tokens are kept as they were parsed and mapped only when {@link #getFlags()} is called for the first time
+ */
+final class QuotedCommandParseResult extends CommandParseResult {
+
+    private final String[] flagTokens;
+    private volatile Map<String, String> flags;
+
+    /**
+     * Creates a new QuotedCommandParseResult
+     *
+     * @param commandName Non-null command name
+     * @param arguments   Non-null command arguments
+     * @param flagTokens  Non-null flag tokens, including the leading {@code --}
+     */
+    QuotedCommandParseResult(@NotNull String commandName, @NotNull String[] arguments, @NotNull String[] flagTokens) {
+        super(commandName, arguments);
+        this.flagTokens = flagTokens;
+    }
+
+    @Override
+    public @NotNull Map<String, String> getFlags() {
+        Map<String, String> flags = this.flags;
+
+        if (flags == null) {
+            flags = mapFlags(flagTokens);
+            this.flags = flags;
+        }
+
+        return flags;
+    }
+
+    /**
+     * Maps flag tokens to flag names and values. If a flag is specified multiple times, the last value is used.
+     *
+     * @param flagTokens Flag tokens
+     *
+     * @return Non-null immutable map of flags in the order of their first occurrence
+     */
+    private static Map<String, String> mapFlags(String[] flagTokens) {
+        Map<String, String> flags = new LinkedHashMap<>(flagTokens.length * 2);
+
+        for (String flagToken : flagTokens) {
+            int separator = flagToken.indexOf('=');
+
+            if (separator == -1) {
+                flags.put(flagToken.substring(2), "");
+            } else {
+                flags.put(flagToken.substring(2, separator), flagToken.substring(separator + 1));
+            }
+        }
+
+        return Collections.unmodifiableMap(flags);
+    }
+}
@@ -0,0 +1,277 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.CommandParseResult;
+import dev.mayuna.consoleparallax.CommandParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command parser with support for quotes, escapes and flags<br>
+ * The command is tokenized by a single-pass state machine directly over the {@link CharSequence}:
+ * <ul>
+ *     <li>Tokens are separated by whitespace (spaces, tabs, etc.)</li>
+ *     <li>{@code "double quotes"} and {@code 'single quotes'} group characters, including whitespace, into a single
+ *     token; quotes may appear anywhere in a token, e.g. {@code --name="John Doe"}</li>
+ *     <li>Backslash escapes the next character outside of quotes and within double quotes, single quotes are
+ *     literal</li>
+ *     <li>Unquoted tokens starting with {@code --} are flags ({@code --key=value} or {@code --key}, which has an empty
+ *     value), an unquoted {@code --} ends flags and all following tokens are arguments</li>
+ * </ul>
+ * First token is the command name, the rest are arguments and flags. Unterminated quotes end with the input.<br>
+ * Pipelines are separated by unquoted and unescaped {@code |} characters, see {@link #parsePipeline(String)}.<br>
+ * Flags are mapped lazily on the first {@link CommandParseResult#getFlags()} call.
+ */
+public final class QuotedCommandParser implements CommandParser {
+
+    private static final int WHITESPACE = 0;
+    private static final int UNQUOTED = 1;
+    private static final int SINGLE_QUOTED = 2;
+    private static final int DOUBLE_QUOTED = 3;
+
+    @Override
+    public @NotNull CommandParseResult parseCommand(@NotNull String command) {
+        return parseCommand((CharSequence) command);
+    }
+
+    @Override
+    public @NotNull CommandParseResult parseCommand(@NotNull CharSequence command) {
+        int length = command.length();
+        Tokens tokens = new Tokens();
+        StringBuilder builder = null;
+        int state = WHITESPACE;
+        int tokenStart = 0;
+        int unquotedPrefix = -1; // Number of characters before the first quote or escape, -1 if the token has none
+
+        for (int i = 0; i < length; i++) {
+            char character = command.charAt(i);
+
+            switch (state) {
+                case WHITESPACE:
+                    if (isWhitespace(character)) {
+                        continue;
+                    }
+
+                    state = UNQUOTED;
+                    tokenStart = i;
+                    unquotedPrefix = -1;
+                    // Falls through, the character starts a token
+                case UNQUOTED:
+                    if (isWhitespace(character)) {
+                        tokens.add(command, tokenStart, i, builder, unquotedPrefix);
+                        state = WHITESPACE;
+                        break;
+                    }
+
+                    if (character != '"' && character != '\'' && character != '\\') {
+                        if (unquotedPrefix != -1) {
+                            builder.append(character);
+                        }
+                        break;
+                    }
+
+                    if (unquotedPrefix == -1) {
+                        unquotedPrefix = i - tokenStart;
+
+                        if (builder == null) {
+                            builder = new StringBuilder(length - tokenStart);
+                        }
+
+                        builder.setLength(0);
+                        builder.append(command, tokenStart, i);
+                    }
+
+                    if (character == '"') {
+                        state = DOUBLE_QUOTED;
+                    } else if (character == '\'') {
+                        state = SINGLE_QUOTED;
+                    } else {
+                        builder.append(i + 1 < length ? command.charAt(++i) : character);
+                    }
+                    break;
+                case SINGLE_QUOTED:
+                    if (character == '\'') {
+                        state = UNQUOTED;
+                    } else {
+                        builder.append(character);
+                    }
+                    break;
+                case DOUBLE_QUOTED:
+                    if (character == '"') {
+                        state = UNQUOTED;
+                    } else if (character == '\\' && i + 1 < length) {
+                        builder.append(command.charAt(++i));
+                    } else {
+                        builder.append(character);
+                    }
+                    break;
+            }
+        }
+
+        if (state != WHITESPACE) {
+            tokens.add(command, tokenStart, length, builder, unquotedPrefix);
+        }
+
+        return tokens.toResult();
+    }
+
+    /**
+     * Parses a pipeline of commands, every {@code |} character outside of quotes and not escaped separates two stages
+     *
+     * @param input Non-null input to parse
+     *
+     * @return Non-null list of parsed commands, one per pipeline stage
+     *
+     * @throws IllegalArgumentException If a stage of the pipeline has no command (e.g. {@code list |})
+     */
+    @Override
+    public @NotNull List<CommandParseResult> parsePipeline(@NotNull String input) {
+        int length = input.length();
+        List<CommandParseResult> stages = null;
+        int state = UNQUOTED;
+        int stageStart = 0;
+
+        for (int i = 0; i < length; i++) {
+            char character = input.charAt(i);
+
+            switch (state) {
+                case UNQUOTED:
+                    if (character == '|') {
+                        if (stages == null) {
+                            stages = new ArrayList<>();
+                        }
+
+                        stages.add(parseStage(input.substring(stageStart, i), stages.size()));
+                        stageStart = i + 1;
+                    } else if (character == '"') {
+                        state = DOUBLE_QUOTED;
+                    } else if (character == '\'') {
+                        state = SINGLE_QUOTED;
+                    } else if (character == '\\') {
+                        i++;
+                    }
+                    break;
+                case SINGLE_QUOTED:
+                    if (character == '\'') {
+                        state = UNQUOTED;
+                    }
+                    break;
+                case DOUBLE_QUOTED:
+                    if (character == '"') {
+                        state = UNQUOTED;
+                    } else if (character == '\\') {
+                        i++;
+                    }
+                    break;
+            }
+        }
+
+        if (stages == null) {
+            return Collections.singletonList(parseCommand(input));
+        }
+
+        stages.add(parseStage(input.substring(stageStart), stages.size()));
+        return stages;
+    }
+
+    /**
+     * Parses a single stage of a pipeline
+     *
+     * @param stage Stage input
+     * @param index Zero-based index of the stage
+     *
+     * @return Non-null parsed command
+     *
+     * @throws IllegalArgumentException If the stage has no command
+     */
+    private CommandParseResult parseStage(String stage, int index) {
+        CommandParseResult result = parseCommand(stage);
+
+        if (result.getCommandName().isEmpty()) {
+            throw new IllegalArgumentException("Pipeline stage " + (index + 1) + " has no command");
+        }
+
+        return result;
+    }
+
+    /**
+     * Determines if the character separates tokens. Matches {@link String#trim()} and
+     * {@link Character#isWhitespace(char)}
+     *
+     * @param character Character
+     *
+     * @return {@code true} if the character is whitespace
+     */
+    private static boolean isWhitespace(char character) {
+        return character <= ' ' || Character.isWhitespace(character);
+    }
+
+    /**
+     * Collects tokens of a single command
+     */
+    private static final class Tokens {
+
+        private String commandName;
+        private List<String> arguments;
+        private List<String> flags;
+        private boolean endOfFlags;
+
+        /**
+         * Adds a token
+         *
+         * @param command        Command
+         * @param start          Start index of the token (inclusive)
+         * @param end            End index of the token (exclusive)
+         * @param builder        Builder holding the unquoted and unescaped token if it has any quotes or escapes
+         * @param unquotedPrefix Number of characters before the first quote or escape, -1 if the token has none
+         */
+        private void add(CharSequence command, int start, int end, StringBuilder builder, int unquotedPrefix) {
+            String token = unquotedPrefix == -1 ? command.subSequence(start, end).toString() : builder.toString();
+
+            if (commandName == null) {
+                commandName = token;
+                return;
+            }
+
+            boolean unquotedDashes = unquotedPrefix == -1 || unquotedPrefix >= 2;
+
+            if (!endOfFlags && unquotedDashes && token.startsWith("--")) {
+                if (token.length() == 2) {
+                    endOfFlags = true;
+                    return;
+                }
+
+                if (flags == null) {
+                    flags = new ArrayList<>();
+                }
+
+                flags.add(token);
+                return;
+            }
+
+            if (arguments == null) {
+                arguments = new ArrayList<>();
+            }
+
+            arguments.add(token);
+        }
+
+        /**
+         * Creates the parse result
+         *
+         * @return Non-null parse result
+         */
+        private CommandParseResult toResult() {
+            String name = commandName == null ? "" : commandName;
+            String[] argumentArray = arguments == null ? CommandParseResult.EMPTY_ARGUMENTS : arguments.toArray(new String[0]);
+
+            if (flags == null) {
+                return new CommandParseResult(name, argumentArray);
+            }
+
+            return new QuotedCommandParseResult(name, argumentArray, flags.toArray(new String[0]));
+        }
+    }
+}
@@ -5,22 +5,107 @@ import dev.mayuna.consoleparallax.CommandParser;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Simple command parser which takes the command, trims it and splits it by spaces<br>
- * First element is the command name, the rest are arguments
+ * Simple command parser which splits the command by whitespace (spaces, tabs, etc.)<br>
+ * First token is the command name, the rest are arguments<br>
+ * The command is tokenized in place, without regular expressions and intermediate strings or arrays<br>
+ * Pipelines are not supported, {@code |} is a regular character (see {@link QuotedCommandParser})
  */
 public final class SimpleCommandParser implements CommandParser {
 
     @Override
     public @NotNull CommandParseResult parseCommand(@NotNull String command) {
-        command = command.trim().replaceAll(" +", " ");
-        String[] splits = command.split(" "); // TODO: Test if returns empty strings when no name/arguments
-        String commandName = splits[0];
-        String[] arguments = new String[splits.length - 1];
+        int length = command.length();
+        int nameStart = skipWhitespace(command, 0, length);
+        int nameEnd = skipToken(command, nameStart, length);
+        String commandName = command.substring(nameStart, nameEnd);
 
-        if (arguments.length > 0) {
-            System.arraycopy(splits, 1, arguments, 0, arguments.length);
+        int argumentCount = countTokens(command, nameEnd, length);
+
+        if (argumentCount == 0) {
+            return new CommandParseResult(commandName, CommandParseResult.EMPTY_ARGUMENTS);
+        }
+
+        String[] arguments = new String[argumentCount];
+        int position = nameEnd;
+
+        for (int i = 0; i < argumentCount; i++) {
+            int start = skipWhitespace(command, position, length);
+            position = skipToken(command, start, length);
+            arguments[i] = command.substring(start, position);
         }
 
         return new CommandParseResult(commandName, arguments);
     }
+
+    /**
+     * Counts the tokens in the specified range
+     *
+     * @param command Command
+     * @param from    Start index (inclusive)
+     * @param to      End index (exclusive)
+     *
+     * @return Number of tokens
+     */
+    private static int countTokens(String command, int from, int to) {
+        int count = 0;
+        boolean inToken = false;
+
+        for (int i = from; i < to; i++) {
+            boolean whitespace = isWhitespace(command.charAt(i));
+
+            if (!whitespace && !inToken) {
+                count++;
+            }
+
+            inToken = !whitespace;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the index of the first non-whitespace character
+     *
+     * @param command Command
+     * @param from    Start index (inclusive)
+     * @param to      End index (exclusive)
+     *
+     * @return Index of the first non-whitespace character or {@code to}
+     */
+    private static int skipWhitespace(String command, int from, int to) {
+        while (from < to && isWhitespace(command.charAt(from))) {
+            from++;
+        }
+
+        return from;
+    }
+
+    /**
+     * Returns the index of the first whitespace character
+     *
+     * @param command Command
+     * @param from    Start index (inclusive)
+     * @param to      End index (exclusive)
+     *
+     * @return Index of the first whitespace character or {@code to}
+     */
+    private static int skipToken(String command, int from, int to) {
+        while (from < to && !isWhitespace(command.charAt(from))) {
+            from++;
+        }
+
+        return from;
+    }
+
+    /**
+     * Determines if the character separates tokens. Matches {@link String#trim()} and
+     * {@link Character#isWhitespace(char)}
+     *
+     * @param character Character
+     *
+     * @return {@code true} if the character is whitespace
+     */
+    private static boolean isWhitespace(char character) {
+        return character <= ' ' || Character.isWhitespace(character);
+    }
 }
@@ -0,0 +1,581 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.ConsoleParallax;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server which executes commands received over TCP (or Unix domain sockets on Java 16+)<br>
+ * A single selector thread accepts connections and frames input lines for all of them, there is no thread per
+ * connection. Each connection is a {@link SocketSession}, which is the input and output handler of a
+ * {@link ConsoleParallax} instance derived from the server's instance: all sessions share its command registry,
+ * command executor and execution mode. Lines of a single session are executed in order.
+ */
+public final class SocketCommandServer implements AutoCloseable {
+
+    private static final int MAX_INPUT_BATCH_SIZE = 256;
+    private static final long ACCEPT_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ConsoleParallax consoleParallax;
+    private final SocketAddress address;
+    private final Charset charset;
+    private final int readBufferSize;
+    private final int outputBufferCapacity;
+    private final int maxLineLength;
+    private final int maxPendingInputs;
+
+    private final Set<SocketSession> sessions = ConcurrentHashMap.newKeySet();
+    private final Queue<SocketSession> dirtySessions = new ConcurrentLinkedQueue<>();
+    private final Object lifecycleMutex = new Object();
+    private volatile Selector selector;
+    private ServerSocketChannel serverChannel;
+    private SelectionKey acceptKey;
+    private long acceptResumeNanos; // Accessed by the selector thread only
+    private boolean acceptPaused; // Accessed by the selector thread only
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    private SocketCommandServer(Builder builder) {
+        this.consoleParallax = builder.consoleParallax;
+        this.address = builder.address;
+        this.charset = builder.charset;
+        this.readBufferSize = builder.readBufferSize;
+        this.outputBufferCapacity = builder.outputBufferCapacity;
+        this.maxLineLength = builder.maxLineLength;
+        this.maxPendingInputs = builder.maxPendingInputs;
+    }
+
+    /**
+     * Creates a {@link SocketCommandServer} Builder with default values
+     *
+     * @param consoleParallax Non-null instance whose commands are executed
+     *
+     * @return Builder instance
+     */
+    public static Builder builder(@NotNull @NonNull ConsoleParallax consoleParallax) {
+        return new Builder(consoleParallax);
+    }
+
+    /**
+     * Binds the server socket and starts the selector thread
+     *
+     * @throws IOException           If the socket could not be bound
+     * @throws IllegalStateException If the server was already started
+     */
+    public void start() throws IOException {
+        synchronized (lifecycleMutex) {
+            if (selector != null) {
+                throw new IllegalStateException("SocketCommandServer was already started");
+            }
+
+            Selector newSelector = Selector.open();
+
+            try {
+                serverChannel = openServerChannel(address);
+                serverChannel.bind(address);
+                serverChannel.configureBlocking(false);
+                acceptKey = serverChannel.register(newSelector, SelectionKey.OP_ACCEPT);
+            } catch (IOException | RuntimeException exception) {
+                newSelector.close();
+
+                if (serverChannel != null) {
+                    serverChannel.close();
+                }
+
+                throw exception;
+            }
+
+            selector = newSelector;
+            running = true;
+            selectorThread = new Thread(this::runSelector, "ConsoleParallax Socket Server");
+            selectorThread.setDaemon(true);
+            selectorThread.start();
+        }
+    }
+
+    /**
+     * Returns the address the server is bound to, e.g. with the actual port when bound to port 0
+     *
+     * @return Local address
+     *
+     * @throws IOException           If an I/O error occurs
+     * @throws IllegalStateException If the server was not started
+     */
+    public @NotNull SocketAddress getLocalAddress() throws IOException {
+        synchronized (lifecycleMutex) {
+            if (serverChannel == null) {
+                throw new IllegalStateException("SocketCommandServer was not started");
+            }
+
+            return serverChannel.getLocalAddress();
+        }
+    }
+
+    /**
+     * Returns the number of open sessions
+     *
+     * @return Number of open sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the charset of the input and output
+     *
+     * @return Charset
+     */
+    public @NotNull Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Stops the selector thread and closes the server socket and all sessions, discarding their pending output.
+     * Commands already submitted to the command executor still run.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+
+        synchronized (lifecycleMutex) {
+            if (!running) {
+                return;
+            }
+
+            running = false;
+            thread = selectorThread;
+            selector.wakeup();
+            thread.interrupt(); // The selector thread may wait for space in the command queue
+        }
+
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Schedules an update of the session's state on the selector thread
+     *
+     * @param session Session
+     */
+    void markDirty(SocketSession session) {
+        Selector currentSelector = selector;
+
+        if (currentSelector == null || !running) {
+            return;
+        }
+
+        dirtySessions.add(session);
+        currentSelector.wakeup();
+    }
+
+    /**
+     * Removes a closed session
+     *
+     * @param session Session
+     */
+    void removeSession(SocketSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * Selector thread loop
+     */
+    private void runSelector() {
+        try {
+            while (running) {
+                select();
+
+                SocketSession dirtySession;
+
+                while ((dirtySession = dirtySessions.poll()) != null) {
+                    dirtySession.updateInterest();
+                }
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    SocketSession session = (SocketSession) key.attachment();
+
+                    try {
+                        if (key.isReadable()) {
+                            session.read();
+                        }
+
+                        if (key.isValid() && key.isWritable()) {
+                            session.flush();
+                        }
+                    } catch (IOException exception) {
+                        session.closeNow();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            reportError(exception);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Waits for ready channels, resuming accepting connections once the backoff after a failed accept elapsed
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    private void select() throws IOException {
+        if (!acceptPaused) {
+            selector.select();
+            return;
+        }
+
+        long remainingNanos = acceptResumeNanos - System.nanoTime();
+
+        if (remainingNanos > 0) {
+            selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+        }
+
+        if (acceptResumeNanos - System.nanoTime() <= 0) {
+            acceptPaused = false;
+            acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    /**
+     * Accepts pending connections<br>
+     * A connection which could not be set up is reported and closed. If accepting itself fails (e.g. the process ran
+     * out of file descriptors), accepting is paused for {@link #ACCEPT_BACKOFF_NANOS}, so the selector does not spin on
+     * the pending connection. The server keeps running in both cases.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException exception) {
+                if (!running) {
+                    return; // Closing, e.g. interrupted by close()
+                }
+
+                reportError(new IOException("Could not accept a connection", exception));
+                acceptPaused = true;
+                acceptResumeNanos = System.nanoTime() + ACCEPT_BACKOFF_NANOS;
+                acceptKey.interestOps(0);
+                return;
+            }
+
+            if (channel == null) {
+                return;
+            }
+
+            try {
+                channel.configureBlocking(false);
+
+                SocketSession session = new SocketSession(this, channel, channel.getRemoteAddress(), readBufferSize, outputBufferCapacity, maxLineLength, maxPendingInputs);
+                SessionConsoleParallax sessionConsoleParallax = new SessionConsoleParallax(consoleParallax, session);
+                session.setInputListener(sessionConsoleParallax::scheduleDrain);
+                session.setSelectionKey(channel.register(selector, SelectionKey.OP_READ, session));
+                sessions.add(session);
+            } catch (IOException exception) {
+                reportError(new IOException("Could not set up a connection", exception));
+
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Connection is being discarded anyway
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes all sessions, the server socket and the selector
+     */
+    private void shutdown() {
+        running = false;
+
+        for (SocketSession session : new ArrayList<>(sessions)) {
+            session.closeNow();
+        }
+
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+            // Server is being closed anyway
+        }
+
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // Server is being closed anyway
+        }
+    }
+
+    /**
+     * Passes the exception to the current thread's uncaught exception handler
+     *
+     * @param exception Exception
+     */
+    private static void reportError(Exception exception) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+    }
+
+    /**
+     * Opens a server socket channel for the address, using reflection for Unix domain socket addresses (Java 16+)
+     *
+     * @param address Address
+     *
+     * @return Server socket channel
+     *
+     * @throws IOException If the channel could not be opened
+     */
+    private static ServerSocketChannel openServerChannel(SocketAddress address) throws IOException {
+        if (!"java.net.UnixDomainSocketAddress".equals(address.getClass().getName())) {
+            return ServerSocketChannel.open();
+        }
+
+        try {
+            ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            return (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+        } catch (ReflectiveOperationException exception) {
+            throw new IOException("Could not open Unix domain socket channel", exception);
+        }
+    }
+
+    /**
+     * {@link ConsoleParallax} instance of a single session<br>
+     * Instead of a command reader thread, inputs framed by the selector thread are drained by a single task on the
+     * command executor at a time, so the session's commands are executed in order. The task is admitted through the
+     * parent's bounded command queue, counting the session's pending inputs, so the {@link dev.mayuna.consoleparallax.OverloadPolicy}
+     * applies to remote input as well: with {@code BLOCK}, the selector thread stops reading from all connections until
+     * there is space in the queue; with {@code REJECT} or {@code SHED_OLDEST}, the session's pending inputs are
+     * discarded with an error.
+     */
+    private static final class SessionConsoleParallax extends ConsoleParallax {
+
+        private final SocketSession session;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private SessionConsoleParallax(ConsoleParallax parent, SocketSession session) {
+            super(parent, session, session);
+            this.session = session;
+        }
+
+        /**
+         * Submits a task draining the session's inputs, unless such task is already pending
+         */
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                admitCommandTask(this::drain, Math.max(1, session.getPendingInputCount()), exception -> rejectPendingInputs());
+            } catch (RejectedExecutionException exception) {
+                draining.set(false);
+                session.error("Server is shutting down");
+                session.close();
+            }
+        }
+
+        /**
+         * Discards the session's pending inputs after the drain task was rejected by the overload policy
+         */
+        private void rejectPendingInputs() {
+            List<String> inputs = new ArrayList<>();
+            session.drainTo(inputs, Integer.MAX_VALUE);
+            draining.set(false);
+            session.error(inputs.size() + " commands rejected, command queue is full");
+
+            // Input may have arrived after draining, but before the flag was cleared
+            if (session.hasPendingInput()) {
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Processes the session's inputs until there are none, closing the session after the end of stream
+         */
+        private void drain() {
+            List<String> inputs = new ArrayList<>();
+
+            while (true) {
+                inputs.clear();
+
+                if (session.drainTo(inputs, MAX_INPUT_BATCH_SIZE) > 0) {
+                    processCommands(inputs);
+                    continue;
+                }
+
+                draining.set(false);
+
+                if (session.isEndOfStream()) {
+                    session.close();
+                    return;
+                }
+
+                // Input may have arrived after draining, but before the flag was cleared
+                if (!session.hasPendingInput() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link SocketCommandServer}
+     */
+    public static final class Builder {
+
+        private final ConsoleParallax consoleParallax;
+        private SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        private Charset charset = StandardCharsets.UTF_8;
+        private int readBufferSize = 8192;
+        private int outputBufferCapacity = 64 * 1024;
+        private int maxLineLength = 4096;
+        private int maxPendingInputs = 256;
+
+        private Builder(ConsoleParallax consoleParallax) {
+            this.consoleParallax = consoleParallax;
+        }
+
+        /**
+         * Sets the address to bind to, loopback with an ephemeral port by default<br>
+         * On Java 16+, a {@code UnixDomainSocketAddress} may be used as well
+         *
+         * @param address Non-null address
+         *
+         * @return Builder instance
+         */
+        public Builder setAddress(@NotNull @NonNull SocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * Sets the charset of the input and output, UTF-8 by default
+         *
+         * @param charset Non-null charset
+         *
+         * @return Builder instance
+         */
+        public Builder setCharset(@NotNull @NonNull Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * Sets the size of each session's read buffer in bytes
+         *
+         * @param readBufferSize Positive read buffer size
+         *
+         * @return Builder instance
+         */
+        public Builder setReadBufferSize(int readBufferSize) {
+            if (readBufferSize <= 0) {
+                throw new IllegalArgumentException("Read buffer size must be positive");
+            }
+
+            this.readBufferSize = readBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the capacity of each session's output buffer in bytes. Messages which do not fit into the buffer are
+         * dropped.
+         *
+         * @param outputBufferCapacity Positive output buffer capacity
+         *
+         * @return Builder instance
+         */
+        public Builder setOutputBufferCapacity(int outputBufferCapacity) {
+            if (outputBufferCapacity <= 0) {
+                throw new IllegalArgumentException("Output buffer capacity must be positive");
+            }
+
+            this.outputBufferCapacity = outputBufferCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum length of an input line in characters. Longer lines are discarded with an error.
+         *
+         * @param maxLineLength Positive maximum line length
+         *
+         * @return Builder instance
+         */
+        public Builder setMaxLineLength(int maxLineLength) {
+            if (maxLineLength <= 0) {
+                throw new IllegalArgumentException("Max line length must be positive");
+            }
+
+            this.maxLineLength = maxLineLength;
+            return this;
+        }
+
+        /**
+         * Sets the number of received but not yet executed lines after which a session stops reading from its socket
+         *
+         * @param maxPendingInputs Positive number of pending inputs
+         *
+         * @return Builder instance
+         */
+        public Builder setMaxPendingInputs(int maxPendingInputs) {
+            if (maxPendingInputs <= 0) {
+                throw new IllegalArgumentException("Max pending inputs must be positive");
+            }
+
+            this.maxPendingInputs = maxPendingInputs;
+            return this;
+        }
+
+        /**
+         * Builds a new instance of {@link SocketCommandServer}, see {@link SocketCommandServer#start()}
+         *
+         * @return SocketCommandServer instance
+         */
+        public SocketCommandServer build() {
+            return new SocketCommandServer(this);
+        }
+    }
+}
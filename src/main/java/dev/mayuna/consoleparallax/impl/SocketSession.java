@@ -0,0 +1,454 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.InputHandler;
+import dev.mayuna.consoleparallax.OutputHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection of a {@link SocketCommandServer}, acting as the {@link InputHandler} and {@link OutputHandler} of a single
+ * remote session<br>
+ * Input lines are framed by the server's selector thread without blocking. Output messages are encoded into a bounded
+ * direct buffer, which the selector thread writes to the socket; messages which do not fit into the buffer are
+ * dropped. Errors are prefixed with {@link #ERROR_PREFIX}.
+ */
+public final class SocketSession implements InputHandler, OutputHandler {
+
+    /**
+     * Prefix of error messages, so clients may distinguish them from informational messages
+     */
+    public static final String ERROR_PREFIX = "ERROR: ";
+
+    private static final long BLOCKING_POLL_MILLIS = 100;
+
+    private final SocketCommandServer server;
+    private final SocketChannel channel;
+    private final SocketAddress remoteAddress;
+    private final int maxLineLength;
+    private final int maxPendingInputs;
+
+    // Accessed only by the selector thread
+    private final ByteBuffer readBuffer;
+    private final CharBuffer decodedChars;
+    private final CharsetDecoder decoder;
+    private final StringBuilder line = new StringBuilder();
+    private boolean discardingLine;
+    private SelectionKey selectionKey;
+    private boolean readPaused;
+
+    private final BlockingQueue<String> inputs = new LinkedBlockingQueue<>();
+    private volatile boolean inputClosed;
+    private volatile Runnable inputListener = () -> {
+    };
+
+    private final Object outputLock = new Object();
+    private final ByteBuffer outputBuffer;
+    private final CharsetEncoder encoder;
+    private long droppedMessages;
+    private boolean closed;
+    private volatile boolean closeWhenFlushed;
+
+    /**
+     * Creates a new SocketSession
+     *
+     * @param server               Server which accepted the connection
+     * @param channel              Non-blocking socket channel
+     * @param remoteAddress        Remote address of the connection
+     * @param readBufferSize       Size of the read buffer in bytes
+     * @param outputBufferCapacity Capacity of the output buffer in bytes
+     * @param maxLineLength        Maximum length of an input line in characters
+     * @param maxPendingInputs     Number of pending inputs after which the session stops reading
+     */
+    SocketSession(SocketCommandServer server, SocketChannel channel, SocketAddress remoteAddress, int readBufferSize, int outputBufferCapacity, int maxLineLength, int maxPendingInputs) {
+        this.server = server;
+        this.channel = channel;
+        this.remoteAddress = remoteAddress;
+        this.maxLineLength = maxLineLength;
+        this.maxPendingInputs = maxPendingInputs;
+        this.readBuffer = ByteBuffer.allocateDirect(readBufferSize);
+        this.decodedChars = CharBuffer.allocate(readBufferSize);
+        this.decoder = server.getCharset().newDecoder()
+                             .onMalformedInput(CodingErrorAction.REPLACE)
+                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.outputBuffer = ByteBuffer.allocateDirect(outputBufferCapacity);
+        this.encoder = server.getCharset().newEncoder()
+                             .onMalformedInput(CodingErrorAction.REPLACE)
+                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Returns the remote address of the connection
+     *
+     * @return Remote address, null if it is not known
+     */
+    public @Nullable SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * Determines if the connection is open
+     *
+     * @return {@code true} if the connection is open
+     */
+    public boolean isOpen() {
+        synchronized (outputLock) {
+            return !closed;
+        }
+    }
+
+    /**
+     * Returns the number of output messages dropped because the output buffer was full
+     *
+     * @return Number of dropped messages
+     */
+    public long getDroppedMessageCount() {
+        synchronized (outputLock) {
+            return droppedMessages;
+        }
+    }
+
+    @Override
+    public @Nullable String getNextInput() {
+        try {
+            String input;
+
+            do {
+                input = inputs.poll(BLOCKING_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } while (input == null && !inputClosed);
+
+            return input;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public @Nullable String getNextInput(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return inputs.poll(timeout, unit);
+    }
+
+    @Override
+    public int drainTo(@NotNull List<String> inputs, int maxInputs) {
+        int drained = this.inputs.drainTo(inputs, maxInputs);
+
+        if (drained > 0 && this.inputs.size() + drained >= maxPendingInputs) {
+            server.markDirty(this); // Reading may have been paused, selector thread resumes it
+        }
+
+        return drained;
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return inputClosed && inputs.isEmpty();
+    }
+
+    @Override
+    public void info(@NotNull String message) {
+        write(message);
+    }
+
+    @Override
+    public void error(@NotNull String message) {
+        write(ERROR_PREFIX + message);
+    }
+
+    /**
+     * Closes the connection once all output written so far is sent
+     */
+    public void close() {
+        closeWhenFlushed = true;
+        server.markDirty(this);
+    }
+
+    /**
+     * Determines if there are inputs which were not drained yet
+     *
+     * @return {@code true} if there are pending inputs
+     */
+    boolean hasPendingInput() {
+        return !inputs.isEmpty();
+    }
+
+    /**
+     * Returns the number of inputs which were not drained yet
+     *
+     * @return Number of pending inputs
+     */
+    int getPendingInputCount() {
+        return inputs.size();
+    }
+
+    /**
+     * Sets the listener notified (from the selector thread) when new input is available or the input is closed
+     *
+     * @param inputListener Listener
+     */
+    void setInputListener(Runnable inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    /**
+     * Registers the channel with the selector. Called by the selector thread
+     *
+     * @param selectionKey Selection key of the channel
+     */
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    /**
+     * Reads available bytes and frames them into lines. Called by the selector thread<br>
+     * At the end of the stream, the last line is framed even if it is not terminated by a line ending
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    void read() throws IOException {
+        int read = channel.read(readBuffer);
+        boolean endOfStream = read == -1;
+        readBuffer.flip();
+
+        int framedLines = decodeLines(endOfStream);
+
+        if (endOfStream) {
+            CoderResult result;
+
+            do {
+                result = decoder.flush(decodedChars);
+                decodedChars.flip();
+                framedLines += frameLines(decodedChars);
+                decodedChars.clear();
+            } while (result.isOverflow());
+
+            framedLines += endLine();
+        }
+
+        readBuffer.compact();
+
+        if (endOfStream) {
+            inputClosed = true;
+            updateInterest();
+            inputListener.run();
+            return;
+        }
+
+        if (inputs.size() >= maxPendingInputs) {
+            readPaused = true;
+            updateInterest();
+        }
+
+        if (framedLines > 0) {
+            inputListener.run();
+        }
+    }
+
+    /**
+     * Writes buffered output to the socket. Called by the selector thread
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    void flush() throws IOException {
+        synchronized (outputLock) {
+            outputBuffer.flip();
+
+            try {
+                channel.write(outputBuffer);
+            } finally {
+                outputBuffer.compact();
+            }
+        }
+
+        updateInterest();
+    }
+
+    /**
+     * Updates the interest set of the selection key according to the state of the session, closing the session if it
+     * should be closed. Called by the selector thread
+     */
+    void updateInterest() {
+        if (selectionKey == null || !selectionKey.isValid()) {
+            return;
+        }
+
+        if (readPaused && inputs.size() < maxPendingInputs) {
+            readPaused = false;
+        }
+
+        int interestOps = 0;
+
+        if (!readPaused && !inputClosed) {
+            interestOps |= SelectionKey.OP_READ;
+        }
+
+        synchronized (outputLock) {
+            if (outputBuffer.position() > 0) {
+                interestOps |= SelectionKey.OP_WRITE;
+            } else if (closeWhenFlushed) {
+                closeNow();
+                return;
+            }
+        }
+
+        selectionKey.interestOps(interestOps);
+    }
+
+    /**
+     * Closes the connection immediately, discarding buffered output
+     */
+    void closeNow() {
+        synchronized (outputLock) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            outputBuffer.clear();
+        }
+
+        inputClosed = true;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Connection is being closed anyway
+        }
+
+        server.removeSession(this);
+        inputListener.run();
+    }
+
+    /**
+     * Decodes the bytes of the read buffer and frames them into lines
+     *
+     * @param endOfInput Whether there are no more bytes to read, so incomplete characters are decoded as malformed
+     *
+     * @return Number of framed lines
+     */
+    private int decodeLines(boolean endOfInput) {
+        int framedLines = 0;
+
+        while (true) {
+            CoderResult result = decoder.decode(readBuffer, decodedChars, endOfInput);
+            decodedChars.flip();
+            framedLines += frameLines(decodedChars);
+            decodedChars.clear();
+
+            if (result.isUnderflow()) {
+                return framedLines;
+            }
+        }
+    }
+
+    /**
+     * Splits the decoded characters into lines, handling both LF and CRLF line endings
+     *
+     * @param chars Decoded characters
+     *
+     * @return Number of framed lines
+     */
+    private int frameLines(CharBuffer chars) {
+        int framedLines = 0;
+
+        while (chars.hasRemaining()) {
+            char character = chars.get();
+
+            if (character == '\n') {
+                framedLines += endLine();
+                continue;
+            }
+
+            if (discardingLine) {
+                continue;
+            }
+
+            if (line.length() >= maxLineLength + 1) { // One character more for a possible CR
+                discardingLine = true;
+                line.setLength(0);
+                continue;
+            }
+
+            line.append(character);
+        }
+
+        return framedLines;
+    }
+
+    /**
+     * Ends the current line, queueing it as an input unless it is empty or too long
+     *
+     * @return Number of framed lines, zero or one
+     */
+    private int endLine() {
+        int length = line.length();
+        int framedLines = 0;
+
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+
+        if (discardingLine) {
+            discardingLine = false;
+            error("Line is longer than " + maxLineLength + " characters");
+        } else if (line.length() > 0) {
+            inputs.add(line.toString());
+            framedLines++;
+        }
+
+        line.setLength(0);
+        return framedLines;
+    }
+
+    /**
+     * Encodes the message into the output buffer, dropping it if it does not fit
+     *
+     * @param message Message
+     */
+    private void write(String message) {
+        synchronized (outputLock) {
+            if (closed) {
+                return;
+            }
+
+            int start = outputBuffer.position();
+            encoder.reset();
+
+            CoderResult result = encoder.encode(CharBuffer.wrap(message), outputBuffer, false);
+
+            if (!result.isOverflow()) {
+                result = encoder.encode(CharBuffer.wrap("\n"), outputBuffer, true);
+            }
+
+            if (!result.isOverflow()) {
+                result = encoder.flush(outputBuffer);
+            }
+
+            if (result.isOverflow()) {
+                outputBuffer.position(start);
+                droppedMessages++;
+                return;
+            }
+
+            if (start != 0) {
+                return; // Selector thread already knows there is output
+            }
+        }
+
+        server.markDirty(this);
+    }
+}
@@ -0,0 +1,86 @@
+package dev.mayuna.consoleparallax;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BkTreeTest {
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, BkTree.distance("help", "help", 3), "Equal words should have zero distance");
+        assertEquals(3, BkTree.distance("kitten", "sitting", 3), "Distance should be computed correctly");
+        assertEquals(3, BkTree.distance("kitten", "sitting", 2), "Distance over the maximum should be capped");
+        assertEquals(2, BkTree.distance("", "ab", Integer.MAX_VALUE), "Distance to an empty word should be its length");
+        assertEquals(3, BkTree.distance("a", "abcd", 2), "Length difference over the maximum should be capped");
+    }
+
+    @Test
+    public void testSearchMatchesBruteForce() {
+        Random random = new Random(42);
+        BkTree tree = new BkTree();
+        List<String> words = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            String word = randomWord(random);
+            tree.add(word);
+
+            if (!words.contains(word)) {
+                words.add(word);
+            }
+        }
+
+        for (int i = words.size() * 3 / 4; i > 0; i--) {
+            tree.remove(words.remove(random.nextInt(words.size())));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String query = randomWord(random);
+            int maxDistance = random.nextInt(4);
+
+            List<String> expected = new ArrayList<>();
+            words.stream()
+                 .filter(word -> BkTree.distance(query, word, Integer.MAX_VALUE) <= maxDistance)
+                 .sorted((first, second) -> {
+                     int firstDistance = BkTree.distance(query, first, Integer.MAX_VALUE);
+                     int secondDistance = BkTree.distance(query, second, Integer.MAX_VALUE);
+                     return firstDistance != secondDistance ? Integer.compare(firstDistance, secondDistance) : first.compareTo(second);
+                 })
+                 .forEach(expected::add);
+
+            List<String> actual = new ArrayList<>();
+            tree.search(query, maxDistance).forEach(match -> actual.add(match.word));
+
+            assertEquals(expected, actual, "Search for '" + query + "' within " + maxDistance + " should match brute force");
+        }
+    }
+
+    @Test
+    public void testReAdd() {
+        BkTree tree = new BkTree();
+
+        tree.add("stop");
+        tree.add("stat");
+        tree.remove("stop");
+
+        assertEquals(1, tree.search("stop", 2).size(), "Removed word should not be found");
+
+        tree.add("stop");
+
+        assertEquals("stop", tree.search("stop", 0).get(0).word, "Re-added word should be found");
+    }
+
+    private static String randomWord(Random random) {
+        char[] characters = new char[2 + random.nextInt(6)];
+
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = (char) ('a' + random.nextInt(5));
+        }
+
+        return new String(characters);
+    }
+}
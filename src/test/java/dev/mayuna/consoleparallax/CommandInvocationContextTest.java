@@ -2,8 +2,13 @@ package dev.mayuna.consoleparallax;
 
 import dev.mayuna.consoleparallax.impl.SimpleCommandParser;
 import dev.mayuna.consoleparallax.impl.TestCommandParser;
+import dev.mayuna.consoleparallax.impl.TestOutputHandler;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("DataFlowIssue")
@@ -26,5 +31,70 @@ public class CommandInvocationContextTest {
 
         assertSame(consoleParallax, context.getConsoleParallax(), "ConsoleParallax instance is incorrect");
         assertSame(result, context.getCommandParseResult(), "CommandParseResult instance is incorrect");
+        assertSame(consoleParallax.getOutputHandler(), context.getOutputHandler(), "Output handler should default to the ConsoleParallax's output handler");
+
+        OutputHandler outputHandler = new TestOutputHandler();
+        assertSame(outputHandler, new CommandInvocationContext(consoleParallax, result, outputHandler).getOutputHandler(), "Output handler instance is incorrect");
+        assertThrows(NullPointerException.class, () -> new CommandInvocationContext(consoleParallax, result, null), "Null OutputHandler should throw NullPointerException");
+    }
+
+    @Test
+    public void testTypedArguments() {
+        CommandInvocationContext context = createContext("test 42 -9223372036854775808 2147483648 abc 500ms PT1M30S seconds");
+
+        assertEquals(7, context.getArgumentCount(), "Argument count is incorrect");
+        assertEquals(Optional.of("42"), context.getOptional(0), "Optional argument is incorrect");
+        assertEquals(Optional.empty(), context.getOptional(7), "Missing argument should be empty");
+        assertEquals(Optional.empty(), context.getOptional(-1), "Negative index should be empty");
+
+        assertEquals(42, context.getInt(0).getAsInt(), "Int is incorrect");
+        assertEquals(Integer.valueOf(42), context.getInt(0).get(), "Boxed int is incorrect");
+        ArgumentResult<Integer> intResult = context.getInt(0);
+        assertSame(intResult, context.getInt(0), "Result should be cached");
+        assertEquals(42L, context.getLong(0).getAsLong(), "Argument should be parsed as a long as well");
+        assertSame(intResult, context.getInt(0), "Result should stay cached after parsing as another type");
+        assertSame(context.getLong(0), context.getLong(0), "Result of each type should be cached");
+        assertEquals(Long.MIN_VALUE, context.getLong(1).getAsLong(), "Minimum long is incorrect");
+        assertEquals(ArgumentResult.Status.INVALID, context.getInt(2).getStatus(), "Int overflow should be invalid");
+        assertEquals(2147483648L, context.getLong(2).getAsLong(), "Long is incorrect");
+        assertThrows(ArithmeticException.class, () -> context.getLong(2).getAsInt(), "Long which does not fit in an int should not be truncated");
+        assertEquals(42, context.getLong(0).getAsInt(), "Long which fits in an int should be converted");
+        assertEquals(ArgumentResult.Status.INVALID, context.getInt(3).getStatus(), "Non-numeric argument should be invalid");
+        assertEquals("Argument 4 is not an integer: abc", context.getInt(3).getError(), "Error message is incorrect");
+        assertEquals(ArgumentResult.Status.MISSING, context.getInt(7).getStatus(), "Missing argument should be missing");
+        assertEquals(-1, (int) context.getInt(7).orElse(-1), "Default value should be used");
+
+        assertEquals(Duration.ofMillis(500), context.getDuration(4).get(), "Duration is incorrect");
+        assertEquals(Duration.ofSeconds(90), context.getDuration(5).get(), "ISO-8601 duration is incorrect");
+        assertFalse(context.getDuration(3).isValid(), "Non-duration argument should be invalid");
+
+        assertEquals(TimeUnit.SECONDS, context.getEnum(6, TimeUnit.class).get(), "Enum should be matched case-insensitively");
+        assertFalse(context.getEnum(3, TimeUnit.class).toOptional().isPresent(), "Unknown enum constant should be invalid");
+        assertThrows(NullPointerException.class, () -> context.getEnum(0, null), "Null enum type should throw NullPointerException");
+    }
+
+    @Test
+    public void testNumberParsing() {
+        String[] valid = {"0", "-0", "+7", "2147483647", "-2147483648", "007"};
+        String[] invalid = {"", "-", "+", "1.5", "1e3", "12a", " 1", "99999999999999999999"};
+
+        for (String argument : valid) {
+            assertEquals(Integer.parseInt(argument), createContext("test " + argument).getInt(0).getAsInt(), "Int is incorrect for: " + argument);
+        }
+
+        for (String argument : invalid) {
+            CommandInvocationContext context = new CommandInvocationContext(ConsoleParallaxTest.createTestBuilder().build(), new CommandParseResult("test", new String[]{argument}));
+            assertEquals(ArgumentResult.Status.INVALID, context.getLong(0).getStatus(), "Long should be invalid for: '" + argument + "'");
+            assertThrows(IllegalStateException.class, () -> context.getLong(0).getAsLong(), "Invalid result should throw on access for: '" + argument + "'");
+        }
+
+        assertEquals(Long.MAX_VALUE, createContext("test 9223372036854775807").getLong(0).getAsLong(), "Maximum long is incorrect");
+        assertFalse(createContext("test 9223372036854775808").getLong(0).isValid(), "Long overflow should be invalid");
+        assertFalse(createContext("test 106751991167301d").getDuration(0).isValid(), "Duration overflow should be invalid");
+        assertThrows(IllegalStateException.class, () -> createContext("test 1s").getDuration(0).getAsInt(), "Duration should not be numeric");
+    }
+
+    private static CommandInvocationContext createContext(String input) {
+        return new CommandInvocationContext(ConsoleParallaxTest.createTestBuilder().build(), new SimpleCommandParser().parseCommand(input));
     }
 }
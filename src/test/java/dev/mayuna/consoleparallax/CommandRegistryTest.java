@@ -0,0 +1,283 @@
+package dev.mayuna.consoleparallax;
+
+import dev.mayuna.consoleparallax.impl.TestCommand;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class CommandRegistryTest {
+
+    @Test
+    public void testLookup() {
+        CommandRegistry registry = new CommandRegistry();
+
+        assertThrows(NullPointerException.class, () -> registry.register(null), "Null passed to #register(), should throw NullPointerException");
+        assertThrows(NullPointerException.class, () -> registry.get(null), "Null passed to #get(), should throw NullPointerException");
+
+        BaseCommand command = new NamedCommand("Example");
+        registry.register(command);
+
+        assertSame(command, registry.get("example").orElse(null), "Lookup should be case-insensitive");
+        assertSame(command, registry.get("EXAMPLE").orElse(null), "Lookup should be case-insensitive");
+        assertFalse(registry.get("exampl").isPresent(), "Lookup should not match a prefix");
+        assertEquals("title", CommandRegistry.normalizeName("TITLE"), "Normalization should be locale-independent");
+    }
+
+    @Test
+    public void testRegistrationOrder() {
+        CommandRegistry registry = new CommandRegistry();
+
+        BaseCommand first = new NamedCommand("first");
+        BaseCommand second = new NamedCommand("second");
+        BaseCommand third = new NamedCommand("third");
+
+        registry.register(first);
+        registry.register(second);
+        registry.register(third);
+
+        List<BaseCommand> snapshot = registry.getCommands();
+
+        assertIterableEquals(Arrays.asList(first, second, third), snapshot, "Commands should be in registration order");
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(first), "Snapshot should be immutable");
+
+        BaseCommand replacement = new NamedCommand("FIRST");
+        registry.register(replacement);
+
+        assertEquals(3, registry.size(), "Replacing a command should not change the size");
+        assertIterableEquals(Arrays.asList(second, third, replacement), registry.getCommands(), "Replaced command should be moved to the end");
+        assertIterableEquals(Arrays.asList(first, second, third), snapshot, "Previous snapshot should not change");
+    }
+
+    @Test
+    public void testUnregistration() {
+        CommandRegistry registry = new CommandRegistry();
+
+        BaseCommand command = new TestCommand();
+        registry.register(command);
+
+        assertFalse(registry.unregister(new TestCommand()), "Unregistering a different instance with the same name should fail");
+        assertTrue(registry.get(TestCommand.NAME).isPresent(), "Command should still be registered");
+        assertTrue(registry.unregister(command), "Unregistering the registered instance should succeed");
+        assertFalse(registry.get(TestCommand.NAME).isPresent(), "Command should be unregistered");
+
+        registry.register(command);
+
+        assertTrue(registry.unregister(TestCommand.NAME.toUpperCase()), "Unregistering by name should be case-insensitive");
+        assertFalse(registry.unregister(TestCommand.NAME), "Unregistering a missing command should fail");
+        assertEquals(0, registry.size(), "Registry should be empty");
+    }
+
+    @Test
+    public void testCompletion() {
+        CommandRegistry registry = new CommandRegistry();
+
+        for (String name : Arrays.asList("stop", "status", "Start", "help", "st")) {
+            registry.register(new NamedCommand(name));
+        }
+
+        assertThrows(NullPointerException.class, () -> registry.complete(null), "Null passed to #complete(), should throw NullPointerException");
+        assertIterableEquals(Arrays.asList("st", "start", "status", "stop"), registry.complete("ST"), "Completion should be case-insensitive and alphabetical");
+        assertIterableEquals(Arrays.asList("start", "status"), registry.complete("sta"), "Completion should match only the prefix");
+        assertIterableEquals(Arrays.asList("help"), registry.complete("help"), "Exact name should be completed");
+        assertTrue(registry.complete("x").isEmpty(), "No command should be completed");
+        assertEquals(5, registry.complete("").size(), "Empty prefix should complete all commands");
+
+        registry.unregister("status");
+        registry.register(new NamedCommand("START"));
+
+        assertIterableEquals(Arrays.asList("st", "start", "stop"), registry.complete("st"), "Completion should reflect unregistration and replacement");
+    }
+
+    @Test
+    public void testSuggestions() {
+        CommandRegistry registry = new CommandRegistry();
+
+        for (String name : Arrays.asList("restart", "reload", "stop", "status", "shutdown")) {
+            registry.register(new NamedCommand(name));
+        }
+
+        assertThrows(NullPointerException.class, () -> registry.suggest(null, 1, 1), "Null passed to #suggest(), should throw NullPointerException");
+        assertIterableEquals(Arrays.asList("restart"), registry.suggest("RESTRAT", 2, 3), "Transposition should be suggested");
+        assertIterableEquals(Arrays.asList("status", "stop"), registry.suggest("statu", 3, 3), "Suggestions should be sorted by distance");
+        assertIterableEquals(Arrays.asList("status"), registry.suggest("statu", 3, 1), "Suggestions should be limited");
+        assertTrue(registry.suggest("xyz", 1, 3).isEmpty(), "Nothing should be suggested");
+
+        registry.unregister("status");
+
+        assertIterableEquals(Arrays.asList("stop"), registry.suggest("statu", 3, 3), "Unregistered command should not be suggested");
+    }
+
+    @Test
+    public void testBulkRegistration() {
+        CommandRegistry registry = new CommandRegistry();
+        BaseCommand existing = new NamedCommand("b");
+        registry.register(existing);
+        registry.register(new NamedCommand("z"));
+        long version = registry.getVersion();
+
+        List<BaseCommand> batch = new ArrayList<>();
+
+        for (String name : Arrays.asList("d", "a", "B", "c", "A")) {
+            batch.add(new NamedCommand(name));
+        }
+
+        registry.registerAll(batch);
+
+        assertEquals(version + 1, registry.getVersion(), "Batch should be applied as a single change");
+        assertEquals(5, registry.size(), "Replaced commands should not be counted twice");
+        assertIterableEquals(Arrays.asList(registry.get("z").get(), batch.get(0), batch.get(2), batch.get(3), batch.get(4)), registry.getCommands(), "Commands should be in the same order as if they were registered one by one");
+        assertIterableEquals(Arrays.asList("a", "b", "c", "d", "z"), registry.complete(""), "Names should be sorted");
+        assertIterableEquals(Arrays.asList("c"), registry.suggest("cc", 1, 3), "Batch should be suggested");
+        assertThrows(NullPointerException.class, () -> registry.registerAll(Arrays.asList(new NamedCommand("x"), null)), "Null command should throw NullPointerException");
+        assertFalse(registry.get("x").isPresent(), "Batch with a null command should not be registered");
+
+        version = registry.getVersion();
+        assertEquals(2, registry.unregisterAll(Arrays.asList(batch.get(0), batch.get(1), existing, batch.get(3))), "Only registered instances should be unregistered");
+        assertEquals(version + 1, registry.getVersion(), "Batch should be unregistered as a single change");
+        assertIterableEquals(Arrays.asList("a", "b", "z"), registry.complete(""), "Unregistered names should be removed");
+        assertEquals(0, registry.unregisterAll(Collections.singletonList(existing)), "Nothing should be unregistered");
+        assertEquals(version + 1, registry.getVersion(), "Version should not change without a change");
+    }
+
+    @Test
+    public void testListeners() {
+        CommandRegistry registry = new CommandRegistry();
+        List<String> events = new ArrayList<>();
+        CommandRegistryListener listener = new CommandRegistryListener() {
+            @Override
+            public void onRegistered(@NotNull BaseCommand command) {
+                events.add("+" + command.getName());
+            }
+
+            @Override
+            public void onUnregistered(@NotNull BaseCommand command) {
+                events.add("-" + command.getName());
+            }
+        };
+
+        registry.addListener(listener);
+        registry.register(new NamedCommand("a"));
+        registry.registerAll(Arrays.asList(new NamedCommand("b"), new NamedCommand("A")));
+        registry.unregister("b");
+        registry.unregister("missing");
+
+        assertIterableEquals(Arrays.asList("+a", "-a", "+b", "+A", "-b"), events, "Listener should be notified of changes in order");
+
+        assertTrue(registry.removeListener(listener), "Listener should be removed");
+        registry.register(new NamedCommand("c"));
+        assertEquals(5, events.size(), "Removed listener should not be notified");
+        assertThrows(NullPointerException.class, () -> registry.addListener(null), "Null listener should throw NullPointerException");
+    }
+
+    @Test
+    public void testFailingListener() throws InterruptedException {
+        CommandRegistry registry = new CommandRegistry();
+        List<String> events = new ArrayList<>();
+        List<Throwable> reported = new ArrayList<>();
+
+        registry.addListener(new CommandRegistryListener() {
+            @Override
+            public void onRegistered(@NotNull BaseCommand command) {
+                if (!command.getName().equals("a")) {
+                    return;
+                }
+
+                // Other changes must not be blocked by a listener
+                Thread thread = new Thread(() -> registry.register(new NamedCommand("nested")));
+                thread.start();
+
+                try {
+                    thread.join(5000);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+
+                assertFalse(thread.isAlive(), "Listener should not hold the registry's write lock");
+                throw new IllegalStateException("Failing listener");
+            }
+        });
+        registry.addListener(new CommandRegistryListener() {
+            @Override
+            public void onRegistered(@NotNull BaseCommand command) {
+                events.add("+" + command.getName());
+            }
+        });
+
+        Thread thread = new Thread(() -> assertTrue(registry.register(new NamedCommand("a")), "Registration should succeed"));
+        thread.setUncaughtExceptionHandler((failedThread, exception) -> reported.add(exception));
+        thread.start();
+        thread.join();
+
+        assertEquals(1, reported.size(), "Listener exception should be reported once");
+        assertEquals("Failing listener", reported.get(0).getMessage(), "Listener exception should be reported");
+        assertTrue(events.contains("+a"), "Remaining listeners should be notified");
+        assertTrue(registry.get("a").isPresent() && registry.get("nested").isPresent(), "Commands should be registered");
+    }
+
+    @Test
+    public void testAliases() {
+        CommandRegistry registry = new CommandRegistry();
+        BaseCommand stop = new NamedCommand("stop", "halt", "Quit", "STOP", "halt");
+        registry.register(stop);
+
+        assertSame(stop, registry.get("halt").orElse(null), "Alias should resolve to the command");
+        assertSame(stop, registry.get("QUIT").orElse(null), "Alias lookup should be case-insensitive");
+        assertEquals(1, registry.size(), "Aliases should not be counted as commands");
+        assertIterableEquals(Collections.singletonList(stop), registry.getCommands(), "Aliases should not be listed as commands");
+        assertIterableEquals(Arrays.asList("halt", "quit", "stop"), registry.complete(""), "Aliases should be completed");
+        assertIterableEquals(Collections.singletonList("halt"), registry.suggest("hlt", 1, 3), "Aliases should be suggested");
+
+        long version = registry.getVersion();
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new NamedCommand("halt")), "Name colliding with an alias should throw IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new NamedCommand("exit", "stop")), "Alias colliding with a name should throw IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> registry.registerAll(Arrays.asList(new NamedCommand("a", "x"), new NamedCommand("b", "X"))), "Aliases colliding within a batch should throw IllegalArgumentException");
+        assertEquals(version, registry.getVersion(), "Registry should not change on a collision");
+        assertFalse(registry.get("exit").isPresent() || registry.get("a").isPresent(), "Colliding commands should not be registered");
+
+        BaseCommand replacement = new NamedCommand("STOP", "end");
+        registry.register(replacement);
+
+        assertFalse(registry.get("halt").isPresent(), "Aliases of the replaced command should be removed");
+        assertSame(replacement, registry.get("end").orElse(null), "Aliases of the replacement should be indexed");
+        assertIterableEquals(Arrays.asList("end", "stop"), registry.complete(""), "Completion should reflect the replacement");
+
+        registry.register(new NamedCommand("halt", "quit"));
+        assertTrue(registry.unregister("END"), "Unregistering by alias should unregister the command");
+        assertFalse(registry.get("stop").isPresent(), "Command should be unregistered");
+        assertIterableEquals(Arrays.asList("halt", "quit"), registry.complete(""), "Aliases of the unregistered command should be removed");
+        assertIterableEquals(Collections.emptyList(), registry.suggest("end", 1, 3), "Aliases of the unregistered command should not be suggested");
+    }
+
+    private static final class NamedCommand implements BaseCommand {
+
+        private final String name;
+        private final List<String> aliases;
+
+        private NamedCommand(String name, String... aliases) {
+            this.name = name;
+            this.aliases = Arrays.asList(aliases);
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public @NotNull Collection<String> getAliases() {
+            return aliases;
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+        }
+    }
+}
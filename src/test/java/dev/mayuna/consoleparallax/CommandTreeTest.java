@@ -0,0 +1,163 @@
+package dev.mayuna.consoleparallax;
+
+import dev.mayuna.consoleparallax.impl.QuotedCommandParser;
+import dev.mayuna.consoleparallax.impl.TestOutputHandler;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class CommandTreeTest {
+
+    private final List<String> invocations = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    @Test
+    public void testDispatch() {
+        ConsoleParallax consoleParallax = createConsoleParallax();
+        consoleParallax.registerCommand(createCacheTree());
+
+        consoleParallax.processCommand("cache stats");
+        consoleParallax.processCommand("CACHE Evict user-1 user-2");
+        consoleParallax.processCommand("cache region eu flush now");
+
+        assertIterableEquals(Arrays.asList("cache stats[]", "cache evict[user-1, user-2]", "cache region eu flush[now]"), invocations, "Subcommands should be resolved with remaining arguments");
+        assertTrue(errors.isEmpty(), "No errors should be written");
+    }
+
+    @Test
+    public void testUnknownSubcommand() {
+        ConsoleParallax consoleParallax = createConsoleParallax();
+        consoleParallax.registerCommand(createCacheTree());
+
+        consoleParallax.processCommand("cache");
+        consoleParallax.processCommand("cache clear");
+        consoleParallax.processCommand("cache region eu");
+
+        assertTrue(invocations.isEmpty(), "No subcommand should be executed");
+        assertIterableEquals(Arrays.asList(
+                "Missing subcommand: cache. Available subcommands: stats, evict, region",
+                "Unknown subcommand: cache clear. Available subcommands: stats, evict, region",
+                "Missing subcommand: cache region eu. Available subcommands: flush"
+        ), errors, "Errors should list the available subcommands");
+    }
+
+    @Test
+    public void testDefaultAction() {
+        ConsoleParallax consoleParallax = createConsoleParallax();
+        consoleParallax.registerCommand(CommandTree.builder("node")
+                                                   .addSubcommand("drain", "Drains a node", this::record)
+                                                   .setDefaultAction(this::record)
+                                                   .build());
+
+        consoleParallax.processCommand("node");
+        consoleParallax.processCommand("node list --all");
+        consoleParallax.processCommand("node drain 7 --force");
+
+        assertIterableEquals(Arrays.asList("node[]", "node[list, --all]", "node drain[7, --force]"), invocations, "Default action should receive unresolved arguments");
+        assertTrue(errors.isEmpty(), "No errors should be written");
+    }
+
+    @Test
+    public void testFlagsArePreserved() {
+        List<String> flags = new ArrayList<>();
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().setCommandParser(new QuotedCommandParser()).build();
+        consoleParallax.registerCommand(CommandTree.builder("node")
+                                                   .addSubcommand("drain", "Drains a node", context -> flags.add(context.getFlags().get("timeout")))
+                                                   .build());
+
+        consoleParallax.processCommand("node drain 7 --timeout=5s");
+
+        assertEquals(Collections.singletonList("5s"), flags, "Flags should be passed to the subcommand");
+    }
+
+    @Test
+    public void testBuilder() {
+        CommandTree tree = createCacheTree();
+
+        assertEquals("cache", tree.getName(), "Name is incorrect");
+        assertEquals("cache <stats|evict|region>", tree.getSyntax(), "Default syntax should list the subcommands");
+        assertEquals("Manages the cache", tree.getUsage(), "Usage is incorrect");
+        assertEquals("cache", tree.getSerializationKey(), "Serialization key is incorrect");
+        assertEquals(3, tree.getSubcommands().size(), "Subcommand count is incorrect");
+        assertTrue(tree.getSubcommand("STATS").isPresent(), "Subcommand lookup should be case-insensitive");
+        assertFalse(tree.getSubcommand("stat").isPresent(), "Subcommand lookup should not match a prefix");
+
+        CommandTree.Builder builder = CommandTree.builder("test").addSubcommand("a", "A", this::record);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addSubcommand("A", "A", this::record), "Duplicate subcommand should throw IllegalArgumentException");
+        assertThrows(NullPointerException.class, () -> CommandTree.builder(null), "Null name should throw NullPointerException");
+        assertThrows(NullPointerException.class, () -> builder.addSubcommand(null), "Null subcommand should throw NullPointerException");
+    }
+
+    @Test
+    public void testSubcommandAliases() {
+        ConsoleParallax consoleParallax = createConsoleParallax();
+        BaseCommand statistics = new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "stats";
+            }
+
+            @Override
+            public @NotNull Collection<String> getAliases() {
+                return Arrays.asList("st", "info");
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                record(context);
+            }
+        };
+
+        CommandTree tree = CommandTree.builder("cache").addSubcommand(statistics).addSubcommand("evict", "Evicts keys", this::record).build();
+        consoleParallax.registerCommand(tree);
+        consoleParallax.processCommand("cache ST all");
+        consoleParallax.processCommand("cache info");
+
+        assertIterableEquals(Arrays.asList("cache stats[all]", "cache stats[]"), invocations, "Aliases should resolve to the subcommand");
+        assertSame(statistics, tree.getSubcommand("info").orElse(null), "Alias lookup should return the subcommand");
+        assertEquals(2, tree.getSubcommands().size(), "Aliases should not be listed as subcommands");
+        assertThrows(IllegalArgumentException.class, () -> CommandTree.builder("cache").addSubcommand(statistics).addSubcommand("info", "Info", this::record), "Name colliding with an alias should throw IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> CommandTree.builder("cache").addSubcommand("st", "St", this::record).addSubcommand(statistics), "Alias colliding with a name should throw IllegalArgumentException");
+    }
+
+    private CommandTree createCacheTree() {
+        return CommandTree.builder("cache")
+                          .setUsage("Manages the cache")
+                          .setSerializationKey("cache")
+                          .addSubcommand("stats", "Shows cache statistics", this::record)
+                          .addSubcommand("evict", "Evicts keys", this::record)
+                          .addSubcommand(CommandTree.builder("region")
+                                                    .setDefaultAction(context -> {
+                                                        if (context.getArguments().length == 0) {
+                                                            record(context);
+                                                        }
+                                                    })
+                                                    .addSubcommand(CommandTree.builder("eu")
+                                                                              .addSubcommand("flush", "Flushes the region", this::record)
+                                                                              .build())
+                                                    .build())
+                          .build();
+    }
+
+    private ConsoleParallax createConsoleParallax() {
+        return ConsoleParallaxTest.createTestBuilder().setOutputHandler(new TestOutputHandler() {
+            @Override
+            public void error(@NotNull String message) {
+                errors.add(message);
+            }
+        }).build();
+    }
+
+    private void record(CommandInvocationContext context) {
+        invocations.add(context.getCommandName() + Arrays.toString(context.getArguments()));
+    }
+}
@@ -1,18 +1,53 @@
 package dev.mayuna.consoleparallax;
 
+import dev.mayuna.consoleparallax.commands.HelpCommand;
 import dev.mayuna.consoleparallax.impl.*;
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.Console;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("DataFlowIssue")
 public class ConsoleParallaxTest {
 
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
     public static ConsoleParallax.Builder createTestBuilder() {
         return ConsoleParallax.builder()
                 .setCommandParser(new TestCommandParser())
@@ -68,6 +103,7 @@ public class ConsoleParallaxTest {
     @Test
     public void testRunning() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         assertFalse(consoleParallax.isRunning(), "ConsoleParallax should not be running before start() is called");
 
@@ -80,9 +116,155 @@ public class ConsoleParallaxTest {
         assertFalse(consoleParallax.isRunning(), "ConsoleParallax should not be running after interrupt() is called");
     }
 
+    @Test
+    public void testRestart() throws InterruptedException {
+        QueueInputHandler inputHandler = new QueueInputHandler();
+        CountDownLatch executed = new CountDownLatch(1);
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler).build()) {
+            consoleParallax.registerCommand(new PipeCommand("run", context -> executed.countDown()));
+            consoleParallax.start();
+
+            assertThrows(IllegalStateException.class, consoleParallax::start, "Starting a running instance should throw IllegalStateException");
+            assertTrue(consoleParallax.stop(5, TimeUnit.SECONDS), "Idle instance should stop within the timeout");
+            assertFalse(consoleParallax.isRunning(), "ConsoleParallax should not be running after stop()");
+            assertTrue(((ExecutorService) consoleParallax.getCommandExecutor()).isShutdown(), "Owned command executor should be shut down after stop()");
+
+            consoleParallax.start();
+            inputHandler.submit("run");
+
+            assertTrue(executed.await(5, TimeUnit.SECONDS), "Command should have been executed after restart");
+            assertTrue(consoleParallax.stop(5, TimeUnit.SECONDS), "Instance should stop within the timeout");
+        }
+    }
+
+    @Test
+    public void testRestartWithBlockingInputHandler() throws InterruptedException {
+        BlockingInputHandler inputHandler = new BlockingInputHandler();
+        CountDownLatch executed = new CountDownLatch(1);
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler).build()) {
+            consoleParallax.registerCommand(new PipeCommand("run", context -> executed.countDown()));
+            consoleParallax.start();
+            assertTrue(inputHandler.waiting.tryAcquire(5, TimeUnit.SECONDS), "Command reader should wait for input");
+
+            assertTrue(consoleParallax.stop(5, TimeUnit.SECONDS), "Instance should stop while the reader is blocked");
+            consoleParallax.start();
+
+            inputHandler.inputs.add("run");
+            assertTrue(executed.await(5, TimeUnit.SECONDS), "Input read by the replaced reader should be handed off to the current one");
+            assertTrue(inputHandler.waiting.tryAcquire(5, TimeUnit.SECONDS), "Current reader should read the next input");
+            assertFalse(inputHandler.concurrentCalls, "Input handler should not be called by two readers at once");
+            inputHandler.inputs.add(BlockingInputHandler.END_OF_STREAM);
+        }
+    }
+
+    @Test
+    public void testRestartWhileDrainingInputHandler() throws InterruptedException {
+        BlockingInputHandler inputHandler = new BlockingInputHandler();
+        CountDownLatch drainRelease = new CountDownLatch(1);
+        CountDownLatch executed = new CountDownLatch(2);
+        inputHandler.drainRelease = drainRelease;
+
+        ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler).build();
+        closeables.add(consoleParallax);
+        consoleParallax.registerCommand(new PipeCommand("run", context -> executed.countDown()));
+        consoleParallax.start();
+        assertTrue(inputHandler.waiting.tryAcquire(5, TimeUnit.SECONDS), "Command reader should wait for input");
+
+        inputHandler.inputs.add("run");
+        inputHandler.inputs.add("run");
+        assertTrue(inputHandler.draining.tryAcquire(5, TimeUnit.SECONDS), "Command reader should drain the available inputs");
+
+        assertTrue(consoleParallax.stop(5, TimeUnit.SECONDS), "Instance should stop while the reader is draining");
+        consoleParallax.start();
+        assertFalse(inputHandler.waiting.tryAcquire(200, TimeUnit.MILLISECONDS), "Current reader should not read while the replaced reader is draining");
+
+        drainRelease.countDown();
+        assertTrue(executed.await(5, TimeUnit.SECONDS), "Inputs drained by the replaced reader should be handed off to the current one");
+        assertTrue(inputHandler.waiting.tryAcquire(5, TimeUnit.SECONDS), "Current reader should read the next input");
+        assertFalse(inputHandler.concurrentCalls, "Input handler should not be called by two readers at once");
+        inputHandler.inputs.add(BlockingInputHandler.END_OF_STREAM);
+    }
+
+    @Test
+    public void testStopDrainsInFlightCommands() throws Exception {
+        QueueInputHandler inputHandler = new QueueInputHandler();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler).build()) {
+            consoleParallax.registerCommand(new PipeCommand("block", context -> awaitRelease(started, new CountDownLatch(1), finished)));
+            consoleParallax.start();
+            inputHandler.submit("block");
+
+            assertTrue(started.await(5, TimeUnit.SECONDS), "Command should start");
+            assertEquals(1, consoleParallax.getInFlightCommandCount(), "Command should be in-flight");
+            assertFalse(consoleParallax.stop(10, TimeUnit.MILLISECONDS), "Stop should time out while the command is running");
+            assertTrue(consoleParallax.awaitTermination(5, TimeUnit.SECONDS), "Instance should be terminated");
+            assertEquals(0, finished.getCount(), "Command should have finished (interrupted by shutdownNow)");
+        }
+
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondFinished = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        inputHandler = new QueueInputHandler();
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler).setCommandExecutor(executor).build()) {
+            consoleParallax.registerCommand(new PipeCommand("block", context -> awaitRelease(secondStarted, release, secondFinished)));
+            consoleParallax.start();
+            inputHandler.submit("block");
+
+            assertTrue(secondStarted.await(5, TimeUnit.SECONDS), "Command should start");
+            CompletableFuture<Boolean> stopped = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return consoleParallax.stop(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    throw new CompletionException(exception);
+                }
+            });
+
+            assertFalse(stopped.isDone(), "Stop should not return while the command is running");
+            release.countDown();
+            assertTrue(stopped.get(10, TimeUnit.SECONDS), "Stop should wait for the in-flight command");
+            assertEquals(0, secondFinished.getCount(), "Command should have finished");
+            assertFalse(executor.isShutdown(), "Command executor passed to the builder should not be shut down");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() throws InterruptedException {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(UnsupportedOperationException.class, () -> ConsoleParallax.builder().useVirtualThreads(), "Virtual threads should not be supported before Java 21");
+            return;
+        }
+
+        ConsoleParallax consoleParallax = createTestBuilder().useVirtualThreads().build();
+        closeables.add(consoleParallax);
+
+        assertEquals(CommandExecutionMode.CONCURRENT, consoleParallax.getExecutionMode(), "Virtual threads should use concurrent execution mode");
+
+        TestSleepingCommand command = new TestSleepingCommand(100, null);
+        command.latch = new CountDownLatch(100);
+        consoleParallax.registerCommand(command);
+
+        for (int i = 0; i < 100; i++) {
+            consoleParallax.submitCommandTask(() -> consoleParallax.processCommand(TestSleepingCommand.NAME));
+        }
+
+        assertTrue(command.latch.await(5, TimeUnit.SECONDS), "Commands should have been executed");
+        assertTrue(command.maxRunning.get() > 1, "Commands should have been executed in parallel");
+        assertTrue(consoleParallax.stop(1, TimeUnit.SECONDS), "Instance should stop within the timeout");
+        assertTrue(((ExecutorService) consoleParallax.getCommandExecutor()).isShutdown(), "Virtual thread executor should be shut down");
+    }
+
     @Test
     public void testCommandRegistration() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         assertThrows(NullPointerException.class, () -> consoleParallax.registerCommand(null), "Null passed to #registerCommand(), should throw NullPointerException");
 
@@ -90,11 +272,19 @@ public class ConsoleParallaxTest {
 
         assertThrows(NullPointerException.class, () -> consoleParallax.getCommand(null), "Null passed to #getCommand(), should throw NullPointerException");
         assertNotNull(consoleParallax.getCommand(TestCommand.NAME), "Command should not be null");
+
+        List<BaseCommand> plugin = Arrays.asList(new TestSleepingCommand(0, null), new HelpCommand());
+        consoleParallax.registerCommands(plugin);
+
+        assertEquals(3, consoleParallax.getRegisteredCommands().size(), "Commands should be registered at once");
+        assertEquals(2, consoleParallax.unregisterCommands(plugin), "Commands should be unregistered at once");
+        assertThrows(NullPointerException.class, () -> consoleParallax.registerCommands(null), "Null passed to #registerCommands(), should throw NullPointerException");
     }
 
     @Test
     public void testCommandReplacement() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         BaseCommand firstCommand = new TestCommand();
         BaseCommand secondCommand = new TestCommand();
@@ -115,6 +305,7 @@ public class ConsoleParallaxTest {
     @Test
     public void testDefaultHelpCommand() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         consoleParallax.registerDefaultHelpCommand();
 
@@ -124,6 +315,7 @@ public class ConsoleParallaxTest {
     @Test
     public void testCommandUnregistration() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         assertThrows(NullPointerException.class, () -> consoleParallax.unregisterCommand((String)null), "Null passed to #unregisterCommand(), should throw NullPointerException");
         assertThrows(NullPointerException.class, () -> consoleParallax.unregisterCommand((BaseCommand) null), "Null passed to #unregisterCommand(), should throw NullPointerException");
@@ -150,6 +342,7 @@ public class ConsoleParallaxTest {
     @Test
     public void testRegisteredCommandsGetter() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         BaseCommand command = new TestCommand();
 
@@ -162,6 +355,7 @@ public class ConsoleParallaxTest {
     @Test
     public void testProcessCommand() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         TestCommand command = new TestCommand();
 
@@ -179,12 +373,769 @@ public class ConsoleParallaxTest {
         assertFalse(command.executed, "Command should not have been executed");
     }
 
+    @Test
+    public void testCommandMetrics() {
+        HistogramCommandMetrics metrics = new HistogramCommandMetrics();
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandMetrics(metrics).build();
+        closeables.add(consoleParallax);
+
+        ConsoleParallax withoutMetrics = createTestBuilder().build();
+        closeables.add(withoutMetrics);
+
+        assertSame(CommandMetrics.NOOP, withoutMetrics.getCommandMetrics(), "Metrics should be no-op by default");
+        assertFalse(CommandMetrics.NOOP.isEnabled(), "No-op metrics should be disabled");
+        assertThrows(NullPointerException.class, () -> createTestBuilder().setCommandMetrics(null), "Null passed to the builder's #setCommandMetrics(), should throw NullPointerException");
+
+        consoleParallax.registerCommand(new TestCommand());
+        consoleParallax.registerCommand(new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "fail";
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                throw new IllegalStateException("Failure");
+            }
+        });
+
+        consoleParallax.processCommand(TestCommand.NAME);
+        consoleParallax.processCommand(TestCommand.NAME);
+        assertThrows(IllegalStateException.class, () -> consoleParallax.processCommand("fail"), "Exception should be propagated");
+        consoleParallax.processCommand("unknown");
+
+        assertEquals(2, metrics.getStatistics(TestCommand.NAME).getCount(), "Executions should have been recorded");
+        assertEquals(1, metrics.getStatistics("fail").getErrors(), "Failure should have been recorded");
+        assertEquals(1, metrics.getNotFoundCount(), "Unknown command should have been recorded");
+    }
+
+    @Test
+    public void testCommandSuggestions() {
+        List<String> errors = new ArrayList<>();
+        ConsoleParallax consoleParallax = createTestBuilder().setOutputHandler(new TestOutputHandler() {
+            @Override
+            public void error(@NotNull String message) {
+                errors.add(message);
+            }
+        }).build();
+        closeables.add(consoleParallax);
+
+        consoleParallax.registerCommand(new TestCommand());
+
+        assertIterableEquals(Collections.singletonList(TestCommand.NAME), consoleParallax.complete(TestCommand.NAME.substring(0, 2)), "Registered command should be completed");
+
+        String typo = TestCommand.NAME.substring(1);
+        consoleParallax.processCommand(typo);
+        consoleParallax.processCommand("unknown");
+
+        assertEquals("Command not found: " + typo + ". Did you mean: " + TestCommand.NAME + "?", errors.get(0), "Similar command should be suggested");
+        assertEquals("Command not found: unknown", errors.get(1), "Nothing should be suggested");
+    }
+
+    @Test
+    public void testInvocationOutputHandler() {
+        List<String> globalOutput = new ArrayList<>();
+        List<String> invocationOutput = new ArrayList<>();
+        ConsoleParallax consoleParallax = createTestBuilder().setOutputHandler(createRecordingOutputHandler(globalOutput)).build();
+        closeables.add(consoleParallax);
+        consoleParallax.registerDefaultHelpCommand();
+
+        consoleParallax.processCommand("help", createRecordingOutputHandler(invocationOutput));
+        consoleParallax.processCommand("unknown", createRecordingOutputHandler(invocationOutput));
+
+        assertTrue(globalOutput.isEmpty(), "Output should not be written to the global output handler");
+        assertTrue(invocationOutput.get(0).startsWith("Number of commands: 1"), "Help command should write to the invocation output handler");
+        assertEquals("error: Command not found: unknown", invocationOutput.get(invocationOutput.size() - 1), "Unknown command error should be written to the invocation output handler");
+
+        consoleParallax.processCommand("help");
+        assertEquals(invocationOutput.size() - 1, globalOutput.size(), "Output should be written to the global output handler by default");
+    }
+
+    @Test
+    public void testBufferedInvocationOutput() {
+        List<String> output = new ArrayList<>();
+        ConsoleParallax consoleParallax = createTestBuilder().setOutputHandler(createRecordingOutputHandler(output))
+                                                             .setBufferInvocationOutput(true)
+                                                             .build();
+        closeables.add(consoleParallax);
+        consoleParallax.registerDefaultHelpCommand();
+
+        consoleParallax.processCommand("help");
+        consoleParallax.processCommand("help unknown");
+
+        String separator = System.lineSeparator();
+        assertEquals(2, output.size(), "Output of each invocation should be written at once");
+        assertTrue(output.get(0).startsWith("Number of commands: 1" + separator), "Messages should be coalesced");
+        assertTrue(output.get(0).endsWith(separator + "Specify a command in the help command to see its description."), "Messages should be in order");
+        assertEquals("error: Command not found: unknown", output.get(1), "Error should be written as an error");
+    }
+
+    @Test
+    public void testDispatch() {
+        List<String> globalOutput = new ArrayList<>();
+        ConsoleParallax consoleParallax = createTestBuilder().setOutputHandler(createRecordingOutputHandler(globalOutput)).build();
+        closeables.add(consoleParallax);
+        consoleParallax.registerDefaultHelpCommand();
+        consoleParallax.registerCommand(new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "fail";
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                context.getOutputHandler().info("failing");
+                throw new IllegalStateException("failure");
+            }
+        });
+
+        CommandResult help = consoleParallax.dispatch("help").join();
+        assertEquals(CommandResult.Status.SUCCESS, help.getStatus(), "Help command should succeed");
+        assertTrue(help.isSuccess(), "Help command should succeed");
+        assertEquals("help", help.getCommandName(), "Command name is incorrect");
+        assertTrue(help.getMessages().get(0).getText().startsWith("Number of commands: 2"), "Output should be captured");
+        assertTrue(help.getOutput().startsWith("Number of commands: 2" + System.lineSeparator()), "Output should be joined");
+        assertTrue(help.getDurationNanos() > 0, "Duration should be measured");
+
+        CommandResult unknown = consoleParallax.dispatch(new CommandParseResult("unknown", new String[0])).join();
+        assertEquals(CommandResult.Status.NOT_FOUND, unknown.getStatus(), "Unknown command should not be found");
+        assertTrue(unknown.getMessages().get(0).isError(), "Not found message should be an error");
+
+        CommandResult fail = consoleParallax.dispatch("fail").join();
+        assertEquals(CommandResult.Status.FAILED, fail.getStatus(), "Throwing command should fail");
+        assertInstanceOf(IllegalStateException.class, fail.getFailure(), "Failure should be captured");
+        assertEquals("failing", fail.getOutput(), "Output written before the failure should be captured");
+
+        assertTrue(globalOutput.isEmpty(), "Dispatched commands should not write to the output handler");
+        assertThrows(NullPointerException.class, () -> consoleParallax.dispatch((String) null), "Null input should throw NullPointerException");
+        assertThrows(NullPointerException.class, () -> consoleParallax.dispatchAll(Collections.singletonList(null)), "Null input should throw NullPointerException");
+
+        consoleParallax.close();
+        CompletableFuture<CommandResult> rejected = consoleParallax.dispatch("help");
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join, "Dispatch after close should be rejected");
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause(), "Dispatch after close should be rejected");
+    }
+
+    @Test
+    public void testDispatchAll() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor).build();
+        closeables.add(consoleParallax);
+        consoleParallax.registerDefaultHelpCommand();
+
+        List<String> inputs = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            inputs.add(i % 2 == 0 ? "help" : "unknown-" + i);
+        }
+
+        List<CommandResult> results = consoleParallax.dispatchAll(inputs).join();
+        assertEquals(inputs.size(), results.size(), "Each input should have a result");
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 2 == 0 ? CommandResult.Status.SUCCESS : CommandResult.Status.NOT_FOUND, results.get(i).getStatus(), "Results should be in the order of the inputs");
+        }
+
+        assertTrue(consoleParallax.dispatchAll(Collections.emptyList()).join().isEmpty(), "No inputs should have no results");
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCommandQueueReject() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor)
+                                                             .setCommandQueueCapacity(2)
+                                                             .setOverloadPolicy(OverloadPolicy.REJECT)
+                                                             .build();
+        closeables.add(consoleParallax);
+        CountDownLatch release = blockCommandExecutor(consoleParallax);
+
+        CompletableFuture<CommandResult> first = consoleParallax.dispatch("help");
+        CompletableFuture<CommandResult> second = consoleParallax.dispatch("help");
+        CompletableFuture<CommandResult> rejected = consoleParallax.dispatch("help");
+
+        assertEquals(2, consoleParallax.getQueuedCommandCount(), "Two commands should be queued");
+        assertTrue(rejected.isCompletedExceptionally(), "Command over the capacity should be rejected");
+        assertEquals(1, consoleParallax.getRejectedCommandCount(), "Rejected command should be counted");
+
+        release.countDown();
+        assertTrue(first.join().isSuccess() && second.join().isSuccess(), "Queued commands should be executed");
+        assertEquals(OverloadPolicy.REJECT, consoleParallax.getOverloadPolicy(), "Overload policy is incorrect");
+        assertEquals(2, consoleParallax.getCommandQueueCapacity(), "Capacity is incorrect");
+        assertThrows(IllegalArgumentException.class, () -> ConsoleParallax.builder().setCommandQueueCapacity(0), "Non-positive capacity should throw IllegalArgumentException");
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCommandQueueShedOldest() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor)
+                                                             .setCommandQueueCapacity(2)
+                                                             .setOverloadPolicy(OverloadPolicy.SHED_OLDEST)
+                                                             .build();
+        closeables.add(consoleParallax);
+        CountDownLatch release = blockCommandExecutor(consoleParallax);
+
+        CompletableFuture<CommandResult> oldest = consoleParallax.dispatch("help");
+        CompletableFuture<CommandResult> second = consoleParallax.dispatch("help");
+        CompletableFuture<CommandResult> newest = consoleParallax.dispatch("help");
+
+        assertTrue(oldest.isCompletedExceptionally(), "Oldest command should be shed");
+        assertEquals(1, consoleParallax.getRejectedCommandCount(), "Shed command should be counted");
+
+        release.countDown();
+        assertTrue(second.join().isSuccess() && newest.join().isSuccess(), "Queued commands should be executed");
+        assertTrue(consoleParallax.awaitTermination(1, TimeUnit.SECONDS), "Shed command should not stay in-flight");
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCommandQueueBlock() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor).setCommandQueueCapacity(1).build();
+        closeables.add(consoleParallax);
+        CountDownLatch release = blockCommandExecutor(consoleParallax);
+
+        CompletableFuture<CommandResult> queued = consoleParallax.dispatch("help");
+        List<CompletableFuture<CommandResult>> blocked = new ArrayList<>();
+        Thread submitter = new Thread(() -> blocked.add(consoleParallax.dispatch("help")));
+        submitter.start();
+        submitter.join(100);
+
+        assertTrue(submitter.isAlive(), "Submitter should wait for space in the queue");
+        assertEquals(1, consoleParallax.getQueuedCommandCount(), "Only one command should be queued");
+
+        release.countDown();
+        submitter.join(1000);
+        assertTrue(queued.join().isSuccess() && blocked.get(0).join().isSuccess(), "Both commands should be executed");
+        assertEquals(0, consoleParallax.getRejectedCommandCount(), "Nothing should be rejected");
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCommandReaderRejectsOverCapacity() throws InterruptedException {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        QueueInputHandler inputHandler = new QueueInputHandler();
+        ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler)
+                                                             .setOutputHandler(createRecordingOutputHandler(output))
+                                                             .setCommandQueueCapacity(1)
+                                                             .setOverloadPolicy(OverloadPolicy.REJECT)
+                                                             .build();
+        closeables.add(consoleParallax);
+        CountDownLatch release = blockCommandExecutor(consoleParallax);
+        consoleParallax.start();
+
+        inputHandler.submit("queued");
+        waitUntil(() -> consoleParallax.getQueuedCommandCount() == 1);
+        inputHandler.submit("rejected");
+        waitUntil(() -> !output.isEmpty()); // The rejection is counted before it is reported
+
+        assertEquals(1, consoleParallax.getRejectedCommandCount(), "Rejected command should be counted");
+        assertEquals("error: Command rejected, command queue is full: rejected", output.get(0), "Rejection should be written to the output handler");
+
+        release.countDown();
+        consoleParallax.close();
+    }
+
+    @Test
+    public void testCommandTimeout() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        HistogramCommandMetrics metrics = new HistogramCommandMetrics();
+        ConsoleParallax consoleParallax = createTestBuilder().setOutputHandler(createRecordingOutputHandler(output))
+                                                             .setCommandMetrics(metrics)
+                                                             .setDefaultCommandTimeout(Duration.ofMillis(50))
+                                                             .build();
+        closeables.add(consoleParallax);
+        TimeoutCommand hanging = new TimeoutCommand("hang", null);
+        TimeoutCommand unlimited = new TimeoutCommand("unlimited", Duration.ZERO);
+        consoleParallax.registerCommand(hanging);
+        consoleParallax.registerCommand(unlimited);
+
+        CommandResult result = consoleParallax.dispatch("hang 10000").join();
+
+        assertTrue(result.getDurationNanos() < TimeUnit.SECONDS.toNanos(5), "Command should be interrupted");
+        assertEquals(CommandResult.Status.TIMED_OUT, result.getStatus(), "Timed out command should not succeed");
+        assertTrue(hanging.cancelled, "Invocation should be cancelled");
+        assertEquals("Command timed out after 50 ms: hang", result.getMessages().get(0).getText(), "Timeout should be reported");
+        assertEquals(1, consoleParallax.getTimedOutCommandCount(), "Timeout should be counted");
+        assertEquals(1, metrics.getStatistics("hang").getTimeouts(), "Timeout should be recorded in metrics");
+
+        assertEquals(CommandResult.Status.SUCCESS, consoleParallax.dispatch("hang 0").join().getStatus(), "Fast command should succeed");
+        assertFalse(hanging.interruptedOnStart, "Interrupt of the timeout should not leak to the next command");
+        assertFalse(hanging.cancelled, "Fast command should not be cancelled");
+
+        assertTrue(consoleParallax.dispatch("unlimited 100").join().isSuccess(), "Command without timeout should finish");
+        assertFalse(unlimited.cancelled, "Command without timeout should not be cancelled");
+        assertEquals(1, consoleParallax.getTimedOutCommandCount(), "Only one command should time out");
+        consoleParallax.close();
+    }
+
+    @Test
+    public void testCommandTimeoutWithBlockingOutputHandler() throws InterruptedException {
+        CountDownLatch reporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputHandler blockingOutputHandler = new TestOutputHandler() {
+            @Override
+            public void error(@NotNull String message) {
+                reporting.countDown();
+
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setOutputHandler(blockingOutputHandler)
+                                                                  .setDefaultCommandTimeout(Duration.ofMillis(10))
+                                                                  .build()) {
+            consoleParallax.registerCommand(new TimeoutCommand("hang", null));
+            CompletableFuture<Void> command = CompletableFuture.runAsync(() -> consoleParallax.processCommand("hang 10000"));
+            assertTrue(reporting.await(5, TimeUnit.SECONDS), "Timeout should be reported");
+
+            CountDownLatch expired = new CountDownLatch(1);
+            TimeoutWheel.SHARED.schedule(TimeUnit.MILLISECONDS.toNanos(1), expired::countDown);
+            assertTrue(expired.await(5, TimeUnit.SECONDS), "Blocking output handler should not stall other timeouts");
+
+            release.countDown();
+            command.join();
+            assertEquals(1, consoleParallax.getTimedOutCommandCount(), "Timeout should be counted");
+        }
+    }
+
+    @Test
+    public void testRunScript() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor)
+                                                             .setExecutionMode(CommandExecutionMode.CONCURRENT)
+                                                             .build();
+        closeables.add(consoleParallax);
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        consoleParallax.registerCommand(new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "sleep";
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                try {
+                    Thread.sleep(context.getLong(0).getAsLong());
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+
+                executed.add(context.getArguments()[1]);
+            }
+        });
+        CyclicBarrier barrier = new CyclicBarrier(4);
+        consoleParallax.registerCommand(new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "meet";
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS); // Passes only if all commands of the block run at once
+                    executed.add(context.getArguments()[0]);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                } catch (BrokenBarrierException | TimeoutException ignored) {
+                    // Not all commands of the block are running
+                }
+            }
+        });
+
+        Path script = Files.createTempFile("console-parallax", ".script");
+
+        try {
+            Files.write(script, Arrays.asList("# Bootstrap", "sleep 50 first", "parallel {", "meet a", "meet b", "meet c", "meet d", "}", "", "unknown", "sleep 0 last"));
+            ScriptResult result = consoleParallax.runScript(script);
+
+            assertEquals(7, result.getLines().size(), "Each command line should have a result");
+            assertEquals("first", executed.get(0), "Sequential command should finish before the parallel block");
+            assertEquals("last", executed.get(executed.size() - 1), "Parallel block should finish before the next command");
+            assertTrue(executed.containsAll(Arrays.asList("a", "b", "c", "d")), "Parallel block should run concurrently, executed: " + executed);
+            assertEquals(4, result.getLines().get(1).getLineNumber(), "Line number is incorrect");
+            assertFalse(result.isSuccess(), "Script with an unknown command should not succeed");
+            assertEquals(10, result.getFailedLines().get(0).getLineNumber(), "Unknown command should be reported");
+
+            Files.write(script, Arrays.asList("parallel {", "sleep 0 x", "parallel {"));
+            assertThrows(IllegalArgumentException.class, () -> consoleParallax.runScript(script), "Nested parallel blocks should throw IllegalArgumentException");
+            Files.write(script, Collections.singletonList("}"));
+            assertThrows(IllegalArgumentException.class, () -> consoleParallax.runScript(script), "Unexpected block end should throw IllegalArgumentException");
+            Files.write(script, Arrays.asList("parallel {", "sleep 0 x"));
+            assertThrows(IllegalArgumentException.class, () -> consoleParallax.runScript(script), "Unterminated block should throw IllegalArgumentException");
+        } finally {
+            Files.delete(script);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPipeline() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandParser(new QuotedCommandParser())
+                                                             .setOutputHandler(createRecordingOutputHandler(output))
+                                                             .build();
+        closeables.add(consoleParallax);
+        AtomicInteger emitted = new AtomicInteger();
+
+        registerPipeCommands(consoleParallax, emitted);
+
+        int records = ConsoleParallax.PIPE_CAPACITY * 100;
+        consoleParallax.processCommand("seq " + records + " | count");
+        assertTrue(output.contains(Integer.toString(records)), "Last stage should receive all records, output: " + output);
+        assertTrue(output.contains("error: seq done"), "Errors of upstream stages should bypass the pipeline");
+        assertEquals(2, output.size(), "Records should not be written to the output handler");
+
+        output.clear();
+        consoleParallax.processCommand("seq 20 | filter 1 | count");
+        assertEquals(Arrays.asList("error: seq done", "11"), output, "Records should flow through all stages");
+
+        output.clear();
+        emitted.set(0);
+        consoleParallax.processCommand("seq " + records + " | head");
+        assertTrue(output.contains("0"), "First record should be read");
+        assertTrue(emitted.get() < records, "Upstream stage should be cancelled once the downstream stage finishes");
+
+        output.clear();
+        consoleParallax.processCommand("seq 5 | done");
+        assertTrue(output.contains("done, piped: true"), "Stage ignoring its input should still be executed");
+
+        output.clear();
+        emitted.set(0);
+        consoleParallax.processCommand("seq 5 | unknown");
+        assertEquals(Collections.singletonList("error: Command not found: unknown"), output, "Unknown stage should be reported");
+        assertEquals(0, emitted.get(), "Nothing should be executed if a stage is not found");
+
+        output.clear();
+        emitted.set(0);
+        consoleParallax.processCommand("seq 5 |");
+        assertEquals(Collections.singletonList("error: Pipeline stage 2 has no command"), output, "Empty stage should be rejected");
+        assertEquals(0, emitted.get(), "Nothing should be executed if a stage is empty");
+        assertEquals(CommandResult.Status.FAILED, consoleParallax.dispatch("seq 5 | | count").join().getStatus(), "Dispatched pipeline with an empty stage should fail");
+
+        output.clear();
+        consoleParallax.processCommand("say \"a|b\" c\\|d");
+        assertEquals(Collections.singletonList("a|b c|d"), output, "Quoted and escaped pipes should stay literal");
+
+        CommandResult result = consoleParallax.dispatch("seq 3 | count").join();
+        assertEquals(CommandResult.Status.SUCCESS, result.getStatus(), "Dispatched pipeline should succeed");
+        assertEquals("seq | count", result.getCommandName(), "Pipeline name is incorrect");
+        assertEquals("seq done" + System.lineSeparator() + "3", result.getOutput(), "Output of the last stage should be captured");
+        assertEquals(CommandResult.Status.NOT_FOUND, consoleParallax.dispatch("seq 3 | unknown").join().getStatus(), "Unknown stage should not be found");
+
+        consoleParallax.registerCommand(new PipeCommand("fail", context -> {
+            throw new IllegalStateException("failure");
+        }));
+        result = consoleParallax.dispatch("fail | count").join();
+        assertEquals(CommandResult.Status.FAILED, result.getStatus(), "Failing upstream stage should fail the pipeline");
+        assertEquals("0", result.getOutput(), "Downstream stage should see the end of the records");
+        assertInstanceOf(IllegalStateException.class, result.getFailure(), "Failure should be captured");
+
+        ConsoleParallax concurrent = createTestBuilder().setCommandParser(new QuotedCommandParser()).setExecutionMode(CommandExecutionMode.CONCURRENT).build();
+        closeables.add(concurrent);
+        registerPipeCommands(concurrent, emitted);
+        assertEquals("seq done" + System.lineSeparator() + "11", concurrent.dispatch("seq 20 | filter 1 | count").join().getOutput(), "Stages with the same serialization key should not deadlock");
+    }
+
+    @Test
+    public void testPipelineStageThreads() throws InterruptedException {
+        try (ConsoleParallax consoleParallax = createTestBuilder().setCommandParser(new QuotedCommandParser()).build()) {
+            registerPipeCommands(consoleParallax, new AtomicInteger());
+            consoleParallax.registerCommand(new PipeCommand("thread", context -> context.getOutputHandler().info(Thread.currentThread().getName())));
+            consoleParallax.start();
+
+            assertEquals("ConsoleParallax Pipeline Stage", consoleParallax.dispatch("thread | filter Stage").join().getOutput(), "Upstream stage should run on a pipeline stage thread");
+            assertTrue(consoleParallax.stop(5, TimeUnit.SECONDS), "Instance should stop within the timeout");
+            assertTrue(consoleParallax.pipelineStageExecutor.awaitTermination(5, TimeUnit.SECONDS), "Pipeline stage threads should be shut down after stop()");
+            assertThrows(RejectedExecutionException.class, () -> consoleParallax.processCommand("thread | count"), "Pipeline should be rejected after stop()");
+
+            consoleParallax.start();
+            assertEquals("1", consoleParallax.dispatch("thread | count").join().getOutput(), "Pipeline should be executed after restart");
+        }
+    }
+
+    @Test
+    public void testPipeIsLiteralWithoutPipelineSupport() {
+        ConsoleParallax consoleParallax = createTestBuilder().setCommandParser(new SimpleCommandParser()).build();
+        closeables.add(consoleParallax);
+        registerPipeCommands(consoleParallax, new AtomicInteger());
+
+        assertEquals("a|b", consoleParallax.dispatch("say a|b").join().getOutput(), "Pipe inside an argument should be literal");
+        assertEquals("x |", consoleParallax.dispatch("say x |").join().getOutput(), "Trailing pipe should be a regular argument");
+        assertEquals("say", consoleParallax.dispatch("say 1 | count").join().getCommandName(), "Input should be a single command");
+    }
+
+    private static void registerPipeCommands(ConsoleParallax consoleParallax, AtomicInteger emitted) {
+        consoleParallax.registerCommand(new PipeCommand("seq", context -> {
+            long count = context.getLong(0).getAsLong();
+
+            for (long i = 0; i < count && !context.isCancelled(); i++) {
+                emitted.incrementAndGet();
+                context.getOutputHandler().info(Long.toString(i));
+            }
+
+            context.getOutputHandler().error("seq done");
+        }));
+        consoleParallax.registerCommand(new PipeCommand("filter", context -> {
+            for (String record : context.getPipeInput()) {
+                if (record.contains(context.getArguments()[0])) {
+                    context.getOutputHandler().info(record);
+                }
+            }
+        }));
+        consoleParallax.registerCommand(new PipeCommand("count", context -> {
+            long count = 0;
+
+            for (String ignored : context.getPipeInput()) {
+                count++;
+            }
+
+            context.getOutputHandler().info(Long.toString(count));
+        }));
+        consoleParallax.registerCommand(new PipeCommand("head", context -> {
+            try {
+                context.getOutputHandler().info(String.valueOf(context.getPipeInput().read()));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        consoleParallax.registerCommand(new PipeCommand("say", context -> context.getOutputHandler().info(String.join(" ", context.getArguments()))));
+        consoleParallax.registerCommand(new PipeCommand("done", context -> context.getOutputHandler().info("done, piped: " + (context.getPipeInput() != null))));
+    }
+
+    /**
+     * Input handler blocking uninterruptibly in {@link #getNextInput()}, like {@link ConsoleInputHandler}<br>
+     * {@link #drainTo(List, int)} blocks uninterruptibly as well while {@link #drainRelease} is set
+     */
+    private static final class BlockingInputHandler implements InputHandler {
+
+        private static final String END_OF_STREAM = "\u0000";
+
+        private final BlockingQueue<String> inputs = new LinkedBlockingQueue<>();
+        private final Semaphore waiting = new Semaphore(0);
+        private final Semaphore draining = new Semaphore(0);
+        private final AtomicInteger activeCalls = new AtomicInteger();
+        private volatile CountDownLatch drainRelease; // Null if drainTo does not block
+        private volatile boolean concurrentCalls;
+        private volatile boolean endOfStream;
+
+        @Override
+        public String getNextInput() {
+            enterCall();
+
+            try {
+                waiting.release();
+                boolean interrupted = false;
+
+                while (true) {
+                    try {
+                        String input = inputs.take();
+
+                        if (interrupted) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        if (END_OF_STREAM.equals(input)) {
+                            endOfStream = true;
+                            return null;
+                        }
+
+                        return input;
+                    } catch (InterruptedException exception) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                activeCalls.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int drainTo(@NotNull List<String> inputs, int maxInputs) {
+            enterCall();
+
+            try {
+                draining.release();
+                CountDownLatch release = drainRelease;
+                boolean interrupted = false;
+
+                while (release != null) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException exception) {
+                        interrupted = true;
+                    }
+                }
+
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return this.inputs.drainTo(inputs, maxInputs);
+            } finally {
+                activeCalls.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean isEndOfStream() {
+            return endOfStream;
+        }
+
+        private void enterCall() {
+            if (activeCalls.incrementAndGet() > 1) {
+                concurrentCalls = true;
+            }
+        }
+    }
+
+    private static final class PipeCommand implements BaseCommand {
+
+        private final String name;
+        private final Consumer<CommandInvocationContext> body;
+
+        private PipeCommand(String name, Consumer<CommandInvocationContext> body) {
+            this.name = name;
+            this.body = body;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public String getSerializationKey() {
+            return "pipe";
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            body.accept(context);
+        }
+    }
+
+    private static final class TimeoutCommand implements BaseCommand {
+
+        private final String name;
+        private final Duration timeout;
+        private volatile boolean cancelled;
+        private volatile boolean interruptedOnStart;
+
+        private TimeoutCommand(String name, Duration timeout) {
+            this.name = name;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            interruptedOnStart = Thread.currentThread().isInterrupted();
+
+            try {
+                Thread.sleep(context.getLong(0).getAsLong());
+            } catch (InterruptedException ignored) {
+                // Cancelled
+            }
+
+            cancelled = context.isCancelled();
+        }
+    }
+
+    /**
+     * Registers the help command and a command which blocks the command executor until the returned latch is released,
+     * then dispatches it and waits until it is running
+     */
+    private static CountDownLatch blockCommandExecutor(ConsoleParallax consoleParallax) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        consoleParallax.registerDefaultHelpCommand();
+        consoleParallax.registerCommand(new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "block";
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                started.countDown();
+
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        consoleParallax.dispatch("block");
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Blocking command should start");
+        return release;
+    }
+
+    /**
+     * Counts down the started latch, waits until the release latch is released or the current thread is interrupted,
+     * then counts down the finished latch
+     */
+    private static void awaitRelease(CountDownLatch started, CountDownLatch release, CountDownLatch finished) {
+        started.countDown();
+
+        try {
+            release.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition was not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static OutputHandler createRecordingOutputHandler(List<String> output) {
+        return new OutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                output.add(message);
+            }
+
+            @Override
+            public void error(@NotNull String message) {
+                output.add("error: " + message);
+            }
+        };
+    }
+
     @Test
     public void testCommandReaderThread() {
         ConsoleParallax.Builder consoleParallaxBuilder = createTestBuilder();
         TestInputHandler inputHandler = new TestInputHandler();
         consoleParallaxBuilder.setInputHandler(inputHandler);
         ConsoleParallax consoleParallax = consoleParallaxBuilder.build();
+        closeables.add(consoleParallax);
 
         TestCommand command = new TestCommand();
 
@@ -212,9 +1163,188 @@ public class ConsoleParallaxTest {
         assertFalse(consoleParallax.isRunning(), "ConsoleParallax should not be running after interrupt() is called");
     }
 
+    @Test
+    public void testIdleReaderDoesNotSpin() throws InterruptedException {
+        assertIdleReaderCpuTime(() -> null, "Input handler returning null immediately");
+        assertIdleReaderCpuTime(() -> "", "Input handler returning empty input immediately");
+        assertIdleReaderCpuTime(new QueueInputHandler(), "Input handler with timed polling");
+    }
+
+    private void assertIdleReaderCpuTime(InputHandler inputHandler, String message) throws InterruptedException {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (!threadMXBean.isThreadCpuTimeSupported()) {
+            return;
+        }
+
+        threadMXBean.setThreadCpuTimeEnabled(true);
+
+        ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler).build();
+        closeables.add(consoleParallax);
+        consoleParallax.start();
+
+        Thread.sleep(500);
+
+        long cpuTimeMillis = TimeUnit.NANOSECONDS.toMillis(threadMXBean.getThreadCpuTime(consoleParallax.commandReader.getId()));
+        consoleParallax.interrupt();
+
+        assertTrue(cpuTimeMillis < 100, message + ": idle command reader consumed " + cpuTimeMillis + " ms of CPU time in 500 ms");
+    }
+
+    @Test
+    public void testCommandReaderStopsOnEndOfStream() throws InterruptedException {
+        QueueInputHandler inputHandler = new QueueInputHandler();
+        ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler)
+                                                             .setCommandExecutor(Runnable::run)
+                                                             .build();
+        closeables.add(consoleParallax);
+
+        TestCommand command = new TestCommand();
+        consoleParallax.registerCommand(command);
+        consoleParallax.start();
+
+        inputHandler.submit(TestCommand.NAME);
+        inputHandler.close();
+
+        consoleParallax.commandReader.join(5000);
+
+        assertFalse(consoleParallax.commandReader.isAlive(), "Command reader should stop on end of stream");
+        assertFalse(consoleParallax.isRunning(), "ConsoleParallax should not be running after end of stream");
+        assertTrue(command.executed, "Command submitted before end of stream should have been executed");
+    }
+
+    @Test
+    public void testCommandReaderBatchesInputs() throws InterruptedException {
+        final int inputCount = 100;
+        QueueInputHandler inputHandler = new QueueInputHandler();
+        AtomicInteger submittedTasks = new AtomicInteger();
+        ConsoleParallax consoleParallax = createTestBuilder().setInputHandler(inputHandler)
+                                                             .setCommandExecutor(task -> {
+                                                                 submittedTasks.incrementAndGet();
+                                                                 task.run();
+                                                             })
+                                                             .build();
+        closeables.add(consoleParallax);
+
+        List<String> executedArguments = Collections.synchronizedList(new ArrayList<>());
+        consoleParallax.registerCommand(new BaseCommand() {
+            @Override
+            public @NotNull String getName() {
+                return "record";
+            }
+
+            @Override
+            public void execute(@NotNull CommandInvocationContext context) {
+                executedArguments.add(context.getArguments()[0]);
+            }
+        });
+
+        List<String> expectedArguments = new ArrayList<>();
+
+        for (int i = 0; i < inputCount; i++) {
+            expectedArguments.add(String.valueOf(i));
+            inputHandler.submit("record " + i);
+        }
+
+        inputHandler.close();
+        consoleParallax.start();
+        consoleParallax.commandReader.join(5000);
+
+        assertEquals(expectedArguments, executedArguments, "All inputs should have been executed in order");
+        assertTrue(submittedTasks.get() < inputCount, "Inputs should have been submitted in batches, but " + submittedTasks.get() + " tasks were submitted");
+    }
+
+    @Test
+    public void testConcurrentExecutionScalesWithPoolSize() throws InterruptedException {
+        assertEquals(4, runBarrierCommands(4), "Four commands should run at once on four threads");
+    }
+
+    @Test
+    public void testExecutionModeSerialization() throws InterruptedException {
+        assertEquals(1, runSleepingCommands(4, CommandExecutionMode.CONCURRENT, "key"), "Commands with the same serialization key should not run in parallel");
+        assertEquals(1, runSleepingCommands(4, CommandExecutionMode.SYNCHRONIZED, null), "Commands should not run in parallel in synchronized mode");
+    }
+
+    /**
+     * Executes as many commands without serialization key as the pool has threads, each waiting for all the others at a
+     * barrier, so they pass only if they all run at once
+     *
+     * @return Number of commands which passed the barrier
+     */
+    private static int runBarrierCommands(int poolSize) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        CyclicBarrier barrier = new CyclicBarrier(poolSize);
+        CountDownLatch finished = new CountDownLatch(poolSize);
+        AtomicInteger passed = new AtomicInteger();
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor)
+                                                                  .setExecutionMode(CommandExecutionMode.CONCURRENT)
+                                                                  .build()) {
+            consoleParallax.registerCommand(new BaseCommand() {
+                @Override
+                public @NotNull String getName() {
+                    return "barrier";
+                }
+
+                @Override
+                public void execute(@NotNull CommandInvocationContext context) {
+                    try {
+                        barrier.await(5, TimeUnit.SECONDS);
+                        passed.incrementAndGet();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    } catch (BrokenBarrierException | TimeoutException ignored) {
+                        // Not all commands are running
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+
+            for (int i = 0; i < poolSize; i++) {
+                executor.execute(() -> consoleParallax.processCommand("barrier"));
+            }
+
+            assertTrue(finished.await(10, TimeUnit.SECONDS), "Commands should have been executed");
+        } finally {
+            executor.shutdown();
+        }
+
+        return passed.get();
+    }
+
+    /**
+     * Executes sleeping commands on a pool with the specified number of threads
+     *
+     * @return Maximum number of commands which were running at once
+     */
+    private static int runSleepingCommands(int poolSize, CommandExecutionMode executionMode, String serializationKey) throws InterruptedException {
+        final int commandCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        TestSleepingCommand command = new TestSleepingCommand(50, serializationKey);
+        command.latch = new CountDownLatch(commandCount);
+
+        try (ConsoleParallax consoleParallax = createTestBuilder().setCommandExecutor(executor)
+                                                                  .setExecutionMode(executionMode)
+                                                                  .build()) {
+            consoleParallax.registerCommand(command);
+
+            for (int i = 0; i < commandCount; i++) {
+                executor.execute(() -> consoleParallax.processCommand(TestSleepingCommand.NAME));
+            }
+
+            assertTrue(command.latch.await(10, TimeUnit.SECONDS), "Commands should have been executed");
+        } finally {
+            executor.shutdown();
+        }
+
+        return command.maxRunning.get();
+    }
+
     @Test
     public void testMisc() {
         ConsoleParallax consoleParallax = createTestBuilder().build();
+        closeables.add(consoleParallax);
 
         assertNotNull(consoleParallax.getMutex(), "Mutex should not be null");
         assertNotNull(consoleParallax.commandReader, "Command reader should not be null");
@@ -0,0 +1,65 @@
+package dev.mayuna.consoleparallax;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeoutWheelTest {
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        TimeoutWheel wheel = new TimeoutWheel(TimeUnit.MILLISECONDS.toNanos(1), 8);
+        CountDownLatch expired = new CountDownLatch(1);
+        AtomicLong expiredAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        TimeoutWheel.Timeout timeout = wheel.schedule(TimeUnit.MILLISECONDS.toNanos(30), () -> {
+            expiredAt.set(System.nanoTime());
+            expired.countDown();
+        });
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS), "Timeout should expire");
+        assertTrue(expiredAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(30), "Timeout should not expire before its deadline");
+        assertTrue(timeout.isExpired(), "Timeout should be expired");
+        assertFalse(timeout.cancel(), "Expired timeout should not be cancelled");
+    }
+
+    @Test
+    public void testCancellation() throws InterruptedException {
+        TimeoutWheel wheel = new TimeoutWheel(TimeUnit.MILLISECONDS.toNanos(1), 8);
+        AtomicInteger runs = new AtomicInteger();
+        List<TimeoutWheel.Timeout> timeouts = new ArrayList<>();
+
+        // Delays span several rotations of the wheel
+        for (int i = 0; i < 100; i++) {
+            timeouts.add(wheel.schedule(TimeUnit.MILLISECONDS.toNanos(i % 40), runs::incrementAndGet));
+        }
+
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            timeouts.get(i).cancel();
+        }
+
+        Thread.sleep(200);
+
+        int expected = 0;
+
+        for (TimeoutWheel.Timeout timeout : timeouts) {
+            if (timeout.isExpired()) {
+                expected++;
+            } else {
+                assertTrue(timeout.isCancelled(), "Timeout should be either expired or cancelled");
+                assertTrue(timeout.cancel(), "Cancelling again should report cancellation");
+            }
+        }
+
+        assertEquals(expected, runs.get(), "Only expired timeouts should run their task");
+        assertTrue(expected >= 50, "Timeouts which were not cancelled should expire");
+    }
+}
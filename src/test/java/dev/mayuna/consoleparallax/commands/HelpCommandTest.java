@@ -1,11 +1,20 @@
 package dev.mayuna.consoleparallax.commands;
 
+import dev.mayuna.consoleparallax.BaseCommand;
 import dev.mayuna.consoleparallax.CommandInvocationContext;
+import dev.mayuna.consoleparallax.CommandTree;
 import dev.mayuna.consoleparallax.ConsoleParallax;
 import dev.mayuna.consoleparallax.ConsoleParallaxTest;
 import dev.mayuna.consoleparallax.impl.TestCommandParser;
+import dev.mayuna.consoleparallax.impl.TestOutputHandler;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class HelpCommandTest {
@@ -32,4 +41,166 @@ public class HelpCommandTest {
         helpCommand.execute(helpWithArguments);
         helpCommand.execute(helpWithUnknownArguments);
     }
+
+    @Test
+    public void testCommandTree() {
+        List<String> output = new ArrayList<>();
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().setOutputHandler(new TestOutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                output.add(message);
+            }
+
+            @Override
+            public void error(@NotNull String message) {
+                output.add(message);
+            }
+        }).build();
+
+        consoleParallax.registerCommand(CommandTree.builder("cache")
+                                                   .setUsage("Manages the cache")
+                                                   .addSubcommand("stats", "Shows statistics", context -> {})
+                                                   .addSubcommand(CommandTree.builder("region")
+                                                                             .setUsage("Manages regions")
+                                                                             .addSubcommand("flush", "Flushes a region", context -> {})
+                                                                             .build())
+                                                   .build());
+
+        HelpCommand helpCommand = new HelpCommand();
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help")));
+        List<String> lines = Arrays.asList(output.get(0).split(System.lineSeparator()));
+
+        assertEquals(1, output.size(), "Listing should be written with a single output call");
+        assertTrue(lines.contains("  cache      Manages the cache"), "Command tree should be listed");
+        assertTrue(lines.contains("    stats    Shows statistics"), "Subcommands should be listed");
+        assertTrue(lines.contains("      flush  Flushes a region"), "Nested subcommands should be listed, columns should be aligned");
+
+        output.clear();
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help cache REGION")));
+        lines = Arrays.asList(output.get(0).split(System.lineSeparator()));
+
+        assertEquals("Command: cache region", lines.get(0), "Subcommand path should be shown");
+        assertEquals("Syntax: region <flush>", lines.get(2), "Subcommand syntax should be shown");
+        assertTrue(lines.contains("  flush  Flushes a region"), "Subcommands of the subcommand should be listed");
+
+        output.clear();
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help cache unknown")));
+
+        assertEquals("Subcommand not found: cache unknown", output.get(0), "Unknown subcommand should be reported");
+    }
+
+    @Test
+    public void testCaching() {
+        List<String> output = new ArrayList<>();
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().setOutputHandler(new TestOutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                output.add(message);
+            }
+
+            @Override
+            public void error(@NotNull String message) {
+                output.add("error: " + message);
+            }
+        }).build();
+        HelpCommand helpCommand = new HelpCommand();
+        consoleParallax.registerCommand(helpCommand);
+
+        CommandInvocationContext context = new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help"));
+        helpCommand.execute(context);
+        helpCommand.execute(context);
+        assertSame(output.get(0), output.get(1), "Listing should be cached");
+
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help help")));
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help HELP")));
+        assertSame(output.get(2), output.get(3), "Description should be cached");
+
+        consoleParallax.registerCommand(new NamedCommand("new-command"));
+        output.clear();
+        helpCommand.execute(context);
+        assertTrue(output.get(0).startsWith("Number of commands: 2"), "Listing should be rendered again once the registry changes");
+        assertTrue(output.get(0).contains("new-command"), "New command should be listed");
+
+        consoleParallax.unregisterCommand("new-command");
+        output.clear();
+        helpCommand.execute(context);
+        assertFalse(output.get(0).contains("new-command"), "Unregistered command should not be listed");
+    }
+
+    @Test
+    public void testPagination() {
+        List<String> output = new ArrayList<>();
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().setOutputHandler(new TestOutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                output.add(message);
+            }
+
+            @Override
+            public void error(@NotNull String message) {
+                output.add("error: " + message);
+            }
+        }).build();
+        HelpCommand helpCommand = new HelpCommand(2);
+        consoleParallax.registerCommand(helpCommand);
+
+        for (int i = 0; i < 4; i++) {
+            consoleParallax.registerCommand(new NamedCommand("command-" + i));
+        }
+
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help")));
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help 3")));
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help 4")));
+
+        assertTrue(output.get(0).contains("command-0") && !output.get(0).contains("command-1"), "First page should list the first commands");
+        assertTrue(output.get(0).contains("Page 1 of 3"), "Page number should be shown");
+        assertTrue(output.get(1).contains("command-3") && output.get(1).contains("Page 3 of 3"), "Last page should be shown");
+        assertEquals("error: Page not found: 4 (there are 3 pages)", output.get(2), "Page out of range should be reported");
+    }
+
+    @Test
+    public void testAliases() {
+        List<String> output = new ArrayList<>();
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().setOutputHandler(new TestOutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                output.add(message);
+            }
+        }).build();
+        HelpCommand helpCommand = new HelpCommand();
+        consoleParallax.registerCommand(helpCommand);
+        consoleParallax.registerCommand(new NamedCommand("stop", "halt", "quit"));
+
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help")));
+        helpCommand.execute(new CommandInvocationContext(consoleParallax, new TestCommandParser().parseCommand("help halt")));
+
+        assertTrue(output.get(0).contains("  stop (halt, quit)"), "Aliases should be listed with their command");
+        assertEquals(3, output.get(0).split(System.lineSeparator()).length - 1, "Aliases should not be listed as separate commands");
+        assertTrue(output.get(1).startsWith("Command: stop" + System.lineSeparator() + "Aliases: halt, quit"), "Alias should show the description of its command");
+    }
+
+    private static final class NamedCommand implements BaseCommand {
+
+        private final String name;
+        private final List<String> aliases;
+
+        private NamedCommand(String name, String... aliases) {
+            this.name = name;
+            this.aliases = Arrays.asList(aliases);
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public @NotNull Collection<String> getAliases() {
+            return aliases;
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+        }
+    }
 }
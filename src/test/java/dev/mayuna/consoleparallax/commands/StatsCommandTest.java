@@ -0,0 +1,36 @@
+package dev.mayuna.consoleparallax.commands;
+
+import dev.mayuna.consoleparallax.CommandInvocationContext;
+import dev.mayuna.consoleparallax.ConsoleParallax;
+import dev.mayuna.consoleparallax.ConsoleParallaxTest;
+import dev.mayuna.consoleparallax.impl.HistogramCommandMetrics;
+import dev.mayuna.consoleparallax.impl.TestCommandParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsCommandTest {
+
+    @Test
+    public void test() {
+        StatsCommand statsCommand = new StatsCommand();
+
+        assertEquals("stats", statsCommand.getName(), "Command name is incorrect");
+        assertNotNull(statsCommand.getDescription(), "Command description is null");
+        assertNotNull(statsCommand.getUsage(), "Command usage is null");
+        assertNotNull(statsCommand.getSyntax(), "Command syntax is null");
+
+        ConsoleParallax withoutMetrics = ConsoleParallaxTest.createTestBuilder().build();
+        statsCommand.execute(new CommandInvocationContext(withoutMetrics, new TestCommandParser().parseCommand("stats")));
+
+        HistogramCommandMetrics metrics = new HistogramCommandMetrics();
+        metrics.recordCommandExecuted(statsCommand, 1_000_000, null);
+
+        ConsoleParallax withMetrics = ConsoleParallaxTest.createTestBuilder().setCommandMetrics(metrics).build();
+        withMetrics.registerDefaultStatsCommand();
+        statsCommand.execute(new CommandInvocationContext(withMetrics, new TestCommandParser().parseCommand("stats")));
+
+        assertTrue(withMetrics.getCommand("stats").isPresent(), "Stats command should be registered");
+        assertEquals("0.002 ms", StatsCommand.formatNanos(2_000), "Nanoseconds should be formatted as milliseconds");
+    }
+}
@@ -0,0 +1,215 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.OutputHandler;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class AsyncOutputHandlerTest {
+
+    @Test
+    public void testBuilder() {
+        assertThrows(NullPointerException.class, () -> AsyncOutputHandler.builder(null), "Null delegate should throw NullPointerException");
+
+        AsyncOutputHandler.Builder builder = AsyncOutputHandler.builder(new RecordingOutputHandler());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.setCapacity(0), "Non-positive capacity should throw IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> builder.setFlushSize(0), "Non-positive flush size should throw IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> builder.setFlushInterval(0, TimeUnit.MILLISECONDS), "Non-positive flush interval should throw IllegalArgumentException");
+        assertThrows(NullPointerException.class, () -> builder.setBackpressurePolicy(null), "Null backpressure policy should throw NullPointerException");
+    }
+
+    @Test
+    public void testCoalescing() {
+        RecordingOutputHandler delegate = new RecordingOutputHandler();
+        AsyncOutputHandler outputHandler = AsyncOutputHandler.builder(delegate)
+                                                             .setFlushInterval(1, TimeUnit.HOURS)
+                                                             .build();
+
+        for (int i = 0; i < 100; i++) {
+            outputHandler.info("info " + i);
+        }
+
+        outputHandler.error("error");
+        outputHandler.info("last");
+        outputHandler.flush();
+
+        List<String> lines = delegate.lines();
+
+        assertEquals(102, lines.size(), "All messages should have been written");
+        assertEquals("info 0", lines.get(0), "Messages should be written in order");
+        assertEquals("E:error", lines.get(100), "Error should be written after the info messages");
+        assertEquals("last", lines.get(101), "Messages should be written in order");
+        assertTrue(delegate.writes() <= 4, "Messages should have been coalesced, but " + delegate.writes() + " writes were made");
+
+        outputHandler.close();
+    }
+
+    @Test
+    public void testFlushSize() {
+        RecordingOutputHandler delegate = new RecordingOutputHandler();
+        AsyncOutputHandler outputHandler = AsyncOutputHandler.builder(delegate)
+                                                             .setFlushSize(10)
+                                                             .setFlushInterval(1, TimeUnit.HOURS)
+                                                             .build();
+
+        for (int i = 0; i < 100; i++) {
+            outputHandler.info("info " + i);
+        }
+
+        outputHandler.flush();
+
+        assertEquals(100, delegate.lines().size(), "All messages should have been written");
+        assertTrue(delegate.writes() >= 10, "Writes should contain at most 10 messages");
+
+        outputHandler.close();
+    }
+
+    @Test
+    public void testDropPolicies() throws InterruptedException {
+        assertEquals(Arrays.asList("first", "a", "b"), runWithBlockedDelegate(AsyncOutputHandler.BackpressurePolicy.DROP), "Newest messages should be dropped");
+        assertEquals(Arrays.asList("first", "d", "e"), runWithBlockedDelegate(AsyncOutputHandler.BackpressurePolicy.DROP_OLDEST), "Oldest messages should be dropped");
+    }
+
+    private static List<String> runWithBlockedDelegate(AsyncOutputHandler.BackpressurePolicy policy) throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingOutputHandler delegate = new RecordingOutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                writing.countDown();
+
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+
+                super.info(message);
+            }
+        };
+
+        AsyncOutputHandler outputHandler = AsyncOutputHandler.builder(delegate)
+                                                             .setCapacity(2)
+                                                             .setFlushInterval(1, TimeUnit.MILLISECONDS)
+                                                             .setBackpressurePolicy(policy)
+                                                             .build();
+
+        outputHandler.info("first");
+        assertTrue(writing.await(5, TimeUnit.SECONDS), "Writer should have started writing");
+
+        for (String message : new String[]{"a", "b", "c", "d", "e"}) {
+            outputHandler.info(message);
+        }
+
+        assertEquals(3, outputHandler.getDroppedMessageCount(), "Three messages should have been dropped");
+
+        release.countDown();
+        outputHandler.close();
+
+        return delegate.lines();
+    }
+
+    @Test
+    public void testBlockPolicy() {
+        RecordingOutputHandler delegate = new RecordingOutputHandler();
+        AsyncOutputHandler outputHandler = AsyncOutputHandler.builder(delegate)
+                                                             .setCapacity(4)
+                                                             .setBackpressurePolicy(AsyncOutputHandler.BackpressurePolicy.BLOCK)
+                                                             .build();
+
+        for (int i = 0; i < 1000; i++) {
+            outputHandler.info("info " + i);
+        }
+
+        outputHandler.close();
+
+        assertEquals(1000, delegate.lines().size(), "No messages should have been dropped");
+        assertEquals(0, outputHandler.getDroppedMessageCount(), "No messages should have been dropped");
+        assertEquals(0, outputHandler.getQueueSize(), "Queue should be empty after close");
+
+        outputHandler.info("after-close");
+
+        assertEquals("after-close", delegate.lines().get(1000), "Messages after close should be written synchronously");
+    }
+
+    @Test
+    public void testCloseWhileWriting() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            RecordingOutputHandler delegate = new RecordingOutputHandler();
+            AsyncOutputHandler outputHandler = AsyncOutputHandler.builder(delegate)
+                                                                 .setCapacity(8)
+                                                                 .setBackpressurePolicy(AsyncOutputHandler.BackpressurePolicy.BLOCK)
+                                                                 .build();
+            int threadCount = 4;
+            int messageCount = 500;
+            CountDownLatch started = new CountDownLatch(threadCount);
+            List<Thread> threads = new ArrayList<>();
+
+            for (int i = 0; i < threadCount; i++) {
+                Thread thread = new Thread(() -> {
+                    started.countDown();
+
+                    for (int j = 0; j < messageCount; j++) {
+                        outputHandler.info("message");
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            started.await();
+            outputHandler.close();
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(threadCount * messageCount, delegate.lines().size(), "Messages submitted while closing should not be lost");
+            assertEquals(0, outputHandler.getQueueSize(), "Queue should be empty after close");
+        }
+    }
+
+    private static class RecordingOutputHandler implements OutputHandler {
+
+        private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void info(@NotNull String message) {
+            writes.add(message);
+        }
+
+        @Override
+        public void error(@NotNull String message) {
+            writes.add("E:" + message);
+        }
+
+        public int writes() {
+            return writes.size();
+        }
+
+        public List<String> lines() {
+            List<String> lines = new ArrayList<>();
+
+            synchronized (writes) {
+                for (String write : writes) {
+                    String prefix = write.startsWith("E:") ? "E:" : "";
+                    for (String line : write.substring(prefix.length()).split(System.lineSeparator())) {
+                        lines.add(prefix + line);
+                    }
+                }
+            }
+
+            return lines;
+        }
+    }
+}
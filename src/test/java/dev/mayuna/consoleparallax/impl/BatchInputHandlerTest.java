@@ -0,0 +1,49 @@
+package dev.mayuna.consoleparallax.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class BatchInputHandlerTest {
+
+    private static final String SCRIPT = "# Bootstrap\n\nfirst\n  second argument  \nparallel {\nthird\n}\nfourth\n";
+
+    @Test
+    public void testInputHandler() {
+        BatchInputHandler inputHandler = new BatchInputHandler(new BufferedReader(new StringReader(SCRIPT)));
+        List<String> inputs = new ArrayList<>();
+
+        inputs.add(inputHandler.getNextInput());
+        assertEquals(3, inputHandler.getLineNumber(), "Line number is incorrect");
+        assertEquals(2, inputHandler.drainTo(inputs, 2), "Inputs should be drained in bulk");
+        assertEquals(1, inputHandler.drainTo(inputs, 10), "Remaining inputs should be drained");
+
+        assertIterableEquals(Arrays.asList("first", "second argument", "third", "fourth"), inputs, "Comments, blank lines and block markers should be skipped");
+        assertTrue(inputHandler.isEndOfStream(), "End of stream should be signalled once the last line is read");
+        assertNull(inputHandler.getNextInput(), "No input should be left");
+        assertThrows(NullPointerException.class, () -> new BatchInputHandler((BufferedReader) null), "Null reader should throw NullPointerException");
+    }
+
+    @Test
+    public void testScriptLines() {
+        BatchInputHandler inputHandler = new BatchInputHandler(new BufferedReader(new StringReader(SCRIPT)));
+        List<String> lines = new ArrayList<>();
+        String line;
+
+        while ((line = inputHandler.nextLine()) != null) {
+            lines.add(line);
+        }
+
+        assertIterableEquals(Arrays.asList("first", "second argument", "parallel {", "third", "}", "fourth"), lines, "Block markers should be returned as lines");
+        assertTrue(BatchInputHandler.isParallelBlockStart("parallel{"), "Block start without a space should be recognized");
+        assertTrue(BatchInputHandler.isBlockEnd("}"), "Block end should be recognized");
+        assertFalse(BatchInputHandler.isParallelBlockStart("parallel"), "Command named parallel should not start a block");
+    }
+}
@@ -0,0 +1,51 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.OutputHandler;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class BufferedOutputHandlerTest {
+
+    @Test
+    public void testFlush() {
+        List<String> output = new ArrayList<>();
+        OutputHandler target = new OutputHandler() {
+            @Override
+            public void info(@NotNull String message) {
+                output.add("info: " + message);
+            }
+
+            @Override
+            public void error(@NotNull String message) {
+                output.add("error: " + message);
+            }
+        };
+
+        BufferedOutputHandler buffer = new BufferedOutputHandler();
+        buffer.flushTo(target);
+        assertTrue(output.isEmpty(), "Empty buffer should not write anything");
+
+        buffer.info("a");
+        buffer.info("b");
+        buffer.error("c");
+        buffer.info("d");
+        assertEquals(4, buffer.getMessageCount(), "Message count is incorrect");
+        assertTrue(output.isEmpty(), "Messages should be buffered until flushed");
+
+        buffer.flushTo(target);
+        String separator = System.lineSeparator();
+        assertIterableEquals(Arrays.asList("info: a" + separator + "b", "error: c", "info: d"), output, "Consecutive messages of the same type should be coalesced");
+        assertEquals(0, buffer.getMessageCount(), "Buffer should be cleared after flush");
+
+        buffer.flushTo(target);
+        assertEquals(3, output.size(), "Flushed messages should not be written again");
+        assertThrows(NullPointerException.class, () -> buffer.flushTo(null), "Null output handler should throw NullPointerException");
+    }
+}
@@ -0,0 +1,35 @@
+package dev.mayuna.consoleparallax.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramCommandMetricsTest {
+
+    @Test
+    public void testRecording() {
+        HistogramCommandMetrics metrics = new HistogramCommandMetrics();
+        TestCommand command = new TestCommand();
+
+        assertTrue(metrics.isEnabled(), "Metrics should be enabled");
+        assertNull(metrics.getStatistics(TestCommand.NAME), "Statistics should not exist before the command is executed");
+
+        for (int i = 1; i <= 10; i++) {
+            metrics.recordCommandExecuted(command, i * 1_000_000L, null);
+        }
+
+        metrics.recordCommandExecuted(command, 1_000_000L, new IllegalStateException());
+        metrics.recordCommandNotFound("unknown");
+        metrics.recordCommandNotFound("unknown");
+
+        HistogramCommandMetrics.CommandStatistics statistics = metrics.getStatistics(TestCommand.NAME.toUpperCase());
+
+        assertNotNull(statistics, "Statistics lookup should be case-insensitive");
+        assertEquals(11, statistics.getCount(), "Executions should have been counted");
+        assertEquals(1, statistics.getErrors(), "Errors should have been counted");
+        assertEquals(10_000_000L, statistics.getLatency().getMaxValue(), "Maximum latency should be recorded");
+        assertEquals(2, metrics.getNotFoundCount(), "Unknown commands should have been counted");
+        assertEquals(1, metrics.getStatistics().size(), "Only executed commands should have statistics");
+        assertTrue(metrics.getCommandsPerSecond() > 0, "Commands per second should be positive");
+    }
+}
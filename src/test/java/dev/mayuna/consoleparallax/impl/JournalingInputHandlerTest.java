@@ -0,0 +1,177 @@
+package dev.mayuna.consoleparallax.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class JournalingInputHandlerTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("console-parallax-journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testJournalAndReplay() throws Exception {
+        List<String> inputs = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            inputs.add("command-" + i + " argument");
+        }
+
+        inputs.add("");
+        inputs.add("\u011b\u0161\u010d\u0159 \ud83d\ude00");
+        inputs.add(String.join("", Collections.nCopies(3000, "x"))); // Longer than a segment
+
+        QueueInputHandler delegate = new QueueInputHandler();
+        inputs.forEach(delegate::submit);
+        delegate.close();
+
+        JournalingInputHandler journal = JournalingInputHandler.builder(delegate, directory).setSegmentSize(1024).build();
+        List<String> returned = new ArrayList<>();
+
+        returned.add(journal.getNextInput());
+        returned.add(journal.getNextInput(1, TimeUnit.SECONDS));
+        journal.drainTo(returned, 100);
+
+        String input;
+
+        while ((input = journal.getNextInput(100, TimeUnit.MILLISECONDS)) != null) {
+            returned.add(input);
+        }
+
+        assertTrue(journal.isEndOfStream(), "End of stream should be delegated");
+        assertIterableEquals(inputs, returned, "Inputs should be passed through");
+        assertEquals(inputs.size(), journal.getRecordCount(), "All inputs should be journaled");
+        journal.close();
+
+        assertTrue(JournalFormat.listSegments(directory).size() > 10, "Journal should roll over to new segments");
+        assertIterableEquals(inputs, replay(), "Replayed inputs should match the journaled inputs");
+    }
+
+    @Test
+    public void testAppendToExistingJournal() throws Exception {
+        journal("first", "second");
+        journal("third");
+
+        assertEquals(Arrays.asList(0L, 1L), JournalFormat.listSegments(directory), "New journal should continue with a new segment");
+        assertIterableEquals(Arrays.asList("first", "second", "third"), replay(), "Both journals should be replayed in order");
+
+        JournalReplayInputHandler replay = JournalReplayInputHandler.builder(directory).build();
+        replay.close();
+        assertTrue(replay.isEndOfStream(), "Closed replay should signal the end of stream");
+    }
+
+    @Test
+    public void testReplayOriginalTiming() throws Exception {
+        QueueInputHandler delegate = new QueueInputHandler();
+        JournalingInputHandler journal = JournalingInputHandler.builder(delegate, directory).build();
+
+        delegate.submit("first");
+        journal.getNextInput();
+        Thread.sleep(200);
+        delegate.submit("second");
+        journal.getNextInput();
+        journal.close();
+
+        JournalReplayInputHandler replay = JournalReplayInputHandler.builder(directory).setOriginalTiming(true).build();
+        long start = System.nanoTime();
+
+        assertEquals("first", replay.getNextInput(), "First input should be replayed immediately");
+        assertEquals(0, replay.drainTo(new ArrayList<>(), 10), "Second input should not be due yet");
+        assertNull(replay.getNextInput(10, TimeUnit.MILLISECONDS), "Second input should not be due yet");
+        assertEquals("second", replay.getNextInput(), "Second input should be replayed");
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190), "Gap between the inputs should be preserved");
+        assertNull(replay.getNextInput(), "No input should be left");
+        assertTrue(replay.isEndOfStream(), "Replay should signal the end of stream");
+        assertEquals(2, replay.getReplayedCount(), "Replayed count is incorrect");
+    }
+
+    @Test
+    public void testCloseDuringRecordedGap() throws Exception {
+        ByteBuffer segment = ByteBuffer.allocate(64);
+        segment.putInt(JournalFormat.MAGIC).putLong(System.currentTimeMillis());
+        writeRecord(segment, "first", 0);
+        writeRecord(segment, "second", TimeUnit.HOURS.toMicros(1));
+        segment.flip();
+
+        try (FileChannel channel = FileChannel.open(JournalFormat.segmentPath(directory, 0), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(segment);
+        }
+
+        JournalReplayInputHandler replay = JournalReplayInputHandler.builder(directory).setOriginalTiming(true).build();
+        assertEquals("first", replay.getNextInput(), "First input should be replayed immediately");
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(replay::getNextInput);
+        assertNull(replay.getNextInput(10, TimeUnit.MILLISECONDS), "Second input should not be due yet");
+        assertEquals(1, replay.getReplayedCount(), "Replayed count should be available during the gap");
+        assertFalse(replay.isEndOfStream(), "Replay should not end during the gap");
+
+        replay.close();
+        assertNull(second.get(5, TimeUnit.SECONDS), "Close should stop the replay waiting for the next input");
+        assertTrue(replay.isEndOfStream(), "Closed replay should signal the end of stream");
+        assertEquals(1, replay.getReplayedCount(), "Second input should not be replayed");
+    }
+
+    private static void writeRecord(ByteBuffer segment, String input, long elapsedMicros) {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        JournalFormat.writeVarint(segment, bytes.length + 1);
+        JournalFormat.writeVarint(segment, elapsedMicros);
+        segment.put(bytes);
+    }
+
+    private void journal(String... inputs) throws IOException {
+        QueueInputHandler delegate = new QueueInputHandler();
+        JournalingInputHandler journal = JournalingInputHandler.builder(delegate, directory).build();
+
+        for (String input : inputs) {
+            delegate.submit(input);
+            journal.getNextInput();
+        }
+
+        journal.close();
+    }
+
+    private List<String> replay() throws IOException {
+        JournalReplayInputHandler replay = JournalReplayInputHandler.builder(directory).build();
+        List<String> replayed = new ArrayList<>();
+
+        while (!replay.isEndOfStream()) {
+            if (replay.drainTo(replayed, 7) == 0) {
+                replayed.add(replay.getNextInput());
+            }
+        }
+
+        return replayed;
+    }
+}
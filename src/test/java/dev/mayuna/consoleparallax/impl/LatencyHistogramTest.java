@@ -0,0 +1,52 @@
+package dev.mayuna.consoleparallax.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getTotalCount(), "Empty histogram should have no values");
+        assertEquals(0, histogram.getMaxValue(), "Empty histogram should have zero maximum");
+        assertEquals(0, histogram.getValueAtPercentile(50), "Empty histogram should have zero percentiles");
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getTotalCount(), "All values should have been recorded");
+        assertEquals(100_000_000, histogram.getMaxValue(), "Maximum should be exact");
+        assertWithinPrecision(50_000_000, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(99_000_000, histogram.getValueAtPercentile(99));
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100), "100th percentile should be the maximum");
+    }
+
+    @Test
+    public void testSmallAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+        histogram.record(7);
+        histogram.record(TimeUnit.DAYS.toNanos(1));
+
+        assertEquals(0, histogram.getValueAtPercentile(1), "Negative values should be recorded as zero");
+        assertEquals(7, histogram.getValueAtPercentile(50), "Small values should be recorded exactly");
+        assertEquals(TimeUnit.HOURS.toNanos(1), histogram.getMaxValue(), "Values over one hour should be capped");
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error < 0.04, "Value " + actual + " should be within 4 % of " + expected);
+    }
+}
@@ -0,0 +1,59 @@
+package dev.mayuna.consoleparallax.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class QueueInputHandlerTest {
+
+    @Test
+    public void testSubmitAndClose() throws InterruptedException {
+        QueueInputHandler inputHandler = new QueueInputHandler();
+
+        assertThrows(NullPointerException.class, () -> inputHandler.submit(null), "Null passed to #submit(), should throw NullPointerException");
+
+        inputHandler.submit("first");
+        inputHandler.submit("second");
+
+        assertEquals("first", inputHandler.getNextInput(), "Inputs should be returned in order");
+        assertEquals("second", inputHandler.getNextInput(10, TimeUnit.MILLISECONDS), "Inputs should be returned in order");
+        assertNull(inputHandler.getNextInput(10, TimeUnit.MILLISECONDS), "Timed poll should return null when there is no input");
+        assertFalse(inputHandler.isEndOfStream(), "End of stream should not be signalled before close");
+
+        inputHandler.submit("last");
+        inputHandler.close();
+
+        assertThrows(IllegalStateException.class, () -> inputHandler.submit("after-close"), "Submitting after close should throw IllegalStateException");
+        assertEquals("last", inputHandler.getNextInput(), "Inputs submitted before close should still be returned");
+        assertNull(inputHandler.getNextInput(), "Closed input handler should return null");
+        assertTrue(inputHandler.isEndOfStream(), "End of stream should be signalled after close");
+        assertNull(inputHandler.getNextInput(10, TimeUnit.MILLISECONDS), "Closed input handler should keep returning null");
+    }
+
+    @Test
+    public void testDrainTo() {
+        QueueInputHandler inputHandler = new QueueInputHandler();
+        List<String> inputs = new ArrayList<>();
+
+        assertEquals(0, inputHandler.drainTo(inputs, 10), "Nothing should be drained from an empty input handler");
+
+        inputHandler.submit("a");
+        inputHandler.submit("b");
+        inputHandler.submit("c");
+
+        assertEquals(2, inputHandler.drainTo(inputs, 2), "Drain should respect the maximum");
+        assertEquals(Arrays.asList("a", "b"), inputs, "Drained inputs should be in order");
+
+        inputHandler.close();
+
+        assertEquals(1, inputHandler.drainTo(inputs, 10), "End of stream marker should not be drained as an input");
+        assertEquals(Arrays.asList("a", "b", "c"), inputs, "Drained inputs should be in order");
+        assertTrue(inputHandler.isEndOfStream(), "End of stream should be signalled after draining a closed input handler");
+    }
+}
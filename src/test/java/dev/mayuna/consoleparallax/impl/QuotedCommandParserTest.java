@@ -0,0 +1,188 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.CommandParseResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuotedCommandParserTest {
+
+    private static final int PROPERTY_ITERATIONS = 2000;
+    private static final String ALPHABET = "ab-=\"'\\ \t";
+    private static final String WHITESPACE = " \t";
+
+    private final QuotedCommandParser parser = new QuotedCommandParser();
+
+    @Test
+    public void testParsing() {
+        assertParsed("test", new String[0], "test");
+        assertParsed("test", new String[]{"a", "b"}, "  test  a   b ");
+        assertParsed("say", new String[]{"hello world", "x"}, "say \"hello world\" x");
+        assertParsed("say", new String[]{"it's"}, "say \"it's\"");
+        assertParsed("say", new String[]{"a \"b\""}, "say 'a \"b\"'");
+        assertParsed("say", new String[]{"a\\b"}, "say 'a\\b'");
+        assertParsed("say", new String[]{"a b", "\"", "\\"}, "say a\\ b \\\" \"\\\\\"");
+        assertParsed("say", new String[]{"abc"}, "say a\"b\"'c'");
+        assertParsed("say", new String[]{""}, "say \"\"");
+        assertParsed("say", new String[]{"open quote"}, "say \"open quote");
+        assertParsed("say", new String[]{"\\"}, "say \\");
+        assertParsed("my command", new String[0], "\"my command\"");
+        assertParsed("", new String[0], "");
+        assertParsed("", new String[0], " \t ");
+    }
+
+    @Test
+    public void testPipeline() {
+        List<CommandParseResult> stages = parser.parsePipeline("say \"a | b\" 'c|d' e\\|f | grep --pattern=x|count");
+
+        assertEquals(3, stages.size(), "Quoted and escaped pipes should not separate stages");
+        assertArrayEquals(new String[]{"a | b", "c|d", "e|f"}, stages.get(0).getArguments(), "Arguments are incorrect");
+        assertEquals("grep", stages.get(1).getCommandName(), "Command name is incorrect");
+        assertEquals("x", stages.get(1).getFlags().get("pattern"), "Flags should be parsed per stage");
+        assertEquals("count", stages.get(2).getCommandName(), "Command name is incorrect");
+        assertEquals(1, parser.parsePipeline("say \"|\"").size(), "Input without an unquoted pipe should be a single stage");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> parser.parsePipeline("list |"), "Trailing pipe should throw IllegalArgumentException");
+        assertEquals("Pipeline stage 2 has no command", exception.getMessage(), "Error message is incorrect");
+        assertThrows(IllegalArgumentException.class, () -> parser.parsePipeline("| count"), "Leading pipe should throw IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> parser.parsePipeline("list | \t | count"), "Blank stage should throw IllegalArgumentException");
+    }
+
+    @Test
+    public void testFlags() {
+        CommandParseResult result = parser.parseCommand("deploy app --force --region=eu-west --name=\"My App\" -v --region=us -- --literal");
+
+        assertEquals("deploy", result.getCommandName(), "Command name is incorrect");
+        assertArrayEquals(new String[]{"app", "-v", "--literal"}, result.getArguments(), "Flags should not be positional arguments");
+
+        Map<String, String> expectedFlags = new LinkedHashMap<>();
+        expectedFlags.put("force", "");
+        expectedFlags.put("region", "us");
+        expectedFlags.put("name", "My App");
+
+        assertEquals(expectedFlags, result.getFlags(), "Flags are incorrect");
+        assertIterableEquals(expectedFlags.keySet(), result.getFlags().keySet(), "Flags should be in the order of their first occurrence");
+        assertSame(result.getFlags(), result.getFlags(), "Flags should be mapped only once");
+        assertThrows(UnsupportedOperationException.class, () -> result.getFlags().put("x", "y"), "Flags should be immutable");
+
+        assertArrayEquals(new String[]{"--quoted", "--also"}, parser.parseCommand("test \"--quoted\" -\\-also").getArguments(), "Quoted dashes should not start a flag");
+        assertEquals(Collections.singletonMap("key", "a=b"), parser.parseCommand("test --key=a=b").getFlags(), "Value should be split on the first '='");
+        assertTrue(parser.parseCommand("test a b").getFlags().isEmpty(), "Command without flags should have no flags");
+        assertSame(CommandParseResult.EMPTY_ARGUMENTS, parser.parseCommand("test --flag").getArguments(), "Empty arguments should be the shared constant");
+    }
+
+    @Test
+    public void testCharBuffer() {
+        CharBuffer buffer = CharBuffer.wrap("ignored say \"a b\" --flag=1");
+        buffer.position(8);
+        CommandParseResult result = parser.parseCommand(buffer);
+
+        assertEquals("say", result.getCommandName(), "Parsing should start at the buffer's position");
+        assertArrayEquals(new String[]{"a b"}, result.getArguments(), "Arguments are incorrect");
+        assertEquals(Collections.singletonMap("flag", "1"), result.getFlags(), "Flags are incorrect");
+    }
+
+    @Test
+    public void testPropertyQuotedTokensRoundTrip() {
+        Random random = new Random(0x5EED);
+
+        for (int iteration = 0; iteration < PROPERTY_ITERATIONS; iteration++) {
+            List<String> tokens = new ArrayList<>();
+            StringBuilder input = new StringBuilder(randomString(random, WHITESPACE, 2));
+            int tokenCount = 1 + random.nextInt(6);
+
+            for (int i = 0; i < tokenCount; i++) {
+                String token = randomString(random, ALPHABET, 8);
+                tokens.add(token);
+                input.append(random.nextBoolean() ? quoteDouble(token) : quoteEscaped(token));
+                input.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length()))).append(randomString(random, WHITESPACE, 2));
+            }
+
+            CommandParseResult result = parser.parseCommand(input.toString());
+            List<String> parsed = new ArrayList<>();
+            parsed.add(result.getCommandName());
+            parsed.addAll(Arrays.asList(result.getArguments()));
+
+            assertEquals(tokens, parsed, "Quoted tokens should round trip for input: " + input);
+            assertTrue(result.getFlags().isEmpty(), "Quoted tokens should never be flags for input: " + input);
+        }
+    }
+
+    @Test
+    public void testPropertyMatchesSimpleParser() {
+        Random random = new Random(0xC0FFEE);
+        SimpleCommandParser simpleCommandParser = new SimpleCommandParser();
+
+        for (int iteration = 0; iteration < PROPERTY_ITERATIONS; iteration++) {
+            String input = randomString(random, "abc- \t", 24).replaceAll("-+", "-");
+            CommandParseResult expected = simpleCommandParser.parseCommand(input);
+            CommandParseResult actual = parser.parseCommand(input);
+
+            assertEquals(expected.getCommandName(), actual.getCommandName(), "Command name should match the simple parser for input: " + input);
+            assertArrayEquals(expected.getArguments(), actual.getArguments(), "Arguments should match the simple parser for input: " + input);
+        }
+    }
+
+    @Test
+    public void testPropertyFlagsRoundTrip() {
+        Random random = new Random(0xF1A6);
+
+        for (int iteration = 0; iteration < PROPERTY_ITERATIONS; iteration++) {
+            Map<String, String> flags = new LinkedHashMap<>();
+            StringBuilder input = new StringBuilder("test");
+            int flagCount = 1 + random.nextInt(4);
+
+            for (int i = 0; i < flagCount; i++) {
+                String name = "f" + randomString(random, "ab", 4);
+                String value = randomString(random, ALPHABET, 8);
+                flags.put(name, value);
+                input.append(" --").append(name).append('=').append(quoteDouble(value));
+            }
+
+            CommandParseResult fromString = parser.parseCommand(input.toString());
+            CommandParseResult fromBuffer = parser.parseCommand(CharBuffer.wrap(input));
+
+            assertEquals(flags, fromString.getFlags(), "Flags should round trip for input: " + input);
+            assertEquals(flags, fromBuffer.getFlags(), "CharBuffer should be parsed the same as String for input: " + input);
+            assertEquals(0, fromString.getArguments().length, "Flags should not be arguments for input: " + input);
+        }
+    }
+
+    private void assertParsed(String expectedName, String[] expectedArguments, String input) {
+        CommandParseResult result = parser.parseCommand(input);
+
+        assertEquals(expectedName, result.getCommandName(), "Command name is incorrect for input: " + input);
+        assertArrayEquals(expectedArguments, result.getArguments(), "Arguments are incorrect for input: " + input);
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        char[] characters = new char[random.nextInt(maxLength + 1)];
+
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+
+        return new String(characters);
+    }
+
+    private static String quoteDouble(String token) {
+        return "\"" + token.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String quoteEscaped(String token) {
+        if (token.isEmpty()) {
+            return "''";
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (char character : token.toCharArray()) {
+            builder.append('\\').append(character);
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.CommandParseResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimpleCommandParserTest {
+
+    private final SimpleCommandParser parser = new SimpleCommandParser();
+
+    @Test
+    public void testParsing() {
+        assertParsed("test", new String[0], "test");
+        assertParsed("test", new String[]{"a", "b"}, "test a b");
+        assertParsed("test", new String[]{"a", "b"}, "   test    a     b   ");
+        assertParsed("test", new String[]{"a", "b", "c"}, "\ttest\ta \t b\r\nc\n");
+        assertParsed("", new String[0], "");
+        assertParsed("", new String[0], " \t ");
+    }
+
+    @Test
+    public void testPipeIsLiteral() {
+        List<CommandParseResult> stages = parser.parsePipeline("say a|b |");
+
+        assertEquals(1, stages.size(), "Pipes should not separate stages");
+        assertEquals("say", stages.get(0).getCommandName(), "Command name is incorrect");
+        assertArrayEquals(new String[]{"a|b", "|"}, stages.get(0).getArguments(), "Pipes should be kept in arguments");
+    }
+
+    @Test
+    public void testSharedEmptyArguments() {
+        assertSame(CommandParseResult.EMPTY_ARGUMENTS, parser.parseCommand("test").getArguments(), "Empty arguments should be the shared constant");
+        assertSame(CommandParseResult.EMPTY_ARGUMENTS, parser.parseCommand("  test  ").getArguments(), "Empty arguments should be the shared constant");
+    }
+
+    @Test
+    public void testMatchesLegacyParser() {
+        String[] inputs = {"help", "help help", "  a  b  c  ", "example arg1 arg2 arg3", "x"};
+
+        for (String input : inputs) {
+            String[] legacy = input.trim().replaceAll(" +", " ").split(" ");
+            CommandParseResult result = parser.parseCommand(input);
+
+            assertEquals(legacy[0], result.getCommandName(), "Command name should match the legacy parser for: " + input);
+            assertEquals(legacy.length - 1, result.getArguments().length, "Argument count should match the legacy parser for: " + input);
+
+            for (int i = 1; i < legacy.length; i++) {
+                assertEquals(legacy[i], result.getArguments()[i - 1], "Argument should match the legacy parser for: " + input);
+            }
+        }
+    }
+
+    private void assertParsed(String expectedName, String[] expectedArguments, String input) {
+        CommandParseResult result = parser.parseCommand(input);
+
+        assertEquals(expectedName, result.getCommandName(), "Command name is incorrect for input: " + input);
+        assertArrayEquals(expectedArguments, result.getArguments(), "Arguments are incorrect for input: " + input);
+    }
+}
@@ -0,0 +1,371 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.BaseCommand;
+import dev.mayuna.consoleparallax.CommandInvocationContext;
+import dev.mayuna.consoleparallax.ConsoleParallax;
+import dev.mayuna.consoleparallax.ConsoleParallaxTest;
+import dev.mayuna.consoleparallax.OverloadPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("DataFlowIssue")
+public class SocketCommandServerTest {
+
+    private static final int SOCKET_TIMEOUT_MILLIS = 5000;
+
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    public void testCommands() throws IOException {
+        SocketCommandServer server = startServer(SocketCommandServer.builder(createConsoleParallax()));
+
+        try (Socket socket = connect(server)) {
+            BufferedReader reader = createReader(socket);
+
+            send(socket, "echo hello world\n");
+            assertEquals("hello world", reader.readLine(), "Command output should be sent back");
+
+            send(socket, "ech");
+            send(socket, "o split\r\n\nunknown\n");
+            assertEquals("split", reader.readLine(), "Line split across writes should be framed");
+            assertEquals(SocketSession.ERROR_PREFIX + "Command not found: unknown", reader.readLine(), "Errors should be prefixed");
+
+            send(socket, "echo \u011b\u0161\u010d\u0159\n");
+            assertEquals("\u011b\u0161\u010d\u0159", reader.readLine(), "Input and output should be UTF-8");
+        }
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().setCommandExecutor(Executors.newFixedThreadPool(4)).build();
+        consoleParallax.registerCommand(new EchoCommand());
+        SocketCommandServer server = startServer(SocketCommandServer.builder(consoleParallax));
+
+        int sessionCount = 20;
+        int commandCount = 50;
+        List<Socket> sockets = new ArrayList<>();
+
+        for (int i = 0; i < sessionCount; i++) {
+            Socket socket = connect(server);
+            sockets.add(socket);
+
+            StringBuilder input = new StringBuilder();
+
+            for (int j = 0; j < commandCount; j++) {
+                input.append("echo ").append(i).append('-').append(j).append('\n');
+            }
+
+            send(socket, input.toString());
+        }
+
+        for (int i = 0; i < sessionCount; i++) {
+            BufferedReader reader = createReader(sockets.get(i));
+
+            for (int j = 0; j < commandCount; j++) {
+                assertEquals(i + "-" + j, reader.readLine(), "Each session should receive only its own output, in order");
+            }
+        }
+
+        assertEquals(sessionCount, server.getSessionCount(), "All sessions should be open");
+
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testEndOfStreamClosesAfterOutput() throws Exception {
+        SocketCommandServer server = startServer(SocketCommandServer.builder(createConsoleParallax()));
+
+        try (Socket socket = connect(server)) {
+            BufferedReader reader = createReader(socket);
+
+            send(socket, "echo first\necho second\n");
+            socket.shutdownOutput();
+
+            assertEquals("first", reader.readLine(), "Output should be sent before closing");
+            assertEquals("second", reader.readLine(), "Output should be sent before closing");
+            assertNull(reader.readLine(), "Session should be closed after the end of stream");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (server.getSessionCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, server.getSessionCount(), "Closed session should be removed");
+    }
+
+    @Test
+    public void testEndOfStreamFramesUnterminatedLine() throws Exception {
+        SocketCommandServer server = startServer(SocketCommandServer.builder(createConsoleParallax()));
+
+        try (Socket socket = connect(server)) {
+            BufferedReader reader = createReader(socket);
+
+            send(socket, "echo first\necho last");
+            socket.getOutputStream().write(0xC4); // Incomplete UTF-8 sequence held by the decoder
+            socket.shutdownOutput();
+
+            assertEquals("first", reader.readLine(), "Terminated line should be processed");
+            assertEquals("last\ufffd", reader.readLine(), "Unterminated line should be processed at the end of stream");
+            assertNull(reader.readLine(), "Session should be closed after the end of stream");
+        }
+    }
+
+    @Test
+    public void testLimits() throws Exception {
+        SocketCommandServer server = startServer(SocketCommandServer.builder(createConsoleParallax())
+                                                                    .setMaxLineLength(16)
+                                                                    .setOutputBufferCapacity(64));
+
+        try (Socket socket = connect(server)) {
+            BufferedReader reader = createReader(socket);
+
+            send(socket, "echo this line is way too long\necho ok\n");
+            assertEquals(SocketSession.ERROR_PREFIX + "Line is longer than 16 characters", reader.readLine(), "Too long line should be rejected");
+            assertEquals("ok", reader.readLine(), "Next line should be processed");
+
+            send(socket, "flood\n");
+            Thread.sleep(200); // Output buffer is flushed to the socket in the meantime
+            send(socket, "echo done\n");
+            String line;
+            int received = 0;
+
+            while (!"done".equals(line = reader.readLine())) {
+                assertNotNull(line, "Connection should stay open");
+                received++;
+            }
+
+            assertTrue(received < FloodCommand.MESSAGES, "Messages over the output buffer capacity should be dropped");
+        }
+    }
+
+    @Test
+    public void testLifecycle() throws IOException {
+        SocketCommandServer server = SocketCommandServer.builder(createConsoleParallax()).build();
+        closeables.add(server);
+
+        assertThrows(IllegalStateException.class, server::getLocalAddress, "Server was not started");
+        assertThrows(NullPointerException.class, () -> SocketCommandServer.builder(null), "Null ConsoleParallax should throw NullPointerException");
+        assertThrows(IllegalArgumentException.class, () -> SocketCommandServer.builder(createConsoleParallax()).setMaxLineLength(0), "Non-positive line length should throw IllegalArgumentException");
+
+        server.start();
+        assertThrows(IllegalStateException.class, server::start, "Server was already started");
+
+        Socket socket = connect(server);
+        BufferedReader reader = createReader(socket);
+        send(socket, "echo x\n");
+        assertEquals("x", reader.readLine(), "Command should be executed");
+
+        server.close();
+        assertNull(reader.readLine(), "Closing the server should close sessions");
+        socket.close();
+    }
+
+    @Test
+    public void testCommandQueueOverload() throws Exception {
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder()
+                                                             .setCommandQueueCapacity(1)
+                                                             .setOverloadPolicy(OverloadPolicy.REJECT)
+                                                             .build();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        consoleParallax.registerCommand(new EchoCommand());
+        consoleParallax.registerCommand(new BlockingCommand(started, release));
+        closeables.add(consoleParallax);
+        SocketCommandServer server = startServer(SocketCommandServer.builder(consoleParallax));
+
+        try (Socket blocking = connect(server); Socket queued = connect(server); Socket rejected = connect(server)) {
+            send(blocking, "block\n");
+            assertTrue(started.await(5, TimeUnit.SECONDS), "Command should block the command executor");
+
+            send(queued, "echo queued\n");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+            while (consoleParallax.getQueuedCommandCount() == 0) {
+                assertTrue(System.nanoTime() < deadline, "Session's commands should be queued");
+                Thread.sleep(5);
+            }
+
+            send(rejected, "echo rejected\n");
+            assertEquals(SocketSession.ERROR_PREFIX + "1 commands rejected, command queue is full", createReader(rejected).readLine(), "Session over the queue capacity should be rejected");
+            assertEquals(1, consoleParallax.getRejectedCommandCount(), "Rejection should be counted");
+
+            release.countDown();
+            assertEquals("queued", createReader(queued).readLine(), "Queued session should be executed");
+
+            send(rejected, "echo again\n");
+            assertEquals("again", createReader(rejected).readLine(), "Rejected session should accept further input");
+        }
+    }
+
+    @Test
+    public void testParentRestart() throws Exception {
+        ConsoleParallax consoleParallax = createConsoleParallax();
+        SocketCommandServer server = startServer(SocketCommandServer.builder(consoleParallax));
+
+        try (Socket socket = connect(server)) {
+            BufferedReader reader = createReader(socket);
+
+            send(socket, "echo before\n");
+            assertEquals("before", reader.readLine(), "Command should be executed");
+
+            consoleParallax.start();
+            assertTrue(consoleParallax.stop(5, TimeUnit.SECONDS), "ConsoleParallax should stop");
+            consoleParallax.start();
+
+            send(socket, "echo after\n");
+            assertEquals("after", reader.readLine(), "Existing session should use the parent's new command executor");
+        }
+    }
+
+    @Test
+    public void testUnixDomainSocket() throws Exception {
+        Class<?> addressClass;
+
+        try {
+            addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+        } catch (ClassNotFoundException ignored) {
+            return; // Requires Java 16+
+        }
+
+        Path path = Files.createTempDirectory("console-parallax").resolve("admin.sock");
+        SocketAddress address = (SocketAddress) addressClass.getMethod("of", Path.class).invoke(null, path);
+        startServer(SocketCommandServer.builder(createConsoleParallax()).setAddress(address));
+
+        ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+
+        try (SocketChannel channel = (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix)) {
+            channel.connect(address);
+            channel.write(StandardCharsets.UTF_8.encode("echo unix\n"));
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            assertEquals("unix", reader.readLine(), "Command should be executed over a Unix domain socket");
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(path.getParent());
+        }
+    }
+
+    private ConsoleParallax createConsoleParallax() {
+        ConsoleParallax consoleParallax = ConsoleParallaxTest.createTestBuilder().build();
+        consoleParallax.registerCommand(new EchoCommand());
+        consoleParallax.registerCommand(new FloodCommand());
+        closeables.add(consoleParallax);
+        return consoleParallax;
+    }
+
+    private SocketCommandServer startServer(SocketCommandServer.Builder builder) throws IOException {
+        SocketCommandServer server = builder.build();
+        closeables.add(0, server);
+        server.start();
+        return server;
+    }
+
+    private static Socket connect(SocketCommandServer server) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(server.getLocalAddress(), SOCKET_TIMEOUT_MILLIS);
+        socket.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+        assertTrue(((InetSocketAddress) server.getLocalAddress()).getAddress().isLoopbackAddress(), "Server should listen on loopback by default");
+        return socket;
+    }
+
+    private static BufferedReader createReader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Socket socket, String data) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(data.getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    private static final class EchoCommand implements BaseCommand {
+
+        @Override
+        public @NotNull String getName() {
+            return "echo";
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            context.getOutputHandler().info(String.join(" ", context.getArguments()));
+        }
+    }
+
+    private static final class BlockingCommand implements BaseCommand {
+
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private BlockingCommand(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return "block";
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class FloodCommand implements BaseCommand {
+
+        private static final int MESSAGES = 1000;
+
+        @Override
+        public @NotNull String getName() {
+            return "flood";
+        }
+
+        @Override
+        public void execute(@NotNull CommandInvocationContext context) {
+            for (int i = 0; i < MESSAGES; i++) {
+                context.getOutputHandler().info("message " + i);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import lombok.SneakyThrows;
 public class TestInputHandler implements InputHandler {
 
     private String command;
+    private boolean pending;
     private final Object mutex = new Object();
 
     public TestInputHandler() {
@@ -14,6 +15,7 @@ public class TestInputHandler implements InputHandler {
     public void run(String command) {
         synchronized (mutex) {
             this.command = command;
+            this.pending = true;
             mutex.notifyAll();
         }
     }
@@ -23,7 +25,11 @@ public class TestInputHandler implements InputHandler {
     public String getNextInput() {
         synchronized (mutex) {
             try {
-                mutex.wait();
+                while (!pending) {
+                    mutex.wait();
+                }
+
+                pending = false;
                 return command;
             } catch (InterruptedException e) {
                 return null;
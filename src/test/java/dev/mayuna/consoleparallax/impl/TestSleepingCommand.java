@@ -0,0 +1,50 @@
+package dev.mayuna.consoleparallax.impl;
+
+import dev.mayuna.consoleparallax.BaseCommand;
+import dev.mayuna.consoleparallax.CommandInvocationContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSleepingCommand implements BaseCommand {
+
+    public static final String NAME = "sleep";
+
+    private final long sleepMillis;
+    private final String serializationKey;
+    private final AtomicInteger running = new AtomicInteger();
+
+    public final AtomicInteger maxRunning = new AtomicInteger();
+    public volatile CountDownLatch latch = new CountDownLatch(0);
+
+    public TestSleepingCommand(long sleepMillis, String serializationKey) {
+        this.sleepMillis = sleepMillis;
+        this.serializationKey = serializationKey;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return NAME;
+    }
+
+    @Override
+    public @Nullable String getSerializationKey() {
+        return serializationKey;
+    }
+
+    @Override
+    public void execute(@NotNull CommandInvocationContext context) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.decrementAndGet();
+            latch.countDown();
+        }
+    }
+}